@@ -27,10 +27,12 @@ import com.intellij.openapi.application.ApplicationInfo
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.application.ApplicationNamesInfo
 import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.fileEditor.FileEditorManager
 import com.intellij.openapi.fileEditor.OpenFileDescriptor
 import com.intellij.openapi.module.Module
 import com.intellij.openapi.progress.PerformInBackgroundOption
+import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.Task
@@ -43,6 +45,7 @@ import com.intellij.openapi.ui.MessageDialogBuilder
 import com.intellij.openapi.util.io.FileUtilRt
 import com.intellij.openapi.vfs.VfsUtil
 import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.concurrency.AppExecutorUtil
 import com.intellij.util.net.ssl.CertificateManager
 import com.intellij.util.proxy.CommonProxy
 import java.io.ByteArrayInputStream
@@ -60,7 +63,10 @@ import java.security.cert.X509Certificate
 import java.util.UUID
 import java.util.concurrent.CancellationException
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 import java.util.concurrent.TimeoutException
+import kotlin.math.max
+import kotlin.math.min
 import org.apache.commons.text.StringEscapeUtils
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException
 import org.eclipse.lsp4j.jsonrpc.messages.ResponseError
@@ -101,6 +107,7 @@ import org.sonarlint.intellij.finding.issue.LiveIssue
 import org.sonarlint.intellij.finding.issue.vulnerabilities.LocalTaintVulnerability
 import org.sonarlint.intellij.finding.issue.vulnerabilities.TaintVulnerabilityMatcher
 import org.sonarlint.intellij.fix.ShowFixSuggestion
+import org.sonarlint.intellij.fs.ClientFileListingCache
 import org.sonarlint.intellij.notifications.AnalysisRequirementNotifications.notifyOnceForSkippedPlugins
 import org.sonarlint.intellij.notifications.OpenLinkAction
 import org.sonarlint.intellij.notifications.SonarLintProjectNotifications.Companion.get
@@ -171,6 +178,10 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
     private const val AUTOSCAN_CONFIG_FILENAME = ".sonarcloud.properties"
     private const val SONARLINT_CONFIGURATION_FOLDER = ".sonarlint"
     private val backendTaskProgressReporter = BackendTaskProgressReporter()
+    private const val LIST_FILES_CHUNK_SIZE = 500
+    private val listFilesExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+        "SonarLint list files", max(1, min(4, Runtime.getRuntime().availableProcessors() / 2))
+    )
 
     override fun suggestBinding(suggestionsByConfigScopeId: Map<String, List<BindingSuggestionDto>>) {
         suggestionsByConfigScopeId.forEach { (configScopeId, suggestions) -> suggestAutoBind(findProject(configScopeId), suggestions) }
@@ -777,8 +788,12 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
 
         val forcedLanguages = collectContributedLanguages(module, filesInContentRoots)
 
-        val clientFiles = filesInContentRoots.mapNotNull { file ->
+        val listing = getService(module.project, ClientFileListingCache::class.java).open(configScopeId, module)
+        val clientFiles = toClientFileDtosInChunks(module.project, filesInContentRoots.toList()) { file ->
             val forcedLanguage = forcedLanguages[file]?.let { fl -> Language.valueOf(fl.name) }
+            if (forcedLanguage == null && !shouldSendContent(file)) {
+                listing.getCached(file, configScopeId)?.let { return@toClientFileDtosInChunks it }
+            }
             getRelativePathForAnalysis(module, file)?.let { relativePath ->
                 toClientFileDto(
                     module.project,
@@ -786,9 +801,10 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
                     file,
                     relativePath,
                     forcedLanguage
-                )
+                )?.also { listing.record(file, it) }
             }
-        }.toMutableList()
+        }
+        listing.saveInBackground()
 
         if (isRider()) {
             computeRiderSharedConfiguration(module.project, configScopeId)?.let {
@@ -800,7 +816,7 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
     }
 
     private fun listProjectFiles(project: Project, configScopeId: String): MutableList<ClientFileDto> {
-        return listFilesInProjectBaseDir(project).mapNotNull { file ->
+        return toClientFileDtosInChunks(project, listFilesInProjectBaseDir(project).toList()) { file ->
             getRelativePathForAnalysis(project, file)?.let { relativePath ->
                 toClientFileDto(
                     project,
@@ -810,7 +826,46 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
                     null
                 )
             }
-        }.toMutableList()
+        }
+    }
+
+    /**
+     * Converts the files by chunks, in parallel. Each chunk runs in a single non-blocking read action instead of one read action per file,
+     * so that a write action restarts the chunk instead of waiting for the whole listing.
+     */
+    private fun toClientFileDtosInChunks(
+        project: Project,
+        files: List<VirtualFile>,
+        toClientFileDto: (VirtualFile) -> ClientFileDto?,
+    ): MutableList<ClientFileDto> {
+        if (files.size <= LIST_FILES_CHUNK_SIZE || ApplicationManager.getApplication().isDispatchThread) {
+            return computeReadActionSafely(project) { files.mapNotNull(toClientFileDto) }?.toMutableList() ?: mutableListOf()
+        }
+        return files.chunked(LIST_FILES_CHUNK_SIZE)
+            .map { chunk ->
+                chunk to CompletableFuture.supplyAsync({
+                    ReadAction.nonBlocking<List<ClientFileDto>> {
+                        chunk.mapNotNull { file ->
+                            ProgressManager.checkCanceled()
+                            toClientFileDto(file)
+                        }
+                    }.expireWith(project).executeSynchronously()
+                }, listFilesExecutor)
+            }
+            .flatMapTo(mutableListOf()) { (chunk, chunkFuture) ->
+                try {
+                    chunkFuture.join()
+                } catch (e: CompletionException) {
+                    val cause = e.cause ?: e
+                    if (project.isDisposed) {
+                        throw cause
+                    }
+                    // The backend considers unlisted files as absent, so the listing is never truncated: the chunk is retried, and a
+                    // failure of the retry propagates to the caller
+                    GlobalLogOutput.get().log("Error while listing ${chunk.size} files, retrying sequentially: ${cause.message}", ClientLogOutput.Level.DEBUG)
+                    computeReadActionSafely(project) { chunk.mapNotNull(toClientFileDto) } ?: throw cause
+                }
+            }
     }
 
     // useful for Rider where the files to find are not located in content roots
@@ -823,6 +878,12 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
         }?.toSet() ?: return emptySet()
     }
 
+    private fun shouldSendContent(file: VirtualFile) = file.name == SONAR_SCANNER_CONFIG_FILENAME
+        || file.name == AUTOSCAN_CONFIG_FILENAME
+        || file.parent?.name == SONARLINT_CONFIGURATION_FOLDER
+        // Notebooks require special parsing, we should always send the content
+        || file.extension == "ipynb"
+
     private fun toClientFileDto(
         project: Project,
         configScopeId: String,
@@ -833,12 +894,7 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
         if (!file.isValid || FileUtilRt.isTooLarge(file.length)) return null
         val uri = VirtualFileUtils.toURI(file) ?: return null
         var fileContent: String? = null
-        if (file.name == SONAR_SCANNER_CONFIG_FILENAME
-            || file.name == AUTOSCAN_CONFIG_FILENAME
-            || file.parent?.name == SONARLINT_CONFIGURATION_FOLDER
-            // Notebooks require special parsing, we should always send the content
-            || file.extension == "ipynb"
-        ) {
+        if (shouldSendContent(file)) {
             fileContent = computeReadActionSafely(project) { getFileContent(file) }
         }
         return try {
@@ -888,9 +944,11 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
         val runningAnalysis = analysisId?.let { getService(project, RunningAnalysesTracker::class.java).getById(it) }
 
         if (runningAnalysis != null) {
-            runningAnalysis.addRawIssues(analysisId, issuesByFileUri, isIntermediatePublication)
-            if (runningAnalysis.isAnalysisFinished()) {
-                getService(project, RunningAnalysesTracker::class.java).finish(runningAnalysis)
+            runningAnalysis.addRawIssues(analysisId, issuesByFileUri, isIntermediatePublication).thenRun {
+                // Only stop tracking once the final result has been published, callers wait for the analysis to leave the tracker
+                if (runningAnalysis.isAnalysisFinished()) {
+                    getService(project, RunningAnalysesTracker::class.java).finish(runningAnalysis)
+                }
             }
         } else if (analysisId == null && module != null) {
             val onTheFlyFindingsHolder = getService(project, AnalysisSubmitter::class.java).onTheFlyFindingsHolder
@@ -909,9 +967,11 @@ object SonarLintIntelliJClient : SonarLintRpcClientDelegate {
         val runningAnalysis = analysisId?.let { getService(project, RunningAnalysesTracker::class.java).getById(it) }
 
         if (runningAnalysis != null) {
-            runningAnalysis.addRawHotspots(analysisId, hotspotsByFileUri, isIntermediatePublication)
-            if (runningAnalysis.isAnalysisFinished()) {
-                getService(project, RunningAnalysesTracker::class.java).finish(runningAnalysis)
+            runningAnalysis.addRawHotspots(analysisId, hotspotsByFileUri, isIntermediatePublication).thenRun {
+                // Only stop tracking once the final result has been published, callers wait for the analysis to leave the tracker
+                if (runningAnalysis.isAnalysisFinished()) {
+                    getService(project, RunningAnalysesTracker::class.java).finish(runningAnalysis)
+                }
             }
         } else if (analysisId == null && module != null) {
             val onTheFlyFindingsHolder = getService(project, AnalysisSubmitter::class.java).onTheFlyFindingsHolder
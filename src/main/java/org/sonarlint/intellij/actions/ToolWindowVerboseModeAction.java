@@ -21,6 +21,8 @@ package org.sonarlint.intellij.actions;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.AnActionEvent;
+import org.sonarlint.intellij.common.ui.SonarLintConsole;
+import org.sonarlint.intellij.ui.SonarLintConsoleImpl;
 
 import static org.sonarlint.intellij.config.Settings.getSettingsFor;
 
@@ -41,6 +43,9 @@ public class ToolWindowVerboseModeAction extends AbstractSonarToggleAction {
     var p = event.getProject();
     if (p != null) {
       getSettingsFor(p).setVerboseEnabled(flag);
+      if (SonarLintConsole.get(p) instanceof SonarLintConsoleImpl console) {
+        console.setVerboseEnabled(flag);
+      }
     }
   }
 }
@@ -19,12 +19,15 @@
  */
 package org.sonarlint.intellij.analysis;
 
+import com.intellij.concurrency.SensitiveProgressWrapper;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.sonarlint.intellij.cayc.NewCodePeriodCache;
 import org.sonarlint.intellij.common.ui.SonarLintConsole;
 import org.sonarlint.intellij.core.BackendService;
@@ -46,13 +54,21 @@ import static java.util.stream.Collectors.toSet;
 import static org.sonarlint.intellij.common.util.SonarLintUtils.getService;
 import static org.sonarlint.intellij.common.util.SonarLintUtils.isRider;
 import static org.sonarlint.intellij.ui.UiUtils.runOnUiThreadAndWait;
+import static org.sonarlint.intellij.util.ProgressUtils.waitForFuture;
 
 public class Analysis implements Cancelable {
+  static final String MODULES_PARALLELISM_PROPERTY = "sonarlint.analysis.modules.parallelism";
+  private static final int MAX_DEFAULT_MODULES_PARALLELISM = 4;
+  // shared by all the analyses, so that concurrent analyses of several projects do not multiply the number of threads
+  private static final ExecutorService MODULE_ANALYSIS_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor("SonarLint module analysis",
+    getModulesParallelism());
+
   private final Project project;
   private final Collection<VirtualFile> files;
   private final TriggerType trigger;
   private final AnalysisCallback callback;
-  private boolean finished = false;
+  private volatile boolean finished = false;
+  private volatile long durationMillis;
   private boolean cancelled;
   private ProgressIndicator indicator;
 
@@ -64,12 +80,14 @@ public class Analysis implements Cancelable {
   }
 
   public List<UUID> run(ProgressIndicator indicator) {
+    var start = System.currentTimeMillis();
     try {
       finished = false;
       this.indicator = indicator;
       notifyStart();
       return doRun(indicator);
     } finally {
+      durationMillis = System.currentTimeMillis() - start;
       finished = true;
       this.indicator = null;
       if (!project.isDisposed()) {
@@ -82,6 +100,13 @@ public class Analysis implements Cancelable {
     return finished;
   }
 
+  /**
+   * Duration of the last run, only meaningful once the analysis is finished.
+   */
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
   @Override
   public void cancel() {
     if (!isFinished()) {
@@ -129,12 +154,15 @@ public class Analysis implements Cancelable {
         return Collections.emptyList();
       }
 
-      var summary = analyzePerModule(scope, indicator, trigger);
+      var summary = analyzePerModule(scope, indicator);
 
       indicator.setIndeterminate(false);
       indicator.setFraction(.9);
 
       summary.logFailedFiles();
+      if (!summary.failedFiles().isEmpty()) {
+        callback.onFailedFiles(summary.failedFiles());
+      }
 
       checkCanceled(indicator);
       checkCanceled(indicator);
@@ -173,36 +201,116 @@ public class Analysis implements Cancelable {
     return cancelled || indicator.isCanceled() || project.isDisposed() || Thread.currentThread().isInterrupted() || AnalysisStatus.get(project).isCanceled();
   }
 
-  private Summary analyzePerModule(AnalysisScope scope, ProgressIndicator indicator, TriggerType trigger) {
+  private Summary analyzePerModule(AnalysisScope scope, ProgressIndicator indicator) {
     indicator.setIndeterminate(true);
     indicator.setText("Running SonarQube for IDE Analysis for " + scope.getDescription());
 
+    var filesByModule = scope.getFilesByModule();
+    var parallelism = Math.min(getModulesParallelism(), filesByModule.size());
+    if (parallelism > 1) {
+      return analyzeModulesConcurrently(filesByModule, parallelism, indicator, scope.shouldFetchServerIssues());
+    }
+
     var analyzer = getService(project, SonarLintAnalyzer.class);
     var results = new LinkedHashMap<Module, ModuleAnalysisResult>();
     var analysisIds = new ArrayList<UUID>();
-    for (var entry : scope.getFilesByModule().entrySet()) {
+    for (var entry : filesByModule.entrySet()) {
       var module = entry.getKey();
       var analysisId = UUID.randomUUID();
       analysisIds.add(analysisId);
+      results.put(module, analyzeModule(analyzer, module, entry.getValue(), analysisId, indicator, scope.shouldFetchServerIssues()));
+      checkCanceled(indicator);
+    }
+    return summarize(results, analysisIds);
+  }
 
-      if (isRider()) {
-        var filesEvent = entry.getValue().stream().map(file -> new VirtualFileEvent(ModuleFileEvent.Type.CREATED, file)).toList();
-        getService(BackendService.class).updateFileSystem(Map.of(module, filesEvent), true);
-      }
+  /**
+   * Submits the analysis of several modules to the backend at once, at most {@code parallelism} at a time.
+   * Each module runs under its own child indicator, so that cancelling one module (e.g. because a newer analysis made it redundant)
+   * does not cancel the others, while cancelling the parent indicator cancels them all and leaves the remaining modules unanalyzed.
+   */
+  Summary analyzeModulesConcurrently(Map<Module, Collection<VirtualFile>> filesByModule, int parallelism, ProgressIndicator indicator,
+    boolean shouldFetchServerIssues) {
+    var console = getService(project, SonarLintConsole.class);
+    console.debug(String.format("Analyzing %d modules with a parallelism of %d", filesByModule.size(), parallelism));
 
-      var analysisState = new AnalysisState(analysisId, callback, entry.getValue(), module, trigger, indicator);
-      results.put(module, analyzer.analyzeModule(module, entry.getValue(), analysisState, indicator, scope.shouldFetchServerIssues()));
-      checkCanceled(indicator);
+    var analyzer = getService(project, SonarLintAnalyzer.class);
+    var results = new ConcurrentHashMap<Module, ModuleAnalysisResult>();
+    var analysisIds = new ArrayList<UUID>();
+    var pendingModules = new ConcurrentLinkedQueue<PendingModule>();
+    for (var entry : filesByModule.entrySet()) {
+      var analysisId = UUID.randomUUID();
+      analysisIds.add(analysisId);
+      pendingModules.add(new PendingModule(entry.getKey(), entry.getValue(), analysisId));
+    }
+    var analyzedModulesCount = new AtomicInteger();
+    var modulesCount = filesByModule.size();
+    indicator.setIndeterminate(false);
+    indicator.setFraction(0);
+
+    var workers = new ArrayList<CompletableFuture<Void>>();
+    for (var i = 0; i < parallelism; i++) {
+      workers.add(CompletableFuture.runAsync(() -> {
+        PendingModule pendingModule;
+        while (!isCancelled(indicator) && (pendingModule = pendingModules.poll()) != null) {
+          analyzeModuleUnderOwnIndicator(analyzer, pendingModule, indicator, shouldFetchServerIssues, results);
+          var analyzedModules = analyzedModulesCount.incrementAndGet();
+          indicator.setText2(String.format("%d/%d modules analyzed", analyzedModules, modulesCount));
+          indicator.setFraction(.9 * analyzedModules / modulesCount);
+        }
+      }, MODULE_ANALYSIS_EXECUTOR));
     }
+    waitForFuture(indicator, CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])));
+    checkCanceled(indicator);
     return summarize(results, analysisIds);
   }
 
+  private void analyzeModuleUnderOwnIndicator(SonarLintAnalyzer analyzer, PendingModule pendingModule, ProgressIndicator indicator,
+    boolean shouldFetchServerIssues, Map<Module, ModuleAnalysisResult> results) {
+    var module = pendingModule.module();
+    var moduleIndicator = new SensitiveProgressWrapper(indicator);
+    ProgressManager.getInstance().runProcess(() -> {
+      try {
+        var result = analyzeModule(analyzer, module, pendingModule.files(), pendingModule.analysisId(), moduleIndicator, shouldFetchServerIssues);
+        results.put(module, result);
+      } catch (CanceledException | ProcessCanceledException e) {
+        if (isCancelled(indicator)) {
+          throw e;
+        }
+        getService(project, SonarLintConsole.class).debug("Analysis of module '" + module.getName() + "' canceled");
+      }
+    }, moduleIndicator);
+  }
+
+  private ModuleAnalysisResult analyzeModule(SonarLintAnalyzer analyzer, Module module, Collection<VirtualFile> filesToAnalyze, UUID analysisId,
+    ProgressIndicator indicator, boolean shouldFetchServerIssues) {
+    if (isRider()) {
+      var filesEvent = filesToAnalyze.stream().map(file -> new VirtualFileEvent(ModuleFileEvent.Type.CREATED, file)).toList();
+      getService(BackendService.class).updateFileSystem(Map.of(module, filesEvent), true);
+    }
+
+    var analysisState = new AnalysisState(analysisId, callback, filesToAnalyze, module, trigger, indicator);
+    return analyzer.analyzeModule(module, filesToAnalyze, analysisState, indicator, shouldFetchServerIssues);
+  }
+
+  static int getModulesParallelism() {
+    var defaultParallelism = Math.max(1, Math.min(MAX_DEFAULT_MODULES_PARALLELISM, Runtime.getRuntime().availableProcessors() / 2));
+    try {
+      return Math.max(1, Integer.parseInt(System.getProperty(MODULES_PARALLELISM_PROPERTY, String.valueOf(defaultParallelism))));
+    } catch (NumberFormatException e) {
+      return defaultParallelism;
+    }
+  }
+
   private Summary summarize(Map<Module, ModuleAnalysisResult> resultsByModule, List<UUID> analysisIds) {
     var allFailedFiles = resultsByModule.values().stream().flatMap(r -> r.failedFiles().stream()).collect(toSet());
     return new Summary(project, allFailedFiles, analysisIds);
   }
 
-  private record Summary(Project project, Set<VirtualFile> failedFiles, List<UUID> analysisIds) {
+  private record PendingModule(Module module, Collection<VirtualFile> files, UUID analysisId) {
+  }
+
+  record Summary(Project project, Set<VirtualFile> failedFiles, List<UUID> analysisIds) {
 
     public void logFailedFiles() {
       failedFiles.forEach(vFile -> SonarLintConsole.get(project).debug("Analysis of file '" + vFile.getPath() + "' might not be " +
@@ -19,11 +19,24 @@
  */
 package org.sonarlint.intellij.analysis;
 
+import com.intellij.openapi.vfs.VirtualFile;
+import java.util.Set;
+
 public interface AnalysisCallback {
+  /**
+   * Called with the findings of the files published since the previous call only, see {@link AnalysisIntermediateResult}.
+   */
   default void onIntermediateResult(AnalysisIntermediateResult intermediateResult) {
     // no op
   }
 
+  /**
+   * Called with the files that the backend could not analyze properly, can happen before or after {@link #onSuccess}.
+   */
+  default void onFailedFiles(Set<VirtualFile> failedFiles) {
+    // no op
+  }
+
   void onSuccess(AnalysisResult analysisResult);
   void onError(Throwable e);
 }
@@ -21,4 +21,9 @@ package org.sonarlint.intellij.analysis
 
 import org.sonarlint.intellij.finding.LiveFindings
 
+/**
+ * The findings of the files published by the backend since the previous intermediate result of the same analysis, not all the findings
+ * found so far. Files absent from [findings] were not published yet, their previous findings must be kept.
+ * The final [AnalysisResult] carries the findings of all the files.
+ */
 data class AnalysisIntermediateResult(val findings: LiveFindings)
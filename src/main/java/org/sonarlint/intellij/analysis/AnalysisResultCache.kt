@@ -0,0 +1,200 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.analysis
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ModuleRootEvent
+import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.util.TextRange
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.serviceContainer.NonInjectable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import org.sonarlint.intellij.common.ui.ReadActionUtils.Companion.computeReadActionSafely
+import org.sonarlint.intellij.common.ui.SonarLintConsole
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
+import org.sonarlint.intellij.config.global.SonarLintGlobalSettings
+import org.sonarlint.intellij.finding.FindingsValidity
+import org.sonarlint.intellij.finding.LiveFinding
+import org.sonarlint.intellij.finding.LiveFindings
+import org.sonarlint.intellij.finding.hotspot.LiveSecurityHotspot
+import org.sonarlint.intellij.finding.issue.LiveIssue
+import org.sonarlint.intellij.messages.GlobalConfigurationListener
+import org.sonarlint.intellij.messages.ProjectConfigurationListener
+import org.sonarlint.intellij.util.ContentHash
+import org.sonarlint.intellij.util.SonarLintAppUtils.findModuleForFile
+
+/**
+ * Remembers the findings of the latest complete on-the-fly analysis of each file, so that files that did not change since then are not
+ * analyzed again when they are selected or opened.
+ * An entry is only used if the content of the file, the rules configuration and the properties contributed to the analysis of its module are
+ * the same as when it was analyzed, and if the findings still point to the same ranges.
+ * The rules configuration is represented by a version that is incremented whenever the settings or the binding change.
+ */
+@Service(Service.Level.PROJECT)
+class AnalysisResultCache @NonInjectable internal constructor(private val project: Project, private val maxEntries: Int) {
+
+    constructor(project: Project) : this(project, MAX_ENTRIES)
+
+    // access-ordered to evict the least recently used entry, guarded by this
+    private val entries = object : LinkedHashMap<VirtualFile, Entry>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<VirtualFile, Entry>) = size > maxEntries
+    }
+    private val rulesVersion = AtomicLong()
+    private val propertiesHashByModule = ConcurrentHashMap<Module, Int>()
+    private val hits = AtomicLong()
+    private val misses = AtomicLong()
+
+    init {
+        val busConnection = project.messageBus.connect()
+        busConnection.subscribe(GlobalConfigurationListener.TOPIC, object : GlobalConfigurationListener.Adapter() {
+            override fun applied(previousSettings: SonarLintGlobalSettings, newSettings: SonarLintGlobalSettings) {
+                invalidate()
+            }
+        })
+        busConnection.subscribe(ProjectConfigurationListener.TOPIC, ProjectConfigurationListener { invalidate() })
+        // the contributed properties depend on the project structure, they are known again after the next analysis of the module
+        busConnection.subscribe(ModuleRootListener.TOPIC, object : ModuleRootListener {
+            override fun rootsChanged(event: ModuleRootEvent) {
+                propertiesHashByModule.clear()
+            }
+        })
+    }
+
+    fun invalidate() {
+        rulesVersion.incrementAndGet()
+        synchronized(this) {
+            entries.clear()
+        }
+        getService(project, SonarLintConsole::class.java).debug("Analysis result cache invalidated (${summary()} since startup)")
+    }
+
+    fun summary() = "${hits.get()} hits, ${misses.get()} misses"
+
+    /**
+     * Forgets the findings of the files, e.g. because the backend analyzed them on its own.
+     * Closed files are kept, so that reopening them does not need a new analysis. The number of entries retaining a document through their
+     * range markers is bounded by the eviction of the least recently used ones.
+     */
+    fun invalidate(files: Collection<VirtualFile>) {
+        synchronized(this) {
+            files.forEach { entries.remove(it) }
+        }
+    }
+
+    fun recordContributedProperties(module: Module, contributedProperties: Map<String, String>) {
+        propertiesHashByModule[module] = contributedProperties.hashCode()
+    }
+
+    /**
+     * Returns the findings of the files that did not change since their latest analysis. The other files need to be analyzed.
+     */
+    fun getCachedFindings(files: Collection<VirtualFile>): CachedFindings {
+        val issuesPerFile = HashMap<VirtualFile, Collection<LiveIssue>>()
+        val securityHotspotsPerFile = HashMap<VirtualFile, Collection<LiveSecurityHotspot>>()
+        files.forEach { file ->
+            val entry = synchronized(this) { entries[file] }
+            if (entry != null && entry.matches(file, computeKey(file))) {
+                issuesPerFile[file] = entry.issues
+                securityHotspotsPerFile[file] = entry.securityHotspots
+            }
+        }
+        hits.addAndGet(issuesPerFile.size.toLong())
+        misses.addAndGet((files.size - issuesPerFile.size).toLong())
+        return CachedFindings(LiveFindings(issuesPerFile, securityHotspotsPerFile), issuesPerFile.keys)
+    }
+
+    /**
+     * Captures the state of the files before they are analyzed, so that the results can later be stored for the content that was analyzed.
+     */
+    fun snapshot(files: Collection<VirtualFile>): Snapshot {
+        return Snapshot(files.mapNotNull { file -> computeKey(file)?.let { file to it } }.toMap())
+    }
+
+    private fun computeKey(file: VirtualFile): Key? {
+        val module = findModuleForFile(file, project) ?: return null
+        val propertiesHash = propertiesHashByModule[module] ?: return null
+        val version = rulesVersion.get()
+        val contentHash = computeReadActionSafely(project) {
+            FileDocumentManager.getInstance().getCachedDocument(file)?.let { ContentHash.of(it.immutableCharSequence) }
+        } ?: return null
+        return Key(contentHash, version, propertiesHash)
+    }
+
+    inner class Snapshot(private val keysByFile: Map<VirtualFile, Key>) {
+        // guarded by the cache
+        private val failedFiles = HashSet<VirtualFile>()
+
+        fun store(analysisResult: AnalysisResult) {
+            val findings = analysisResult.findings
+            analysisResult.analyzedFiles.forEach { file ->
+                val key = keysByFile[file] ?: return@forEach
+                // the file might have been edited while it was analyzed
+                if (key != computeKey(file)) {
+                    return@forEach
+                }
+                val issues = findings.issuesPerFile[file] ?: emptyList()
+                val securityHotspots = findings.securityHotspotsPerFile[file] ?: emptyList()
+                val entry = Entry(key, issues, securityHotspots, rangesOf(issues + securityHotspots))
+                synchronized(this@AnalysisResultCache) {
+                    if (file !in failedFiles) {
+                        entries[file] = entry
+                    }
+                }
+            }
+        }
+
+        /**
+         * The findings of files that failed to be analyzed are incomplete, they must not be served. Can be called before or after [store].
+         */
+        fun discard(files: Collection<VirtualFile>) {
+            synchronized(this@AnalysisResultCache) {
+                failedFiles.addAll(files)
+                files.forEach { entries.remove(it) }
+            }
+        }
+    }
+
+    class CachedFindings(val findings: LiveFindings, val files: Set<VirtualFile>)
+
+    data class Key(val contentHash: Long, val rulesVersion: Long, val propertiesHash: Int)
+
+    private class Entry(
+        val key: Key,
+        val issues: Collection<LiveIssue>,
+        val securityHotspots: Collection<LiveSecurityHotspot>,
+        val ranges: List<TextRange?>,
+    ) {
+        private val findings = issues + securityHotspots
+
+        // range markers follow the edits, an edit that was reverted can leave them elsewhere than where the analysis put them
+        fun matches(file: VirtualFile, currentKey: Key?) =
+            key == currentKey && FindingsValidity.filterValid(file, findings).size == findings.size && rangesOf(findings) == ranges
+    }
+
+    companion object {
+        private const val MAX_ENTRIES = 200
+
+        private fun rangesOf(findings: List<LiveFinding>) = findings.map { it.range?.let { range -> TextRange(range.startOffset, range.endOffset) } }
+    }
+}
@@ -24,10 +24,16 @@ import com.intellij.openapi.module.Module
 import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.concurrency.AppExecutorUtil
 import java.net.URI
 import java.time.Instant
+import java.util.Collections
 import java.util.UUID
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 import java.util.concurrent.ConcurrentHashMap
+import kotlin.math.max
+import kotlin.math.min
 import org.sonarlint.intellij.common.ui.ReadActionUtils.Companion.computeReadActionSafely
 import org.sonarlint.intellij.common.ui.SonarLintConsole
 import org.sonarlint.intellij.config.Settings
@@ -52,11 +58,20 @@ class AnalysisState(
 ) {
     private val modificationStampByFile = ConcurrentHashMap<VirtualFile, Long>()
     private val analysisDate: Instant = Instant.now()
-    private val liveIssues = mutableMapOf<VirtualFile, Collection<LiveIssue>>()
-    private val liveHotspots = mutableMapOf<VirtualFile, Collection<LiveSecurityHotspot>>()
+    private val liveIssues = ConcurrentHashMap<VirtualFile, Collection<LiveIssue>>()
+    private val liveHotspots = ConcurrentHashMap<VirtualFile, Collection<LiveSecurityHotspot>>()
+    private val readOnlyLiveIssues: Map<VirtualFile, Collection<LiveIssue>> = Collections.unmodifiableMap(liveIssues)
+    private val readOnlyLiveHotspots: Map<VirtualFile, Collection<LiveSecurityHotspot>> = Collections.unmodifiableMap(liveHotspots)
+    // Files taken over by a more recent analysis, their findings are left to it
+    private val releasedFiles: MutableSet<VirtualFile> = ConcurrentHashMap.newKeySet()
     private val shouldReceiveHotspot: Boolean
+    @Volatile
     private var hasReceivedFinalIssues = false
+    @Volatile
     private var hasReceivedFinalHotspots = false
+    // guarded by this
+    private var publications: CompletableFuture<Void> = CompletableFuture.completedFuture(null)
+    private val finalPublication = CompletableFuture<Void>()
 
     init {
         this.initFiles(filesToAnalyze)
@@ -75,72 +90,109 @@ class AnalysisState(
         progress?.cancel()
     }
 
-    fun addRawHotspots(analysisId: UUID, hotspotsByFile: Map<URI, List<RaisedHotspotDto>>, isIntermediate: Boolean) {
-        hasReceivedFinalHotspots = !isIntermediate
-
-        liveHotspots.putAll(hotspotsByFile.mapNotNull { (uri, rawHotspots) ->
-            val virtualFile = uriToVirtualFile(uri)
-            if (virtualFile != null) {
-                val liveHotspots = convertRawHotspots(virtualFile, rawHotspots)
-                virtualFile to liveHotspots
-            } else {
-                null
+    /**
+     * Converts the hotspots off the calling thread, see [publishAfterConversion].
+     * The returned future completes once the resulting findings have been published to the callback.
+     */
+    fun addRawHotspots(analysisId: UUID, hotspotsByFile: Map<URI, List<RaisedHotspotDto>>, isIntermediate: Boolean): CompletableFuture<Void> {
+        synchronized(this) {
+            hasReceivedFinalHotspots = !isIntermediate
+            return publishAfterConversion(analysisId, isAnalysisFinished()) {
+                convertPerFile(hotspotsByFile, ::convertRawHotspots).thenApply { converted ->
+                    liveHotspots.putAll(converted)
+                    LiveFindings(emptyMap(), converted)
+                }
             }
-        })
-
-        if (isAnalysisFinished()) {
-            analysisCallback.onSuccess(
-                AnalysisResult(
-                    analysisId,
-                    LiveFindings(liveIssues, liveHotspots),
-                    filesToAnalyze,
-                    triggerType,
-                    analysisDate
-                )
-            )
-        } else {
-            analysisCallback.onIntermediateResult(AnalysisIntermediateResult(LiveFindings(liveIssues, liveHotspots)))
         }
     }
 
-    fun addRawIssues(analysisId: UUID, issuesByFile: Map<URI, List<RaisedIssueDto>>, isIntermediate: Boolean) {
-        hasReceivedFinalIssues = !isIntermediate
+    /**
+     * Converts the issues off the calling thread, see [publishAfterConversion].
+     * The returned future completes once the resulting findings have been published to the callback.
+     */
+    fun addRawIssues(analysisId: UUID, issuesByFile: Map<URI, List<RaisedIssueDto>>, isIntermediate: Boolean): CompletableFuture<Void> {
+        synchronized(this) {
+            hasReceivedFinalIssues = !isIntermediate
+            return publishAfterConversion(analysisId, isAnalysisFinished()) {
+                convertPerFile(issuesByFile, ::convertRawIssues).thenApply { converted ->
+                    liveIssues.putAll(converted)
+                    LiveFindings(converted, emptyMap())
+                }
+            }
+        }
+    }
 
-        liveIssues.putAll(issuesByFile.mapNotNull { (uri, rawIssues) ->
-            val virtualFile = uriToVirtualFile(uri)
-            if (virtualFile != null) {
-                val liveIssues = convertRawIssues(virtualFile, rawIssues)
-                virtualFile to liveIssues
-            } else {
-                null
+    /**
+     * Publications are handled one after the other, in the order they were received, so that an intermediate result never overrides a
+     * more recent one. Intermediate results only carry the files of the publication, the final result exposes all accumulated findings.
+     */
+    private fun publishAfterConversion(
+        analysisId: UUID,
+        isFinalPublication: Boolean,
+        conversion: () -> CompletableFuture<LiveFindings>,
+    ): CompletableFuture<Void> {
+        synchronized(this) {
+            publications = publications
+                .thenCompose { conversion() }
+                .thenAccept { publishedFindings ->
+                    if (isFinalPublication) {
+                        analysisCallback.onSuccess(
+                            AnalysisResult(
+                                analysisId,
+                                finalFindings(),
+                                if (releasedFiles.isEmpty()) filesToAnalyze else ownedFiles().toMutableList(),
+                                triggerType,
+                                analysisDate
+                            )
+                        )
+                    } else {
+                        analysisCallback.onIntermediateResult(AnalysisIntermediateResult(publishedFindings))
+                    }
+                }
+                .exceptionally { e ->
+                    val cause = if (e is CompletionException) e.cause else e
+                    if (cause !is ProcessCanceledException) {
+                        SonarLintConsole.get(module.project).error("Error while publishing findings of analysis $analysisId", cause)
+                    }
+                    null
+                }
+            if (isFinalPublication) {
+                publications.thenRun { finalPublication.complete(null) }
             }
-        })
-
-        if (isAnalysisFinished()) {
-            analysisCallback.onSuccess(
-                AnalysisResult(
-                    analysisId,
-                    LiveFindings(liveIssues, liveHotspots),
-                    filesToAnalyze,
-                    triggerType,
-                    analysisDate
-                )
-            )
-        } else {
-            analysisCallback.onIntermediateResult(AnalysisIntermediateResult(LiveFindings(liveIssues, liveHotspots)))
+            return publications
+        }
+    }
+
+    /**
+     * Completes once the final result has been published to the callback. Never completes if the analysis is cancelled or fails.
+     */
+    fun finalPublication(): CompletableFuture<Void> = finalPublication
+
+    private fun finalFindings(): LiveFindings {
+        if (releasedFiles.isEmpty()) {
+            return LiveFindings(readOnlyLiveIssues, readOnlyLiveHotspots)
+        }
+        return LiveFindings(
+            readOnlyLiveIssues.filterKeys { it !in releasedFiles },
+            readOnlyLiveHotspots.filterKeys { it !in releasedFiles })
+    }
+
+    private fun <D, F> convertPerFile(
+        findingsByFile: Map<URI, List<D>>,
+        convert: (VirtualFile, Collection<D>) -> Collection<F>,
+    ): CompletableFuture<Map<VirtualFile, Collection<F>>> {
+        val conversions = findingsByFile.map { (uri, rawFindings) ->
+            CompletableFuture.supplyAsync({
+                uriToVirtualFile(uri)?.takeUnless { it in releasedFiles }?.let { it to convert(it, rawFindings) }
+            }, conversionExecutor)
         }
+        return CompletableFuture.allOf(*conversions.toTypedArray())
+            .thenApply { conversions.mapNotNull { it.join() }.toMap() }
     }
 
     private fun convertRawHotspots(virtualFile: VirtualFile, rawHotspots: Collection<RaisedHotspotDto>): Collection<LiveSecurityHotspot> {
         try {
-            return rawHotspots.mapNotNull { hotspot ->
-                RawIssueAdapter.toLiveSecurityHotspot(
-                    module,
-                    hotspot,
-                    virtualFile,
-                    modificationStampByFile[virtualFile]
-                )
-            }
+            return RawIssueAdapter.toLiveSecurityHotspots(module, rawHotspots, virtualFile, modificationStampByFile[virtualFile])
         } catch (e: ProcessCanceledException) {
             throw e
         } catch (e: Exception) {
@@ -151,14 +203,7 @@ class AnalysisState(
 
     private fun convertRawIssues(virtualFile: VirtualFile, rawIssues: Collection<RaisedIssueDto>): Collection<LiveIssue> {
         try {
-            return rawIssues.mapNotNull { issue ->
-                RawIssueAdapter.toLiveIssue(
-                    module,
-                    issue,
-                    virtualFile,
-                    modificationStampByFile[virtualFile]
-                )
-            }
+            return RawIssueAdapter.toLiveIssues(module, rawIssues, virtualFile, modificationStampByFile[virtualFile])
         } catch (e: ProcessCanceledException) {
             throw e
         } catch (e: Exception) {
@@ -171,12 +216,34 @@ class AnalysisState(
         return hasReceivedFinalIssues && (!shouldReceiveHotspot || hasReceivedFinalHotspots)
     }
 
+    fun analyzes(file: VirtualFile) = filesToAnalyze.contains(file) && file !in releasedFiles
+
+    fun ownedFiles() = filesToAnalyze.filter { it !in releasedFiles }
+
     // Analysis are redundant if both are snapshots (report tab) or both are not snapshots, otherwise they should not cancel each other
     // All the files of the redundant analysis should be contained in the new one, otherwise information might be lost
     fun isRedundant(analysisState: AnalysisState): Boolean {
         val bothSnapshot = triggerType in analysisSnapshot && analysisState.triggerType in analysisSnapshot
         val bothNonSnapshot = triggerType in nonAnalysisSnapshot && analysisState.triggerType in nonAnalysisSnapshot
-        return (bothSnapshot || bothNonSnapshot) && analysisState.filesToAnalyze.containsAll(filesToAnalyze)
+        return (bothSnapshot || bothNonSnapshot) && analysisState.filesToAnalyze.containsAll(ownedFiles())
+    }
+
+    // Only on-the-fly analyses can share their files: their findings all end up in the same place, while a snapshot has to be complete
+    fun isOnTheFly() = triggerType in nonAnalysisSnapshot
+
+    /**
+     * Leaves the given files to a more recent analysis: their findings will neither be converted nor published by this one.
+     * Returns true if this analysis does not own any file anymore.
+     */
+    fun release(files: Collection<VirtualFile>): Boolean {
+        releasedFiles.addAll(files)
+        return filesToAnalyze.all { it in releasedFiles }
+    }
+
+    companion object {
+        private val conversionExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "SonarLint findings conversion", max(1, min(4, Runtime.getRuntime().availableProcessors() / 2))
+        )
     }
 
 }
@@ -27,6 +27,8 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vcs.changes.ChangeListManager;
 import com.intellij.openapi.vfs.VirtualFile;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -122,11 +124,24 @@ public final class AnalysisSubmitter {
     if (!getGlobalSettings().isAutoTrigger()) {
       return null;
     }
-    var callback = new UpdateOnTheFlyFindingsCallable(onTheFlyFindingsHolder);
-    if (TriggerType.Companion.getShouldResetDirtyFiles().contains(triggerType)) {
-      onTheFlyFindingsHolder.clearNonDirtyAnalyzedFiles();
+    var analysisResultCache = getService(project, AnalysisResultCache.class);
+    if (TriggerType.Companion.getShouldInvalidateAnalysisResultCache().contains(triggerType)) {
+      analysisResultCache.invalidate();
     }
-    return analyzeInBackground(files, triggerType, callback);
+    var filesToAnalyze = files;
+    if (TriggerType.Companion.getCanUseAnalysisResultCache().contains(triggerType)) {
+      var cachedFindings = analysisResultCache.getCachedFindings(files);
+      if (!cachedFindings.getFiles().isEmpty()) {
+        onTheFlyFindingsHolder.updateOnAnalysisResult(
+          new AnalysisResult(null, cachedFindings.getFindings(), new ArrayList<>(cachedFindings.getFiles()), triggerType, Instant.now()));
+        filesToAnalyze = files.stream().filter(file -> !cachedFindings.getFiles().contains(file)).toList();
+      }
+      if (filesToAnalyze.isEmpty()) {
+        return null;
+      }
+    }
+    var callback = new UpdateOnTheFlyFindingsCallable(onTheFlyFindingsHolder, analysisResultCache.snapshot(filesToAnalyze));
+    return analyzeInBackground(filesToAnalyze, triggerType, callback);
   }
 
   @CheckForNull
@@ -0,0 +1,138 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.analysis
+
+import com.intellij.openapi.editor.RangeMarker
+import com.intellij.openapi.vfs.VirtualFile
+import java.time.Instant
+import java.util.UUID
+import org.sonarlint.intellij.finding.LiveFinding
+import org.sonarlint.intellij.finding.QuickFix
+import org.sonarlint.intellij.finding.hotspot.LiveSecurityHotspot
+import org.sonarsource.sonarlint.core.commons.HotspotReviewStatus
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.ImpactDto
+import org.sonarsource.sonarlint.core.rpc.protocol.common.IssueSeverity
+
+/**
+ * Difference between two successive publications of the findings of one file, keyed on the backend id.
+ * [merged] holds the new findings, except that unchanged ones keep the instance already known by the views.
+ */
+class FindingsDiff<T : LiveFinding> private constructor(
+    val added: List<T>,
+    val removed: List<T>,
+    val changed: List<T>,
+    val merged: Collection<T>,
+) {
+
+    fun isEmpty() = added.isEmpty() && removed.isEmpty() && changed.isEmpty()
+
+    companion object {
+        @JvmStatic
+        fun <T : LiveFinding> compute(previous: Collection<T>?, current: Collection<T>): FindingsDiff<T> {
+            if (previous.isNullOrEmpty()) {
+                return FindingsDiff(current.toList(), emptyList(), emptyList(), current)
+            }
+            val previousById = previous.associateByTo(HashMap<UUID, T>(previous.size)) { it.backendId }
+            val added = mutableListOf<T>()
+            val changed = mutableListOf<T>()
+            val merged = ArrayList<T>(current.size)
+            for (finding in current) {
+                val known = previousById.remove(finding.backendId)
+                when {
+                    known == null -> {
+                        added.add(finding)
+                        merged.add(finding)
+                    }
+
+                    known.isValid && signatureOf(known) == signatureOf(finding) -> merged.add(known)
+                    else -> {
+                        changed.add(finding)
+                        merged.add(finding)
+                    }
+                }
+            }
+            return FindingsDiff(added, previousById.values.toList(), changed, merged)
+        }
+
+        private fun signatureOf(finding: LiveFinding): FindingSignature {
+            val textRange = finding.validTextRange
+            return FindingSignature(
+                finding.ruleKey,
+                finding.message,
+                textRange?.startOffset,
+                textRange?.endOffset,
+                finding.userSeverity,
+                finding.impacts,
+                finding.isOnNewCode,
+                finding.isResolved,
+                finding.introductionDate,
+                finding.serverKey,
+                finding.quickFixes().map { signatureOf(it) },
+                finding.context().map { context ->
+                    context.flows().map { flow ->
+                        flow.locations.map { location ->
+                            RangeSignature(location.file, location.range.startOffsetIfValid(), location.range.endOffsetIfValid(), location.message)
+                        }
+                    }
+                }.orElse(emptyList()),
+                (finding as? LiveSecurityHotspot)?.status,
+            )
+        }
+
+        private fun signatureOf(quickFix: QuickFix) = QuickFixSignature(
+            quickFix.message,
+            quickFix.virtualFileEdits.flatMap { fileEdit ->
+                fileEdit.edits.map { edit ->
+                    RangeSignature(fileEdit.target, edit.rangeMarker.startOffsetIfValid(), edit.rangeMarker.endOffsetIfValid(), edit.newText)
+                }
+            },
+        )
+
+        private fun RangeMarker?.startOffsetIfValid() = this?.takeIf { it.isValid }?.startOffset
+
+        private fun RangeMarker?.endOffsetIfValid() = this?.takeIf { it.isValid }?.endOffset
+    }
+
+    /**
+     * Everything that is rendered for a finding, either in the editor or in the tool window.
+     */
+    private data class FindingSignature(
+        val ruleKey: String?,
+        val message: String?,
+        val startOffset: Int?,
+        val endOffset: Int?,
+        val severity: IssueSeverity?,
+        val impacts: List<ImpactDto>?,
+        val onNewCode: Boolean,
+        val resolved: Boolean,
+        val introductionDate: Instant?,
+        val serverKey: String?,
+        val quickFixes: List<QuickFixSignature>,
+        val flows: List<List<RangeSignature>>,
+        val status: HotspotReviewStatus?,
+    )
+
+    private data class QuickFixSignature(val message: String, val edits: List<RangeSignature>)
+
+    /**
+     * A flow location with its message, or a quick fix edit with its new text.
+     */
+    private data class RangeSignature(val file: VirtualFile?, val startOffset: Int?, val endOffset: Int?, val text: String?)
+}
@@ -23,25 +23,40 @@ import com.intellij.ide.PowerSaveMode;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.vcs.FileStatus;
 import com.intellij.openapi.vcs.FileStatusManager;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.sonarlint.intellij.common.analysis.ExcludeResult;
 import org.sonarlint.intellij.common.analysis.FileExclusionContributor;
+import org.sonarlint.intellij.common.ui.SonarLintConsole;
 import org.sonarlint.intellij.common.util.SonarLintUtils;
 import org.sonarlint.intellij.config.global.SonarLintGlobalSettings;
 import org.sonarlint.intellij.config.project.ExclusionItem;
@@ -51,17 +66,20 @@ import org.sonarlint.intellij.messages.ProjectConfigurationListener;
 import org.sonarsource.sonarlint.core.client.utils.ClientFileExclusions;
 
 import static org.sonarlint.intellij.common.ui.ReadActionUtils.computeReadActionSafely;
+import static org.sonarlint.intellij.common.util.SonarLintUtils.getService;
 import static org.sonarlint.intellij.config.Settings.getGlobalSettings;
 import static org.sonarlint.intellij.config.Settings.getSettingsFor;
-import static org.sonarlint.intellij.util.SonarLintAppUtils.findModuleForFile;
 import static org.sonarlint.intellij.util.SonarLintAppUtils.getRelativePathForAnalysis;
 
 @Service(Service.Level.PROJECT)
 public final class LocalFileExclusions {
+  private static final int EXCLUSION_CHECKS_BATCH_SIZE = 200;
   private final Project myProject;
 
   private ClientFileExclusions projectExclusions;
   private ClientFileExclusions globalExclusions;
+  // replaced rather than cleared, so that a verdict computed with outdated exclusions is never stored in the new cache
+  private volatile Map<VirtualFile, SettingsExclusionVerdict> settingsExclusionVerdicts = new ConcurrentHashMap<>();
 
   public LocalFileExclusions(Project project) {
     this.myProject = project;
@@ -88,10 +106,16 @@ public final class LocalFileExclusions {
     var projectGlobExclusions = getExclusionsOfType(projectExclusionsItems, ExclusionItem.Type.GLOB);
 
     this.projectExclusions = new ClientFileExclusions(projectFileExclusions, projectDirExclusions, projectGlobExclusions);
+    invalidateSettingsExclusionVerdicts();
   }
 
   private void loadGlobalExclusions(SonarLintGlobalSettings settings) {
     this.globalExclusions = new ClientFileExclusions(Collections.emptySet(), Collections.emptySet(), new LinkedHashSet<>(settings.getFileExclusions()));
+    invalidateSettingsExclusionVerdicts();
+  }
+
+  private void invalidateSettingsExclusionVerdicts() {
+    settingsExclusionVerdicts = new ConcurrentHashMap<>();
   }
 
   private void subscribeToSettingsChanges(Project project) {
@@ -103,12 +127,54 @@ public final class LocalFileExclusions {
       }
     });
     busConnection.subscribe(ProjectConfigurationListener.TOPIC, this::loadProjectExclusions);
+    // relative paths depend on the content roots and on the location of the files
+    busConnection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+      @Override
+      public void rootsChanged(@NotNull ModuleRootEvent event) {
+        invalidateSettingsExclusionVerdicts();
+      }
+    });
+    busConnection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        events.forEach(LocalFileExclusions.this::invalidateSettingsExclusionVerdict);
+      }
+    });
+  }
+
+  private void invalidateSettingsExclusionVerdict(VFileEvent event) {
+    var isPathChange = event instanceof VFileMoveEvent || event instanceof VFileDeleteEvent
+      || (event instanceof VFilePropertyChangeEvent propertyChangeEvent && propertyChangeEvent.isRename());
+    if (!isPathChange) {
+      return;
+    }
+    var file = event.getFile();
+    if (file == null || file.isDirectory()) {
+      invalidateSettingsExclusionVerdicts();
+    } else {
+      settingsExclusionVerdicts.remove(file);
+    }
   }
 
   /**
    * Checks if a file is excluded from analysis based on locally configured exclusions.
+   * The verdict is remembered until the exclusions, the project structure or the location of the file change.
    */
   private ExcludeResult checkExclusionsFromSonarLintSettings(VirtualFile file, Module module) {
+    var verdicts = settingsExclusionVerdicts;
+    var cachedVerdict = verdicts.get(file);
+    if (cachedVerdict != null && cachedVerdict.module() == module) {
+      return cachedVerdict.result();
+    }
+    var result = computeExclusionsFromSonarLintSettings(file, module);
+    verdicts.put(file, new SettingsExclusionVerdict(module, result));
+    return result;
+  }
+
+  private record SettingsExclusionVerdict(Module module, ExcludeResult result) {
+  }
+
+  private ExcludeResult computeExclusionsFromSonarLintSettings(VirtualFile file, Module module) {
     var relativePath = getRelativePathForAnalysis(module, file);
     if (relativePath == null) {
       return ExcludeResult.excluded("Could not create a relative path");
@@ -131,6 +197,15 @@ public final class LocalFileExclusions {
     return ExcludeResult.notExcluded();
   }
 
+  private ExcludeResult checkFileInSourceFolders(VirtualFile file, Module module, Map<VirtualFile, ExcludeResult> sourceFolderResultByDir) {
+    var parent = file.getParent();
+    if (parent == null) {
+      return checkFileInSourceFolders(file, module);
+    }
+    // all the files of a directory share the same source root
+    return sourceFolderResultByDir.computeIfAbsent(parent, dir -> checkFileInSourceFolders(file, module));
+  }
+
   private ExcludeResult checkFileInSourceFolders(VirtualFile file, Module module) {
     var fileIndex = ProjectRootManager.getInstance(myProject).getFileIndex();
     var sourceFolder = SonarLintUtils.getSourceFolder(fileIndex.getSourceRootForFile(file), module);
@@ -148,61 +223,149 @@ public final class LocalFileExclusions {
     return ExcludeResult.notExcluded();
   }
 
+  /**
+   * Files are checked by batches, each batch inside a single read action. The source folder of a directory is only looked up once
+   * per call, as it is the same for all its files.
+   */
   public Map<Module, Collection<VirtualFile>> retainNonExcludedFilesByModules(Collection<VirtualFile> files, boolean forcedAnalysis,
     BiConsumer<VirtualFile, ExcludeResult> excludedFileHandler) {
     var filesByModule = new LinkedHashMap<Module, Collection<VirtualFile>>();
+    var checks = new ExclusionChecks(forcedAnalysis);
 
+    var batch = new ArrayList<VirtualFile>(EXCLUSION_CHECKS_BATCH_SIZE);
     for (var file : files) {
-      checkExclusionsFileByFile(forcedAnalysis, excludedFileHandler, filesByModule, file);
+      if (file == null) {
+        excludedFileHandler.accept(null, ExcludeResult.excluded("file is not valid anymore"));
+        continue;
+      }
+      batch.add(file);
+      if (batch.size() == EXCLUSION_CHECKS_BATCH_SIZE) {
+        checkExclusions(batch, checks, excludedFileHandler, filesByModule);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      checkExclusions(batch, checks, excludedFileHandler, filesByModule);
     }
 
+    if (files.size() > 1) {
+      getService(myProject, SonarLintConsole.class).debug("Checked exclusions of " + files.size() + " files: " + checks.timings);
+    }
     return filesByModule;
   }
 
-  private void checkExclusionsFileByFile(boolean forcedAnalysis, BiConsumer<VirtualFile, ExcludeResult> excludedFileHandler,
-    Map<Module, Collection<VirtualFile>> filesByModule, @Nullable VirtualFile file) {
-    if (file == null) {
-      excludedFileHandler.accept(null, ExcludeResult.excluded("file is not valid anymore"));
+  private void checkExclusions(List<VirtualFile> batch, ExclusionChecks checks, BiConsumer<VirtualFile, ExcludeResult> excludedFileHandler,
+    Map<Module, Collection<VirtualFile>> filesByModule) {
+    var results = computeReadActionSafely(myProject, () -> batch.stream().map(checks::check).toList());
+    if (results == null) {
+      batch.forEach(file -> excludedFileHandler.accept(file, ExcludeResult.excluded("project is disposed")));
       return;
     }
-    var module = findModuleForFile(file, myProject);
-    // Handle this case first, so that later we are guaranteed module is not null
-    if (module == null) {
-      excludedFileHandler.accept(file, ExcludeResult.excluded("file is not part of any module in IntelliJ's project structure"));
-      return;
+    for (var fileResult : results) {
+      if (fileResult.result().isExcluded()) {
+        excludedFileHandler.accept(fileResult.file(), fileResult.result());
+      } else {
+        filesByModule.computeIfAbsent(fileResult.module(), mod -> new LinkedHashSet<>()).add(fileResult.file());
+      }
     }
+  }
 
-    var exclusionCheckers = Stream.concat(
-      defaultExclusionCheckers(file, module),
-      forcedAnalysis ? Stream.empty() : onTheFlyExclusionCheckers(file, module)).toList();
+  private record FileExclusionResult(VirtualFile file, @Nullable Module module, ExcludeResult result) {
+  }
 
-    for (var exclusionChecker : exclusionCheckers) {
-      var result = computeReadActionSafely(module.getProject(), exclusionChecker::get);
-      if (result != null && result.isExcluded()) {
-        excludedFileHandler.accept(file, result);
-        return;
-      }
+  /**
+   * State shared by all the batches of a single call: the source folder of each directory and the time spent in each checker.
+   * Must be used inside a read action.
+   */
+  private final class ExclusionChecks {
+    private final boolean forcedAnalysis;
+    private final Map<VirtualFile, ExcludeResult> sourceFolderResultByDir = new HashMap<>();
+    private final ExclusionCheckTimings timings = new ExclusionCheckTimings();
+
+    private ExclusionChecks(boolean forcedAnalysis) {
+      this.forcedAnalysis = forcedAnalysis;
     }
 
-    filesByModule.computeIfAbsent(module, mod -> new LinkedHashSet<>()).add(file);
+    private FileExclusionResult check(VirtualFile file) {
+      var start = System.nanoTime();
+      var module = file.isValid() && myProject.isOpen() ? ProjectFileIndex.getInstance(myProject).getModuleForFile(file, false) : null;
+      start = timings.record(ExclusionChecker.MODULE, start);
+      // Handle this case first, so that later we are guaranteed module is not null
+      if (module == null) {
+        return new FileExclusionResult(file, null, ExcludeResult.excluded("file is not part of any module in IntelliJ's project structure"));
+      }
+
+      var result = excludeIfDisposed(module);
+      start = timings.record(ExclusionChecker.DISPOSED, start);
+      if (result.isExcluded()) {
+        return new FileExclusionResult(file, module, result);
+      }
+      result = checkProjectStructureExclusion(file);
+      start = timings.record(ExclusionChecker.PROJECT_STRUCTURE, start);
+      if (result.isExcluded()) {
+        return new FileExclusionResult(file, module, result);
+      }
+      result = excludeUnsupportedFileOrFileType(file);
+      start = timings.record(ExclusionChecker.FILE_TYPE, start);
+      if (result.isExcluded()) {
+        return new FileExclusionResult(file, module, result);
+      }
+      result = checkExclusionFromEP(file, module);
+      start = timings.record(ExclusionChecker.EXTENSION_POINT, start);
+      if (result.isExcluded() || forcedAnalysis) {
+        return new FileExclusionResult(file, module, result);
+      }
+
+      result = checkVcsIgnored(file);
+      start = timings.record(ExclusionChecker.VCS, start);
+      if (result.isExcluded()) {
+        return new FileExclusionResult(file, module, result);
+      }
+      result = checkFileInSourceFolders(file, module, sourceFolderResultByDir);
+      start = timings.record(ExclusionChecker.SOURCE_FOLDERS, start);
+      if (result.isExcluded()) {
+        return new FileExclusionResult(file, module, result);
+      }
+      result = checkExclusionsFromSonarLintSettings(file, module);
+      start = timings.record(ExclusionChecker.SETTINGS, start);
+      if (result.isExcluded()) {
+        return new FileExclusionResult(file, module, result);
+      }
+      result = excludeIfPowerSaveModeOn();
+      timings.record(ExclusionChecker.POWER_SAVE, start);
+      return new FileExclusionResult(file, module, result);
+    }
   }
 
-  @NotNull
-  private Stream<Supplier<ExcludeResult>> onTheFlyExclusionCheckers(VirtualFile file, Module module) {
-    return Stream.of(
-      () -> checkVcsIgnored(file),
-      () -> checkFileInSourceFolders(file, module),
-      () -> checkExclusionsFromSonarLintSettings(file, module),
-      LocalFileExclusions::excludeIfPowerSaveModeOn);
+  enum ExclusionChecker {
+    MODULE, DISPOSED, PROJECT_STRUCTURE, FILE_TYPE, EXTENSION_POINT, VCS, SOURCE_FOLDERS, SETTINGS, POWER_SAVE
   }
 
-  @NotNull
-  private Stream<Supplier<ExcludeResult>> defaultExclusionCheckers(VirtualFile file, Module module) {
-    return Stream.of(
-      () -> excludeIfDisposed(module),
-      () -> checkProjectStructureExclusion(file),
-      () -> excludeUnsupportedFileOrFileType(file),
-      () -> checkExclusionFromEP(file, module));
+  /**
+   * Cumulated time spent in each exclusion checker, to find out which one is the most expensive.
+   */
+  static final class ExclusionCheckTimings {
+    private final long[] nanosByChecker = new long[ExclusionChecker.values().length];
+
+    /**
+     * @return the current time, to be used as the start of the next checker
+     */
+    long record(ExclusionChecker checker, long startNanos) {
+      var now = System.nanoTime();
+      nanosByChecker[checker.ordinal()] += now - startNanos;
+      return now;
+    }
+
+    long getMillis(ExclusionChecker checker) {
+      return TimeUnit.NANOSECONDS.toMillis(nanosByChecker[checker.ordinal()]);
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.stream(ExclusionChecker.values())
+        .map(checker -> checker.name().toLowerCase(Locale.ROOT) + "=" + getMillis(checker) + "ms")
+        .collect(Collectors.joining(", "));
+    }
   }
 
   @NotNull
@@ -31,6 +31,7 @@ import org.sonarlint.intellij.actions.SonarLintToolWindow
 import org.sonarlint.intellij.common.util.SonarLintUtils
 import org.sonarlint.intellij.common.util.SonarLintUtils.getService
 import org.sonarlint.intellij.editor.CodeAnalyzerRestarter
+import org.sonarlint.intellij.editor.SonarExternalAnnotator
 import org.sonarlint.intellij.finding.LiveFinding
 import org.sonarlint.intellij.finding.LiveFindings
 import org.sonarlint.intellij.finding.RawIssueAdapter
@@ -44,7 +45,6 @@ import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedIssueDto
 
 class OnTheFlyFindingsHolder(private val project: Project) : FileEditorManagerListener {
     private var selectedFile: VirtualFile? = null
-    private val nonDirtyAnalyzedFiles: MutableSet<VirtualFile> = ConcurrentHashMap.newKeySet()
     private val currentIssuesPerOpenFile: MutableMap<VirtualFile, Collection<LiveIssue>> = ConcurrentHashMap()
     private val currentSecurityHotspotsPerOpenFile: MutableMap<VirtualFile, Collection<LiveSecurityHotspot>> = ConcurrentHashMap()
 
@@ -53,8 +53,6 @@ class OnTheFlyFindingsHolder(private val project: Project) : FileEditorManagerLi
             .subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, this)
     }
 
-    fun clearNonDirtyAnalyzedFiles() = nonDirtyAnalyzedFiles.clear()
-
     fun updateOnAnalysisResult(analysisResult: AnalysisResult) =
         updateViewsWithNewFindings(analysisResult.findings)
 
@@ -70,65 +68,100 @@ class OnTheFlyFindingsHolder(private val project: Project) : FileEditorManagerLi
         // Temporary workaround as FileEditorManager.openFiles does not return open files on dev containers/SSH
         val openedFiles = openFiles.ifEmpty { setOfNotNull(selectedFile) }
         with(findings.onlyFor(openedFiles)) {
-            currentIssuesPerOpenFile.putAll(issuesPerFile)
-            currentSecurityHotspotsPerOpenFile.putAll(securityHotspotsPerFile)
+            val filesWithChangedIssues = applyDiffs(currentIssuesPerOpenFile, issuesPerFile)
+            val filesWithChangedSecurityHotspots = applyDiffs(currentSecurityHotspotsPerOpenFile, securityHotspotsPerFile)
+            updateCurrentFileTabIfNeeded(filesWithChangedIssues)
+            if (filesWithChangedSecurityHotspots.isNotEmpty()) {
+                updateSecurityHotspots()
+            }
+            refreshFiles(filesWithChangedIssues + filesWithChangedSecurityHotspots)
+        }
+    }
+
+    /**
+     * Stores the newly published findings and returns the files for which something visible changed.
+     * Findings that did not change keep their previous instance, so that views do not need to be refreshed for them.
+     */
+    private fun <T : LiveFinding> applyDiffs(
+        currentFindingsPerFile: MutableMap<VirtualFile, Collection<T>>,
+        publishedFindingsPerFile: Map<VirtualFile, Collection<T>>,
+    ): Set<VirtualFile> {
+        val changedFiles = mutableSetOf<VirtualFile>()
+        publishedFindingsPerFile.forEach { (file, findings) ->
+            val previousFindings = currentFindingsPerFile[file]
+            val diff = FindingsDiff.compute(previousFindings, findings)
+            currentFindingsPerFile[file] = diff.merged
+            if (previousFindings == null || !diff.isEmpty()) {
+                changedFiles.add(file)
+            }
+        }
+        return changedFiles
+    }
+
+    private fun updateCurrentFileTabIfNeeded(filesWithChangedIssues: Set<VirtualFile>) {
+        val file = selectedFile
+        if (file == null || file in filesWithChangedIssues) {
+            updateCurrentFileTab()
+        }
+    }
+
+    private fun refreshFiles(changedFiles: Set<VirtualFile>) {
+        if (changedFiles.isNotEmpty()) {
+            getService(project, CodeAnalyzerRestarter::class.java).refreshFiles(changedFiles)
         }
-        updateCurrentFileTab()
-        updateSecurityHotspots()
-        getService(project, CodeAnalyzerRestarter::class.java).refreshFiles(findings.onlyFor(openedFiles).filesInvolved)
     }
 
     fun updateViewsWithNewIssues(module: Module, raisedIssues: Map<URI, List<RaisedIssueDto>>) {
         val issues = raisedIssues.mapNotNull { (uri, rawIssues) ->
             val virtualFile = uriToVirtualFile(uri) ?: return
-            val liveIssues = rawIssues.mapNotNull {
-                RawIssueAdapter.toLiveIssue(module, it, virtualFile, null)
-            }
-            virtualFile to liveIssues
+            virtualFile to RawIssueAdapter.toLiveIssues(module, rawIssues, virtualFile, null)
         }.toMap()
-        currentIssuesPerOpenFile.putAll(issues)
+        // the backend analyzed the files on its own, e.g. because the rules changed
+        getService(project, AnalysisResultCache::class.java).invalidate(issues.keys)
+        val filesWithChangedIssues = applyDiffs(currentIssuesPerOpenFile, issues)
         if (selectedFile == null) {
             runOnUiThread(project) {
                 selectedFile = SonarLintUtils.getSelectedFile(project)
             }
         }
-        updateCurrentFileTab()
-        getService(project, CodeAnalyzerRestarter::class.java).refreshFiles(issues.keys)
+        updateCurrentFileTabIfNeeded(filesWithChangedIssues)
+        refreshFiles(filesWithChangedIssues)
     }
 
     fun updateViewsWithNewSecurityHotspots(module: Module, raisedSecurityHotspots: Map<URI, List<RaisedHotspotDto>>) {
-        val securityHotspots = raisedSecurityHotspots.mapNotNull { (uri, rawSecurityHotspots) ->
+        val allSecurityHotspots = raisedSecurityHotspots.mapNotNull { (uri, rawSecurityHotspots) ->
             val virtualFile = uriToVirtualFile(uri) ?: return
-            val liveIssues = rawSecurityHotspots.mapNotNull {
-                RawIssueAdapter.toLiveSecurityHotspot(module, it, virtualFile, null)
-            }
-            virtualFile to liveIssues
-        }.toMap().filterKeys { it in openFiles }
-        currentSecurityHotspotsPerOpenFile.putAll(securityHotspots)
+            virtualFile to RawIssueAdapter.toLiveSecurityHotspots(module, rawSecurityHotspots, virtualFile, null)
+        }.toMap()
+        getService(project, AnalysisResultCache::class.java).invalidate(allSecurityHotspots.keys)
+        val securityHotspots = allSecurityHotspots.filterKeys { it in openFiles }
+        val filesWithChangedSecurityHotspots = applyDiffs(currentSecurityHotspotsPerOpenFile, securityHotspots)
         if (selectedFile == null) {
             runOnUiThread(project) {
                 selectedFile = SonarLintUtils.getSelectedFile(project)
             }
         }
-        updateSecurityHotspots()
-        getService(project, CodeAnalyzerRestarter::class.java).refreshFiles(securityHotspots.keys)
+        if (filesWithChangedSecurityHotspots.isNotEmpty()) {
+            updateSecurityHotspots()
+        }
+        refreshFiles(filesWithChangedSecurityHotspots)
     }
 
     override fun selectionChanged(event: FileEditorManagerEvent) {
         val file = event.newFile
         selectedFile = file
-        if (file != null && !nonDirtyAnalyzedFiles.contains(file)) {
+        if (file != null) {
+            // files that did not change since their latest analysis are served from the AnalysisResultCache
             getService(project, AnalysisSubmitter::class.java).autoAnalyzeSelectedFiles(TriggerType.SELECTION_CHANGED)
-            nonDirtyAnalyzedFiles.add(file)
         }
 
         updateCurrentFileTab()
     }
 
     override fun fileClosed(source: FileEditorManager, file: VirtualFile) {
-        nonDirtyAnalyzedFiles.remove(file)
         currentIssuesPerOpenFile.remove(file)
         currentSecurityHotspotsPerOpenFile.remove(file)
+        SonarExternalAnnotator.forgetAnnotationPlan(file)
         // update only Security Hotspots, issues will be updated in reaction to selectionChanged
         updateSecurityHotspots()
         if (currentIssuesPerOpenFile.isEmpty()) {
@@ -168,9 +201,9 @@ class OnTheFlyFindingsHolder(private val project: Project) : FileEditorManagerLi
         if (selectedFile == null) {
             selectedFile = SonarLintUtils.getSelectedFile(project)
         }
-        if (selectedFile != null) {
-            currentIssuesPerOpenFile.remove(selectedFile)
-            nonDirtyAnalyzedFiles.remove(selectedFile)
+        selectedFile?.let { file ->
+            currentIssuesPerOpenFile.remove(file)
+            getService(project, AnalysisResultCache::class.java).invalidate(listOf(file))
         }
         updateCurrentFileTab()
     }
@@ -20,25 +20,49 @@
 package org.sonarlint.intellij.analysis
 
 import com.intellij.openapi.components.Service
+import com.intellij.openapi.vfs.VirtualFile
 import java.util.UUID
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
 import org.sonarlint.intellij.common.ui.SonarLintConsole
 
 @Service(Service.Level.PROJECT)
 class RunningAnalysesTracker {
 
     private val analysisStateById: MutableMap<UUID, AnalysisState> = ConcurrentHashMap<UUID, AnalysisState>()
+    // The on-the-fly analysis currently in charge of each file, a more recent one can take a file over
+    private val ownerIdByFile: MutableMap<VirtualFile, UUID> = ConcurrentHashMap<VirtualFile, UUID>()
+    private val avoidedDuplicateFileAnalyses = AtomicLong()
+    private val skippedFileConversions = AtomicLong()
+    private val cancelledAnalyses = AtomicLong()
 
-    fun track(analysisState: AnalysisState) {
+    /**
+     * Starts tracking [analysisState] after cancelling the running analyses it makes redundant, so that no analysis started concurrently can
+     * be missed in between.
+     */
+    @Synchronized
+    fun trackReplacingSimilar(analysisState: AnalysisState, console: SonarLintConsole) {
+        cancelSimilarAnalysis(analysisState, console)
+        track(analysisState)
+    }
+
+    private fun track(analysisState: AnalysisState) {
         analysisStateById[analysisState.id] = analysisState
+        if (analysisState.isOnTheFly()) {
+            analysisState.ownedFiles().forEach { ownerIdByFile[it] = analysisState.id }
+        }
     }
 
+    @Synchronized
     fun finish(analysisState: AnalysisState) {
         analysisStateById.remove(analysisState.id)
+        analysisState.ownedFiles().forEach { ownerIdByFile.remove(it, analysisState.id) }
     }
 
+    @Synchronized
     fun finishAll() {
         analysisStateById.clear()
+        ownerIdByFile.clear()
     }
 
     fun getById(analysisId: UUID): AnalysisState? {
@@ -52,17 +76,68 @@ class RunningAnalysesTracker {
         }
     }
 
-    fun cancelSimilarAnalysis(analysisState: AnalysisState, console: SonarLintConsole) {
+    /**
+     * Cancels the running analyses made redundant by [analysisState]. On-the-fly analyses only partially overlapping with it keep running,
+     * but leave the overlapping files to the new analysis instead of publishing findings about a previous content.
+     * The backend cannot drop some files of a running analysis, so it still analyzes the files taken over: only the conversion and the
+     * publication of their findings are skipped.
+     */
+    private fun cancelSimilarAnalysis(analysisState: AnalysisState, console: SonarLintConsole) {
+        val filesToTakeOverByAnalysis = mutableMapOf<AnalysisState, MutableList<VirtualFile>>()
+        if (analysisState.isOnTheFly()) {
+            for (file in analysisState.ownedFiles()) {
+                val owner = ownerIdByFile[file]?.let { analysisStateById[it] }
+                if (owner != null && owner !== analysisState) {
+                    filesToTakeOverByAnalysis.getOrPut(owner) { mutableListOf() }.add(file)
+                }
+            }
+        }
+        for ((analysis, files) in filesToTakeOverByAnalysis) {
+            if (analysis.release(files)) {
+                cancelRedundant(analysis, files.size, console)
+            } else {
+                skippedFileConversions.addAndGet(files.size.toLong())
+                console.debug("Analysis ${analysisState.id} takes over the findings of ${files.size} file(s) from analysis ${analysis.id} (${summary()})")
+            }
+        }
         for (analysis in analysisStateById.values) {
-            if (analysis.isRedundant(analysisState)) {
-                console.info("Cancelling analysis ${analysis.id}")
-                analysis.cancel()
+            val ownedFiles = analysis.ownedFiles()
+            // analyses that gave up all their files were already cancelled
+            if (analysis !in filesToTakeOverByAnalysis && ownedFiles.isNotEmpty() && analysis.isRedundant(analysisState)) {
+                cancelRedundant(analysis, ownedFiles.size, console)
             }
         }
     }
 
+    private fun cancelRedundant(analysis: AnalysisState, filesCount: Int, console: SonarLintConsole) {
+        console.info("Cancelling analysis ${analysis.id}")
+        cancelledAnalyses.incrementAndGet()
+        avoidedDuplicateFileAnalyses.addAndGet(filesCount.toLong())
+        analysis.cancel()
+        console.debug("Redundant analyses: ${summary()}")
+    }
+
     fun isAnalysisRunning(): Boolean {
         return analysisStateById.isNotEmpty()
     }
 
+    fun isAnalyzing(file: VirtualFile): Boolean {
+        return ownerIdByFile.containsKey(file) || analysisStateById.values.any { !it.isOnTheFly() && it.analyzes(file) }
+    }
+
+    /**
+     * Number of file analyses the backend did not finish because a more recent analysis made them redundant.
+     */
+    fun getAvoidedDuplicateFileAnalyses() = avoidedDuplicateFileAnalyses.get()
+
+    /**
+     * Number of files whose findings were not converted because a more recent analysis took them over. The backend still analyzed them.
+     */
+    fun getSkippedFileConversions() = skippedFileConversions.get()
+
+    fun getCancelledAnalyses() = cancelledAnalyses.get()
+
+    fun summary() = "${getCancelledAnalyses()} analyses cancelled, ${getAvoidedDuplicateFileAnalyses()} duplicate file analyses avoided, " +
+        "${getSkippedFileConversions()} file findings conversions skipped since startup"
+
 }
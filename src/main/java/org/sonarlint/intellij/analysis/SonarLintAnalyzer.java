@@ -64,6 +64,7 @@ public final class SonarLintAnalyzer {
 
     var contributedConfigurations = getConfigurationFromConfiguratorEP(module, filesToAnalyze, console);
     var contributedProperties = collectContributedExtraProperties(module, console, contributedConfigurations);
+    getService(myProject, AnalysisResultCache.class).recordContributedProperties(module, contributedProperties);
 
     // configure files
     var inputFiles = getInputFiles(module, filesToAnalyze);
@@ -73,8 +74,7 @@ public final class SonarLintAnalyzer {
 
     // Analyze
     try {
-      getService(myProject, RunningAnalysesTracker.class).cancelSimilarAnalysis(analysisState, console);
-      getService(myProject, RunningAnalysesTracker.class).track(analysisState);
+      getService(myProject, RunningAnalysesTracker.class).trackReplacingSimilar(analysisState, console);
 
       var what = filesToAnalyze.size() == 1 ? String.format("'%s'", filesToAnalyze.iterator().next().getName()) : String.format("%d files", filesToAnalyze.size());
       console.info("Analysing " + what + " (ID " + analysisState.getId() + ")...");
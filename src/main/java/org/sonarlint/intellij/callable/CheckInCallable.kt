@@ -20,13 +20,15 @@
 package org.sonarlint.intellij.callable
 
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicBoolean
 import org.sonarlint.intellij.analysis.AnalysisCallback
 import org.sonarlint.intellij.analysis.AnalysisResult
 
 class CheckInCallable : AnalysisCallback {
 
-    private var resultsPerAnalysis = mutableMapOf<UUID, AnalysisResult>()
+    // results are published from the findings conversion threads
+    private val resultsPerAnalysis = ConcurrentHashMap<UUID, AnalysisResult>()
     private val errored = AtomicBoolean(false)
 
     override fun onSuccess(analysisResult: AnalysisResult) {
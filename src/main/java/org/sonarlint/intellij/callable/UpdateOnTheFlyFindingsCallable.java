@@ -19,16 +19,27 @@
  */
 package org.sonarlint.intellij.callable;
 
+import com.intellij.openapi.vfs.VirtualFile;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonarlint.intellij.analysis.AnalysisCallback;
 import org.sonarlint.intellij.analysis.AnalysisIntermediateResult;
 import org.sonarlint.intellij.analysis.AnalysisResult;
+import org.sonarlint.intellij.analysis.AnalysisResultCache;
 import org.sonarlint.intellij.analysis.OnTheFlyFindingsHolder;
 
 public class UpdateOnTheFlyFindingsCallable implements AnalysisCallback {
   private final OnTheFlyFindingsHolder onTheFlyFindingsHolder;
+  @Nullable
+  private final AnalysisResultCache.Snapshot analysisResultCacheSnapshot;
 
   public UpdateOnTheFlyFindingsCallable(OnTheFlyFindingsHolder onTheFlyFindingsHolder) {
+    this(onTheFlyFindingsHolder, null);
+  }
+
+  public UpdateOnTheFlyFindingsCallable(OnTheFlyFindingsHolder onTheFlyFindingsHolder, @Nullable AnalysisResultCache.Snapshot analysisResultCacheSnapshot) {
     this.onTheFlyFindingsHolder = onTheFlyFindingsHolder;
+    this.analysisResultCacheSnapshot = analysisResultCacheSnapshot;
   }
 
   @Override public void onError(Throwable e) {
@@ -40,8 +51,18 @@ public class UpdateOnTheFlyFindingsCallable implements AnalysisCallback {
     onTheFlyFindingsHolder.updateOnAnalysisIntermediateResult(intermediateResult);
   }
 
+  @Override
+  public void onFailedFiles(Set<VirtualFile> failedFiles) {
+    if (analysisResultCacheSnapshot != null) {
+      analysisResultCacheSnapshot.discard(failedFiles);
+    }
+  }
+
   @Override
   public void onSuccess(AnalysisResult analysisResult) {
     onTheFlyFindingsHolder.updateOnAnalysisResult(analysisResult);
+    if (analysisResultCacheSnapshot != null) {
+      analysisResultCacheSnapshot.store(analysisResult);
+    }
   }
 }
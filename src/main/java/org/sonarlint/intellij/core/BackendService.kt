@@ -72,10 +72,12 @@ import org.sonarlint.intellij.config.global.NodeJsSettings
 import org.sonarlint.intellij.config.global.ServerConnection
 import org.sonarlint.intellij.config.global.SonarLintGlobalSettings
 import org.sonarlint.intellij.finding.issue.vulnerabilities.TaintVulnerabilityMatcher
+import org.sonarlint.intellij.fs.SyncedFileContents
 import org.sonarlint.intellij.fs.VirtualFileEvent
 import org.sonarlint.intellij.messages.GlobalConfigurationListener
 import org.sonarlint.intellij.notifications.SonarLintProjectNotifications.Companion.projectLessNotification
 import org.sonarlint.intellij.ui.UiUtils.Companion.runOnUiThread
+import org.sonarlint.intellij.util.ContentHash
 import org.sonarlint.intellij.util.GlobalLogOutput
 import org.sonarlint.intellij.util.SonarLintAppUtils.getRelativePathForAnalysis
 import org.sonarlint.intellij.util.VirtualFileUtils
@@ -165,6 +167,7 @@ import org.sonarsource.sonarlint.core.rpc.protocol.backend.issue.CheckStatusChan
 class BackendService : Disposable {
     private var initializationTriedOnce = AtomicBoolean(false)
     private var backendFuture = CompletableFuture<SonarLintRpcServer>()
+    private val syncedFileContents = SyncedFileContents()
     private var sloop: Sloop? = null
     private var defaultSloopLauncher: SloopLauncher? = null
 
@@ -530,6 +533,7 @@ class BackendService : Disposable {
     }
 
     fun projectOpened(project: Project) {
+        ConfigurationScopeIndex.projectOpened(project)
         val binding = getService(project, ProjectBindingManager::class.java).binding
         notifyBackend {
             it.configurationService.didAddConfigurationScopes(
@@ -551,6 +555,7 @@ class BackendService : Disposable {
     internal fun projectClosed(project: Project) {
         ModuleManager.getInstance(project).modules.forEach { moduleRemoved(it) }
         val projectId = projectId(project)
+        ConfigurationScopeIndex.projectClosed(project)
         notifyBackend { it.configurationService.didRemoveConfigurationScope(DidRemoveConfigurationScopeParams(projectId)) }
     }
 
@@ -560,6 +565,7 @@ class BackendService : Disposable {
 
     fun projectBound(project: Project, newBinding: ProjectBinding) {
         runOnPooledThread(project) {
+            ConfigurationScopeIndex.modulesChanged(project)
             notifyBackend {
                 it.configurationService.didUpdateBinding(
                     DidUpdateBindingParams(
@@ -600,6 +606,7 @@ class BackendService : Disposable {
     }
 
     fun modulesAdded(project: Project, modules: List<Module>) {
+        ConfigurationScopeIndex.modulesAdded(modules)
         val projectBinding = getService(project, ProjectBindingManager::class.java).binding
         notifyBackend {
             it.configurationService.didAddConfigurationScopes(
@@ -619,6 +626,7 @@ class BackendService : Disposable {
 
     fun moduleRemoved(module: Module) {
         val moduleId = moduleId(module)
+        ConfigurationScopeIndex.moduleRemoved(module)
         notifyBackend { it.configurationService.didRemoveConfigurationScope(DidRemoveConfigurationScopeParams(moduleId)) }
     }
 
@@ -823,6 +831,7 @@ class BackendService : Disposable {
             }
             initializationTriedOnce.set(false)
             backendFuture = CompletableFuture()
+            syncedFileContents.clear()
             sloop = null
             ensureBackendInitialized().thenAcceptAsync { catchUpWithBackend(it) }
         }
@@ -866,15 +875,11 @@ class BackendService : Disposable {
         }
 
         fun findModule(configScopeId: String): Module? {
-            return ProjectManager.getInstance().openProjects.firstNotNullOfOrNull { project ->
-                val mapping = getSettingsFor(project).moduleMapping.filterValues { scopeId -> scopeId == configScopeId }.keys
-                val currentModuleName = if (mapping.isNotEmpty()) mapping.first() else configScopeId
-                return@firstNotNullOfOrNull ModuleManager.getInstance(project).modules.firstOrNull { module -> moduleId(module) == currentModuleName }
-            }
+            return ConfigurationScopeIndex.findModule(configScopeId)
         }
 
         fun findProject(configScopeId: String): Project? {
-            return ProjectManager.getInstance().openProjects.find { projectId(it) == configScopeId }
+            return ConfigurationScopeIndex.findProject(configScopeId)
         }
     }
 
@@ -940,24 +945,38 @@ class BackendService : Disposable {
             .flatMap { it.filter { event -> event.type == ModuleFileEvent.Type.DELETED } }
             .mapNotNull { VirtualFileUtils.toURI(it.virtualFile) }
 
+        val contentHashes = HashMap<URI, Long>()
         val addedFiles = filesByModule.entries.flatMap { (module, events) ->
-            gatherClientFiles(module, ModuleFileEvent.Type.CREATED, events, includeFileContent)
+            gatherClientFiles(module, ModuleFileEvent.Type.CREATED, events, includeFileContent, contentHashes)
         }
 
         val changedFiles = filesByModule.entries.flatMap { (module, events) ->
-            gatherClientFiles(module, ModuleFileEvent.Type.MODIFIED, events, includeFileContent)
+            gatherClientFiles(module, ModuleFileEvent.Type.MODIFIED, events, includeFileContent, contentHashes)
         }
 
+        deletedFileUris.forEach { syncedFileContents.forget(it) }
+
         if (addedFiles.isNotEmpty() || changedFiles.isNotEmpty() || deletedFileUris.isNotEmpty()) {
-            notifyBackend { it.fileService.didUpdateFileSystem(DidUpdateFileSystemParams(addedFiles, changedFiles, deletedFileUris)) }
+            ensureBackendInitialized()
+                .thenAcceptAsync { it.fileService.didUpdateFileSystem(DidUpdateFileSystemParams(addedFiles, changedFiles, deletedFileUris)) }
+                .whenComplete { _, error -> if (error != null) forgetFailedContents(contentHashes) }
+        }
+        if (includeFileContent) {
+            GlobalLogOutput.get().log("File system synchronization: ${syncedFileContents.summary()} since startup", ClientLogOutput.Level.DEBUG)
         }
     }
 
+    // A failed update must not prevent sending the contents again, unless a newer content has been sent in the meantime
+    private fun forgetFailedContents(contentHashes: Map<URI, Long>) {
+        contentHashes.forEach { (uri, contentHash) -> syncedFileContents.forgetFailed(uri, contentHash) }
+    }
+
     private fun gatherClientFiles(
         module: Module,
         type: ModuleFileEvent.Type,
         events: List<VirtualFileEvent>,
-        shouldIncludeContent: Boolean
+        shouldIncludeContent: Boolean,
+        contentHashes: MutableMap<URI, Long>,
     ): List<ClientFileDto> {
         val virtualFiles = events.filter { it.type == type }.map { it.virtualFile }.toList()
         val contributedLanguages = collectContributedLanguages(module, virtualFiles)
@@ -967,6 +986,19 @@ class BackendService : Disposable {
             val forcedLanguage = contributedLanguages[it.virtualFile]?.let { fl -> Language.valueOf(fl.name) }
             VirtualFileUtils.toURI(it.virtualFile)?.let { uri ->
                 computeReadActionSafely(it.virtualFile, module.project) {
+                    // Notebooks require special parsing, we should always send the content
+                    val content = if ((shouldIncludeContent || "ipynb" == it.virtualFile.extension)
+                        && !FileUtilRt.isTooLarge(it.virtualFile.length)
+                    ) getFileContent(it.virtualFile) else {
+                        null
+                    }
+                    if (content == null) {
+                        syncedFileContents.forget(uri)
+                    } else if (type == ModuleFileEvent.Type.MODIFIED) {
+                        contentHashes[uri] = syncedFileContents.hashToSend(uri, content) ?: return@computeReadActionSafely null
+                    } else {
+                        contentHashes[uri] = ContentHash.of(content).also { hash -> syncedFileContents.recordSent(uri, hash, content) }
+                    }
                     ClientFileDto(
                         uri,
                         Paths.get(relativePath),
@@ -974,12 +1006,7 @@ class BackendService : Disposable {
                         isTestSources(it.virtualFile, module.project),
                         VirtualFileUtils.getEncoding(it.virtualFile, module.project),
                         Paths.get(it.virtualFile.path),
-                        // Notebooks require special parsing, we should always send the content
-                        if ((shouldIncludeContent || "ipynb" == it.virtualFile.extension)
-                            && !FileUtilRt.isTooLarge(it.virtualFile.length)
-                        ) getFileContent(it.virtualFile) else {
-                            null
-                        },
+                        content,
                         forcedLanguage,
                         true
                     )
@@ -0,0 +1,101 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.core
+
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ProjectManager
+import java.util.concurrent.ConcurrentHashMap
+import org.sonarlint.intellij.config.Settings.getSettingsFor
+import org.sonarlint.intellij.core.BackendService.Companion.moduleId
+import org.sonarlint.intellij.core.BackendService.Companion.projectId
+
+/**
+ * Maps the configuration scope ids declared to the backend to their [Module] or [Project], so that routing an RPC callback does not
+ * require scanning every module of every open project.
+ * The index is updated when configuration scopes are added or removed, and falls back to a scan for ids it does not know yet.
+ */
+object ConfigurationScopeIndex {
+
+    private val modulesByConfigScopeId = ConcurrentHashMap<String, Module>()
+    private val projectsByConfigScopeId = ConcurrentHashMap<String, Project>()
+
+    fun projectOpened(project: Project) {
+        projectsByConfigScopeId[projectId(project)] = project
+        modulesAdded(ModuleManager.getInstance(project).modules.toList())
+    }
+
+    fun projectClosed(project: Project) {
+        projectsByConfigScopeId.values.removeIf { it == project }
+        modulesByConfigScopeId.values.removeIf { it.project == project }
+    }
+
+    fun modulesAdded(modules: List<Module>) {
+        modules.forEach { modulesByConfigScopeId[moduleId(it)] = it }
+    }
+
+    fun moduleRemoved(module: Module) {
+        modulesByConfigScopeId.values.removeIf { it == module }
+    }
+
+    /**
+     * Module ids depend on the module mapping of the project, which changes when modules are renamed
+     */
+    fun modulesChanged(project: Project) {
+        modulesByConfigScopeId.values.removeIf { it.project == project }
+        if (!project.isDisposed) {
+            modulesAdded(ModuleManager.getInstance(project).modules.toList())
+        }
+    }
+
+    fun findModule(configScopeId: String): Module? {
+        modulesByConfigScopeId[configScopeId]?.let { module ->
+            if (!module.isDisposed) {
+                return module
+            }
+            modulesByConfigScopeId.remove(configScopeId, module)
+        }
+        if (projectsByConfigScopeId.containsKey(configScopeId)) {
+            return null
+        }
+        return scanForModule(configScopeId)?.also { modulesByConfigScopeId[configScopeId] = it }
+    }
+
+    fun findProject(configScopeId: String): Project? {
+        projectsByConfigScopeId[configScopeId]?.let { project ->
+            if (!project.isDisposed) {
+                return project
+            }
+            projectsByConfigScopeId.remove(configScopeId, project)
+        }
+        return ProjectManager.getInstance().openProjects.find { projectId(it) == configScopeId }
+            ?.also { projectsByConfigScopeId[configScopeId] = it }
+    }
+
+    private fun scanForModule(configScopeId: String): Module? {
+        return ProjectManager.getInstance().openProjects.firstNotNullOfOrNull { project ->
+            val mapping = getSettingsFor(project).moduleMapping.filterValues { scopeId -> scopeId == configScopeId }.keys
+            val currentModuleName = if (mapping.isNotEmpty()) mapping.first() else configScopeId
+            ModuleManager.getInstance(project).modules.firstOrNull { module -> moduleId(module) == currentModuleName }
+        }
+    }
+
+}
@@ -25,13 +25,24 @@ import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
 import com.intellij.lang.annotation.ExternalAnnotator;
 import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.colors.TextAttributesKey;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.jetbrains.annotations.NotNull;
 import org.sonarlint.intellij.actions.MarkAsResolvedAction;
@@ -39,8 +50,10 @@ import org.sonarlint.intellij.actions.ReviewSecurityHotspotAction;
 import org.sonarlint.intellij.actions.SonarLintToolWindow;
 import org.sonarlint.intellij.analysis.AnalysisSubmitter;
 import org.sonarlint.intellij.cayc.CleanAsYouCodeService;
+import org.sonarlint.intellij.common.ui.SonarLintConsole;
 import org.sonarlint.intellij.common.util.SonarLintUtils;
 import org.sonarlint.intellij.config.SonarLintTextAttributes;
+import org.sonarlint.intellij.finding.FindingsValidity;
 import org.sonarlint.intellij.finding.LiveFinding;
 import org.sonarlint.intellij.finding.hotspot.LiveSecurityHotspot;
 import org.sonarlint.intellij.finding.issue.LiveIssue;
@@ -48,6 +61,7 @@ import org.sonarlint.intellij.finding.issue.vulnerabilities.LocalTaintVulnerabil
 import org.sonarlint.intellij.finding.issue.vulnerabilities.TaintVulnerabilitiesCache;
 import org.sonarlint.intellij.util.SonarLintSeverity;
 import org.sonarsource.sonarlint.core.client.utils.ImpactSeverity;
+import org.sonarsource.sonarlint.core.commons.HotspotReviewStatus;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.IssueSeverity;
 
 import static org.sonarlint.intellij.common.util.SonarLintUtils.getService;
@@ -55,48 +69,23 @@ import static org.sonarlint.intellij.common.util.SonarLintUtils.isPhpFile;
 import static org.sonarlint.intellij.common.util.SonarLintUtils.isPhpLanguageRegistered;
 import static org.sonarlint.intellij.config.Settings.getSettingsFor;
 
-public class SonarExternalAnnotator extends ExternalAnnotator<SonarExternalAnnotator.AnnotationContext, SonarExternalAnnotator.AnnotationContext> {
+public class SonarExternalAnnotator extends ExternalAnnotator<SonarExternalAnnotator.AnnotationContext, SonarExternalAnnotator.AnnotationPlan> {
 
   // some quick fixes do not match the IntelliJ experience
   private static final Set<String> SILENCED_QUICK_FIXABLE_RULE_KEYS = Set.of("java:S1068", "java:S1144", "java:S1172");
+  // the plan retains the findings, and through their range markers the document: only softly reachable, and dropped when the file is closed
+  private static final Key<SoftReference<AnnotationPlan>> ANNOTATION_PLAN_KEY = Key.create("SONARLINT_ANNOTATION_PLAN");
+  private static final long SLOW_ANNOTATION_THRESHOLD_MS = 50;
 
   @Override
-  public void apply(@NotNull PsiFile psiFile, AnnotationContext annotationResult, @NotNull AnnotationHolder holder) {
-    if (shouldSkip(psiFile)) {
+  public void apply(@NotNull PsiFile psiFile, AnnotationPlan annotationPlan, @NotNull AnnotationHolder holder) {
+    if (annotationPlan == null) {
       return;
     }
-
-    var project = psiFile.getProject();
-    var file = psiFile.getVirtualFile();
-
-    var onTheFlyFindingsHolder = getService(project, AnalysisSubmitter.class).getOnTheFlyFindingsHolder();
-    var issues = onTheFlyFindingsHolder.getFindingsForFile(file);
-    issues.stream()
-      .filter(issue -> !issue.isResolved())
-      .forEach(issue -> {
-        // reject ranges that are no longer valid. It probably means that they were deleted from the file, or the file was deleted
-        var validTextRange = issue.getValidTextRange();
-        if (validTextRange != null) {
-          addAnnotation(project, issue, validTextRange, holder);
-        }
-      });
-
-    // only annotate the hotspots currently displayed in the tree
-    var toolWindowService = getService(project, SonarLintToolWindow.class);
-    toolWindowService.getDisplayedSecurityHotspotsForFile(file)
-      .forEach(securityHotspot -> {
-        // reject ranges that are no longer valid. It probably means that they were deleted from the file, or the file was deleted
-        var validTextRange = securityHotspot.getValidTextRange();
-        if (validTextRange != null) {
-          addAnnotation(project, securityHotspot, validTextRange, holder);
-        }
-      });
-
-    if (SonarLintUtils.isTaintVulnerabilitiesEnabled()) {
-      getService(project, TaintVulnerabilitiesCache.class).getTaintVulnerabilitiesForFile(file)
-        .stream().filter(vulnerability -> !vulnerability.isResolved())
-        .forEach(vulnerability -> addAnnotation(project, vulnerability, holder));
-    }
+    var start = System.nanoTime();
+    annotationPlan.annotations.forEach(annotation -> annotation.create(holder));
+    var applyNanos = System.nanoTime() - start;
+    logIfSlow(psiFile, annotationPlan, applyNanos);
   }
 
   private static boolean shouldSkip(@NotNull PsiFile file) {
@@ -109,21 +98,85 @@ public class SonarExternalAnnotator extends ExternalAnnotator<SonarExternalAnnot
     return collectInformation(file);
   }
 
+  /**
+   * Only gathers the findings to annotate, the annotations are planned in the background by {@link #doAnnotate}.
+   */
   @Override
-  public AnnotationContext collectInformation(@NotNull PsiFile file) {
-    return new AnnotationContext();
+  @Nullable
+  public AnnotationContext collectInformation(@NotNull PsiFile psiFile) {
+    if (shouldSkip(psiFile)) {
+      return null;
+    }
+    var start = System.nanoTime();
+    var project = psiFile.getProject();
+    var file = psiFile.getVirtualFile();
+    if (file == null) {
+      return null;
+    }
+
+    var onTheFlyFindingsHolder = getService(project, AnalysisSubmitter.class).getOnTheFlyFindingsHolder();
+    var findings = onTheFlyFindingsHolder.getFindingsForFile(file).stream().filter(finding -> !finding.isResolved()).toList();
+    // only annotate the hotspots currently displayed in the tree
+    var displayedSecurityHotspots = getService(project, SonarLintToolWindow.class).getDisplayedSecurityHotspotsForFile(file);
+    var taintVulnerabilities = SonarLintUtils.isTaintVulnerabilitiesEnabled()
+      ? getService(project, TaintVulnerabilitiesCache.class).getTaintVulnerabilitiesForFile(file).stream().filter(vulnerability -> !vulnerability.isResolved()).toList()
+      : List.<LocalTaintVulnerability>of();
+    var document = FileDocumentManager.getInstance().getCachedDocument(file);
+    return new AnnotationContext(project, file, document == null ? 0 : document.getModificationStamp(), findings, displayedSecurityHotspots,
+      taintVulnerabilities, getSettingsFor(project).isBindingEnabled(), getService(CleanAsYouCodeService.class).shouldFocusOnNewCode(project),
+      System.nanoTime() - start);
   }
 
+  /**
+   * Runs in the background. The plan of the previous run is reused if neither the document nor the findings changed.
+   */
   @Override
   @Nullable
-  public AnnotationContext doAnnotate(AnnotationContext collectedInfo) {
-    return collectedInfo;
+  public AnnotationPlan doAnnotate(@Nullable AnnotationContext context) {
+    if (context == null) {
+      return null;
+    }
+    var start = System.nanoTime();
+    var previousPlanReference = context.file.getUserData(ANNOTATION_PLAN_KEY);
+    var previousPlan = previousPlanReference == null ? null : previousPlanReference.get();
+    if (previousPlan != null && previousPlan.modificationStamp == context.modificationStamp && previousPlan.state.equals(context.state)) {
+      return previousPlan.reused(context.collectNanos, System.nanoTime() - start);
+    }
+    // the plan checks for cancellation between findings, so that it does not hold off write actions on files with many findings
+    var annotations = ReadAction.compute(() -> planAnnotations(context));
+    if (annotations == null) {
+      return null;
+    }
+    var plan = new AnnotationPlan(context.modificationStamp, context.state, annotations, context.collectNanos, System.nanoTime() - start, false);
+    context.file.putUserData(ANNOTATION_PLAN_KEY, new SoftReference<>(plan));
+    return plan;
   }
 
-  private static void addAnnotation(Project project, LiveFinding finding, TextRange validTextRange, AnnotationHolder annotationHolder) {
+  public static void forgetAnnotationPlan(VirtualFile file) {
+    file.putUserData(ANNOTATION_PLAN_KEY, null);
+  }
+
+  @CheckForNull
+  private static List<PlannedAnnotation> planAnnotations(AnnotationContext context) {
+    if (context.project.isDisposed() || !context.file.isValid()) {
+      return null;
+    }
+    var annotations = new ArrayList<PlannedAnnotation>();
+    // reject ranges that are no longer valid. It probably means that they were deleted from the file, or the file was deleted
+    FindingsValidity.forEachValidTextRange(context.findings, LiveFinding::getRange,
+      (issue, validTextRange) -> annotations.add(planAnnotation(context, issue, validTextRange)));
+    FindingsValidity.forEachValidTextRange(context.displayedSecurityHotspots, LiveFinding::getRange,
+      (securityHotspot, validTextRange) -> annotations.add(planAnnotation(context, securityHotspot, validTextRange)));
+    FindingsValidity.forEachValidTextRange(context.taintVulnerabilities, LocalTaintVulnerability::rangeMarker,
+      (vulnerability, validTextRange) -> annotations.add(planAnnotation(context, vulnerability, validTextRange)));
+    return List.copyOf(annotations);
+  }
+
+  private static PlannedAnnotation planAnnotation(AnnotationContext context, LiveFinding finding, TextRange validTextRange) {
+    ProgressManager.checkCanceled();
     var intentionActions = new ArrayList<IntentionAction>();
     intentionActions.add(new ShowRuleDescriptionIntentionAction(finding));
-    if (!getSettingsFor(project).isBindingEnabled()) {
+    if (!context.bindingEnabled) {
       intentionActions.add(new DisableRuleIntentionAction(finding.getRuleKey()));
     }
 
@@ -150,43 +203,39 @@ public class SonarExternalAnnotator extends ExternalAnnotator<SonarExternalAnnot
 
     finding.context().ifPresent(c -> intentionActions.add(new ShowLocationsIntentionAction(finding, c)));
 
-    var annotationBuilder = annotationHolder
-      .newAnnotation(getSeverity(finding.getHighestImpact(), finding.getUserSeverity()), finding.getMessage())
-      .range(validTextRange);
-    for (IntentionAction action : intentionActions) {
-      annotationBuilder = annotationBuilder.withFix(action);
-    }
-
-    if (finding.getRange() == null) {
-      annotationBuilder = annotationBuilder.fileLevel();
-    } else {
-      annotationBuilder = annotationBuilder.textAttributes(getTextAttrsKey(project, finding.getHighestImpact(), finding.getUserSeverity(), finding.isOnNewCode()));
-    }
-
-    annotationBuilder.highlightType(getType(finding.getHighestImpact(), finding.getUserSeverity()))
-      .create();
+    var textAttributes = finding.getRange() == null ? null
+      : getTextAttrsKey(context.focusOnNewCode, finding.getHighestImpact(), finding.getUserSeverity(), finding.isOnNewCode());
+    return new PlannedAnnotation(getSeverity(finding.getHighestImpact(), finding.getUserSeverity()), finding.getMessage(), validTextRange,
+      List.copyOf(intentionActions), textAttributes, getType(finding.getHighestImpact(), finding.getUserSeverity()));
   }
 
   private static boolean shouldSuggestQuickFix(LiveFinding issue) {
     return !SILENCED_QUICK_FIXABLE_RULE_KEYS.contains(issue.getRuleKey());
   }
 
-  private static void addAnnotation(Project project, LocalTaintVulnerability vulnerability, AnnotationHolder annotationHolder) {
-    var textRange = vulnerability.getValidTextRange();
-    if (textRange == null) {
-      return;
+  private static PlannedAnnotation planAnnotation(AnnotationContext context, LocalTaintVulnerability vulnerability, TextRange validTextRange) {
+    ProgressManager.checkCanceled();
+    return new PlannedAnnotation(getSeverity(vulnerability.getHighestImpact(), vulnerability.severity()), vulnerability.message(), validTextRange,
+      List.of(new ShowTaintVulnerabilityRuleDescriptionIntentionAction(vulnerability), new MarkAsResolvedAction(vulnerability)),
+      getTextAttrsKey(context.focusOnNewCode, vulnerability.getHighestImpact(), vulnerability.severity(), vulnerability.isOnNewCode()),
+      getType(vulnerability.getHighestImpact(), vulnerability.severity()));
+  }
+
+  private static void logIfSlow(PsiFile psiFile, AnnotationPlan plan, long applyNanos) {
+    var totalMs = TimeUnit.NANOSECONDS.toMillis(plan.collectNanos + plan.planNanos + applyNanos);
+    if (totalMs >= SLOW_ANNOTATION_THRESHOLD_MS) {
+      SonarLintConsole.get(psiFile.getProject()).debug(String.format("Annotated %d findings in %s in %d ms (collect: %d ms, plan: %d ms%s, apply: %d ms)",
+        plan.annotations.size(), psiFile.getName(), totalMs, TimeUnit.NANOSECONDS.toMillis(plan.collectNanos), TimeUnit.NANOSECONDS.toMillis(plan.planNanos),
+        plan.reused ? ", reused" : "", TimeUnit.NANOSECONDS.toMillis(applyNanos)));
     }
-    annotationHolder.newAnnotation(getSeverity(vulnerability.getHighestImpact(), vulnerability.severity()), vulnerability.message())
-      .range(textRange)
-      .withFix(new ShowTaintVulnerabilityRuleDescriptionIntentionAction(vulnerability))
-      .withFix(new MarkAsResolvedAction(vulnerability))
-      .textAttributes(getTextAttrsKey(project, vulnerability.getHighestImpact(), vulnerability.severity(), vulnerability.isOnNewCode()))
-      .highlightType(getType(vulnerability.getHighestImpact(), vulnerability.severity()))
-      .create();
   }
 
   static TextAttributesKey getTextAttrsKey(Project project, @Nullable ImpactSeverity impact, @Nullable IssueSeverity severity, boolean isOnNewCode) {
-    if (getService(CleanAsYouCodeService.class).shouldFocusOnNewCode(project) && !isOnNewCode) {
+    return getTextAttrsKey(getService(CleanAsYouCodeService.class).shouldFocusOnNewCode(project), impact, severity, isOnNewCode);
+  }
+
+  private static TextAttributesKey getTextAttrsKey(boolean focusOnNewCode, @Nullable ImpactSeverity impact, @Nullable IssueSeverity severity, boolean isOnNewCode) {
+    if (focusOnNewCode && !isOnNewCode) {
       return SonarLintTextAttributes.OLD_CODE;
     }
 
@@ -240,5 +289,121 @@ public class SonarExternalAnnotator extends ExternalAnnotator<SonarExternalAnnot
   }
 
   public static class AnnotationContext {
+    private final Project project;
+    private final VirtualFile file;
+    private final long modificationStamp;
+    private final List<LiveFinding> findings;
+    private final Collection<LiveSecurityHotspot> displayedSecurityHotspots;
+    private final List<LocalTaintVulnerability> taintVulnerabilities;
+    private final boolean bindingEnabled;
+    private final boolean focusOnNewCode;
+    private final AnnotatedState state;
+    private final long collectNanos;
+
+    AnnotationContext(Project project, VirtualFile file, long modificationStamp, List<LiveFinding> findings, Collection<LiveSecurityHotspot> displayedSecurityHotspots,
+      List<LocalTaintVulnerability> taintVulnerabilities, boolean bindingEnabled, boolean focusOnNewCode, long collectNanos) {
+      this.project = project;
+      this.file = file;
+      this.modificationStamp = modificationStamp;
+      this.findings = findings;
+      this.displayedSecurityHotspots = displayedSecurityHotspots;
+      this.taintVulnerabilities = taintVulnerabilities;
+      this.bindingEnabled = bindingEnabled;
+      this.focusOnNewCode = focusOnNewCode;
+      this.state = captureState();
+      this.collectNanos = collectNanos;
+    }
+
+    /**
+     * Captures the findings and the state that can change without the document being modified.
+     */
+    private AnnotatedState captureState() {
+      var annotatedFindings = new ArrayList<AnnotatedFinding>(findings.size() + displayedSecurityHotspots.size() + taintVulnerabilities.size());
+      findings.forEach(finding -> annotatedFindings.add(AnnotatedFinding.of(finding)));
+      displayedSecurityHotspots.forEach(securityHotspot -> annotatedFindings.add(AnnotatedFinding.of(securityHotspot)));
+      taintVulnerabilities.forEach(vulnerability -> annotatedFindings.add(new AnnotatedFinding(vulnerability, null, null)));
+      return new AnnotatedState(bindingEnabled, focusOnNewCode, findings.size(), displayedSecurityHotspots.size(), annotatedFindings);
+    }
+  }
+
+  /**
+   * The findings of a plan are compared by identity, along with their server key and status that can change in place.
+   */
+  record AnnotatedState(boolean bindingEnabled, boolean focusOnNewCode, int findingsCount, int securityHotspotsCount, List<AnnotatedFinding> findings) {
+  }
+
+  private static final class AnnotatedFinding {
+    private final Object finding;
+    @Nullable
+    private final String serverKey;
+    @Nullable
+    private final HotspotReviewStatus status;
+
+    private AnnotatedFinding(Object finding, @Nullable String serverKey, @Nullable HotspotReviewStatus status) {
+      this.finding = finding;
+      this.serverKey = serverKey;
+      this.status = status;
+    }
+
+    static AnnotatedFinding of(LiveFinding finding) {
+      var status = finding instanceof LiveSecurityHotspot hotspot ? hotspot.getStatus() : null;
+      return new AnnotatedFinding(finding, finding.getServerKey(), status);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof AnnotatedFinding other && finding == other.finding && Objects.equals(serverKey, other.serverKey)
+        && Objects.equals(status, other.status);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(finding), serverKey, status);
+    }
+  }
+
+  /**
+   * The annotations to create for a file, computed in the background so that {@link #apply} only has to emit them.
+   */
+  public static final class AnnotationPlan {
+    private final long modificationStamp;
+    private final AnnotatedState state;
+    private final List<PlannedAnnotation> annotations;
+    private final long collectNanos;
+    private final long planNanos;
+    private final boolean reused;
+
+    AnnotationPlan(long modificationStamp, AnnotatedState state, List<PlannedAnnotation> annotations, long collectNanos, long planNanos, boolean reused) {
+      this.modificationStamp = modificationStamp;
+      this.state = state;
+      this.annotations = annotations;
+      this.collectNanos = collectNanos;
+      this.planNanos = planNanos;
+      this.reused = reused;
+    }
+
+    AnnotationPlan reused(long collectNanos, long planNanos) {
+      return new AnnotationPlan(modificationStamp, state, annotations, collectNanos, planNanos, true);
+    }
+
+    boolean isReused() {
+      return reused;
+    }
+  }
+
+  /**
+   * @param textAttributes null for file-level annotations
+   */
+  record PlannedAnnotation(HighlightSeverity severity, String message, TextRange range, List<IntentionAction> fixes,
+    @Nullable TextAttributesKey textAttributes, ProblemHighlightType highlightType) {
+
+    void create(AnnotationHolder holder) {
+      var annotationBuilder = holder.newAnnotation(severity, message).range(range);
+      for (var fix : fixes) {
+        annotationBuilder = annotationBuilder.withFix(fix);
+      }
+      annotationBuilder = textAttributes == null ? annotationBuilder.fileLevel() : annotationBuilder.textAttributes(textAttributes);
+      annotationBuilder.highlightType(highlightType).create();
+    }
   }
 }
@@ -0,0 +1,164 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.finding;
+
+import com.intellij.openapi.editor.RangeMarker;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+
+import static org.sonarlint.intellij.common.ui.ReadActionUtils.computeReadActionSafely;
+
+/**
+ * Checks the validity of all the findings of a file at once, instead of acquiring a read action per finding.
+ * The result is cached on the file until its content changes, so that refreshing a tree or looking up cached analysis results does not
+ * check the same findings again. A cached result is only reused for the same collection, still holding the same findings.
+ */
+public final class FindingsValidity {
+  private static final Key<SoftReference<CachedValidity>> VALIDITY_KEY = Key.create("SONARLINT_FINDINGS_VALIDITY");
+  // Several collections are checked for the same file (issues, Security Hotspots...)
+  private static final int MAX_CACHED_COLLECTIONS = 4;
+
+  private FindingsValidity() {
+    // utility class
+  }
+
+  /**
+   * Returns the findings of {@code file} that are still valid, in iteration order, as an unmodifiable list. Can be called from any thread.
+   */
+  public static <T extends LiveFinding> List<T> filterValid(VirtualFile file, Collection<T> findings) {
+    if (findings.isEmpty() || !file.isValid()) {
+      return List.of();
+    }
+    var fileStamp = file.getModificationStamp();
+    var documentStamp = documentStamp(file);
+    var cachedReference = file.getUserData(VALIDITY_KEY);
+    var cached = cachedReference == null ? null : cachedReference.get();
+    if (cached != null && !cached.isUpToDate(fileStamp, documentStamp)) {
+      cached = null;
+    }
+    if (cached != null) {
+      var cachedValidFindings = cached.find(findings);
+      if (cachedValidFindings != null) {
+        // the cached list only holds findings of the collection
+        @SuppressWarnings("unchecked")
+        var validFindings = (List<T>) cachedValidFindings;
+        return validFindings;
+      }
+    }
+    var snapshot = List.copyOf(findings);
+    var validFindings = computeReadActionSafely(file, () -> checkRanges(snapshot));
+    if (validFindings == null) {
+      return List.of();
+    }
+    var previous = cached == null ? new CachedValidity(fileStamp, documentStamp, List.of()) : cached;
+    file.putUserData(VALIDITY_KEY, new SoftReference<>(previous.with(findings, snapshot, validFindings)));
+    return validFindings;
+  }
+
+  /**
+   * Calls {@code consumer} with each finding whose range is still valid, along with this range.
+   * Must be called under a read action, shared by all the findings.
+   */
+  public static <T> void forEachValidTextRange(Iterable<T> findings, Function<T, RangeMarker> rangeOf, BiConsumer<T, TextRange> consumer) {
+    for (var finding : findings) {
+      var validTextRange = LiveFinding.toValidTextRange(rangeOf.apply(finding));
+      if (validTextRange != null) {
+        consumer.accept(finding, validTextRange);
+      }
+    }
+  }
+
+  private static <T extends LiveFinding> List<T> checkRanges(Collection<T> findings) {
+    var validFindings = new ArrayList<T>(findings.size());
+    for (var finding : findings) {
+      var range = finding.getRange();
+      if (range == null || range.isValid()) {
+        validFindings.add(finding);
+      }
+    }
+    return Collections.unmodifiableList(validFindings);
+  }
+
+  private static long documentStamp(VirtualFile file) {
+    var document = FileDocumentManager.getInstance().getCachedDocument(file);
+    return document == null ? -1 : document.getModificationStamp();
+  }
+
+  private record CachedValidity(long fileStamp, long documentStamp, List<Entry> entries) {
+    boolean isUpToDate(long currentFileStamp, long currentDocumentStamp) {
+      return fileStamp == currentFileStamp && documentStamp == currentDocumentStamp;
+    }
+
+    @CheckForNull
+    List<?> find(Collection<?> findings) {
+      for (var entry : entries) {
+        if (entry.findings.get() == findings && entry.hasSameFindings(findings)) {
+          return entry.validFindings;
+        }
+      }
+      return null;
+    }
+
+    CachedValidity with(Collection<?> findings, List<?> snapshot, List<?> validFindings) {
+      var newEntries = new ArrayList<Entry>(MAX_CACHED_COLLECTIONS);
+      newEntries.add(new Entry(new WeakReference<>(findings), snapshot, validFindings));
+      for (var entry : entries) {
+        if (newEntries.size() == MAX_CACHED_COLLECTIONS) {
+          break;
+        }
+        var entryFindings = entry.findings.get();
+        if (entryFindings != null && entryFindings != findings) {
+          newEntries.add(entry);
+        }
+      }
+      return new CachedValidity(fileStamp, documentStamp, List.copyOf(newEntries));
+    }
+  }
+
+  /**
+   * The collection may have been changed in place since it was checked, so its content is compared to a snapshot, by identity.
+   */
+  private record Entry(WeakReference<Collection<?>> findings, List<?> snapshot, List<?> validFindings) {
+    boolean hasSameFindings(Collection<?> currentFindings) {
+      if (currentFindings.size() != snapshot.size()) {
+        return false;
+      }
+      var i = 0;
+      for (var finding : currentFindings) {
+        if (finding != snapshot.get(i)) {
+          return false;
+        }
+        i++;
+      }
+      return true;
+    }
+  }
+}
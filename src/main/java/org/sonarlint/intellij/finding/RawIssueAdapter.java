@@ -23,13 +23,17 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import javax.annotation.CheckForNull;
 import org.jetbrains.annotations.Nullable;
 import org.sonarlint.intellij.common.ui.SonarLintConsole;
 import org.sonarlint.intellij.finding.hotspot.LiveSecurityHotspot;
@@ -47,50 +51,62 @@ import static org.sonarlint.intellij.util.ProjectUtils.toPsiFile;
 
 public class RawIssueAdapter {
 
-  public static LiveSecurityHotspot toLiveSecurityHotspot(Module module, RaisedHotspotDto rawHotspot,
+  /**
+   * Converts all the Security Hotspots raised on a file in a single read action.
+   */
+  public static List<LiveSecurityHotspot> toLiveSecurityHotspots(Module module, Collection<RaisedHotspotDto> rawHotspots,
     VirtualFile virtualFile, @Nullable Long modificationStamp) {
-    return computeReadActionSafely(module, () -> {
+    var liveHotspots = computeReadActionSafely(module, () -> {
       var project = module.getProject();
-      var matcher = new TextRangeMatcher(project);
-      var psiFile = toPsiFile(project, virtualFile);
-      var textRange = rawHotspot.getTextRange();
-      var quickFixes = transformQuickFixes(project, rawHotspot.getQuickFixes(), modificationStamp);
-      if (textRange != null) {
-        var rangeMarker = matcher.match(psiFile, textRange);
-        var context = transformFlows(project, matcher, psiFile, rawHotspot.getFlows(), rawHotspot.getRuleKey());
-        return new LiveSecurityHotspot(module, rawHotspot, virtualFile, rangeMarker, context.orElse(null), quickFixes);
-      } else {
-        return new LiveSecurityHotspot(module, rawHotspot, virtualFile, quickFixes);
+      var matchers = new FileMatchers(project, virtualFile);
+      var result = new ArrayList<LiveSecurityHotspot>(rawHotspots.size());
+      for (var rawHotspot : rawHotspots) {
+        var textRange = rawHotspot.getTextRange();
+        var quickFixes = transformQuickFixes(project, rawHotspot.getQuickFixes(), modificationStamp);
+        if (textRange != null) {
+          var rangeMarker = matchers.primary().match(textRange);
+          var context = transformFlows(project, matchers, rawHotspot.getFlows(), rawHotspot.getRuleKey());
+          result.add(new LiveSecurityHotspot(module, rawHotspot, virtualFile, rangeMarker, context.orElse(null), quickFixes));
+        } else {
+          result.add(new LiveSecurityHotspot(module, rawHotspot, virtualFile, quickFixes));
+        }
       }
+      return result;
     });
+    return liveHotspots == null ? List.of() : liveHotspots;
   }
 
-  @Nullable
-  public static LiveIssue toLiveIssue(Module module, RaisedIssueDto rawIssue,
+  /**
+   * Converts all the issues raised on a file in a single read action.
+   */
+  public static List<LiveIssue> toLiveIssues(Module module, Collection<RaisedIssueDto> rawIssues,
     VirtualFile virtualFile, @Nullable Long modificationStamp) {
-    return computeReadActionSafely(module, () -> {
+    var liveIssues = computeReadActionSafely(module, () -> {
       var project = module.getProject();
-      var matcher = new TextRangeMatcher(project);
-      var psiFile = toPsiFile(project, virtualFile);
-      var textRange = rawIssue.getTextRange();
-      var quickFixes = transformQuickFixes(project, rawIssue.getQuickFixes(), modificationStamp);
-      if (textRange != null) {
-        var rangeMarker = matcher.match(psiFile, textRange);
-        var context = transformFlows(project, matcher, psiFile, rawIssue.getFlows(), rawIssue.getRuleKey());
-        return new LiveIssue(module, rawIssue, virtualFile, rangeMarker, context.orElse(null), quickFixes);
-      } else {
-        return new LiveIssue(module, rawIssue, virtualFile, quickFixes);
+      var matchers = new FileMatchers(project, virtualFile);
+      var result = new ArrayList<LiveIssue>(rawIssues.size());
+      for (var rawIssue : rawIssues) {
+        var textRange = rawIssue.getTextRange();
+        var quickFixes = transformQuickFixes(project, rawIssue.getQuickFixes(), modificationStamp);
+        if (textRange != null) {
+          var rangeMarker = matchers.primary().match(textRange);
+          var context = transformFlows(project, matchers, rawIssue.getFlows(), rawIssue.getRuleKey());
+          result.add(new LiveIssue(module, rawIssue, virtualFile, rangeMarker, context.orElse(null), quickFixes));
+        } else {
+          result.add(new LiveIssue(module, rawIssue, virtualFile, quickFixes));
+        }
       }
+      return result;
     });
+    return liveIssues == null ? List.of() : liveIssues;
   }
 
-  private static Optional<FindingContext> transformFlows(Project project, TextRangeMatcher matcher, PsiFile psiFile,
-    List<IssueFlowDto> flows, String rule) {
-    List<Flow> matchedFlows = new LinkedList<>();
+  private static Optional<FindingContext> transformFlows(Project project, FileMatchers matchers, List<IssueFlowDto> flows, String rule) {
+    List<Flow> matchedFlows = new ArrayList<>(flows.size());
 
     for (var i = 0; i < flows.size(); i++) {
       var flow = flows.get(i);
-      List<Location> matchedLocations = new LinkedList<>();
+      List<Location> matchedLocations = new ArrayList<>(flow.getLocations().size());
       for (var loc : flow.getLocations()) {
         try {
           var textRange = loc.getTextRange();
@@ -98,20 +114,17 @@ public class RawIssueAdapter {
           if (fileUri == null) {
             continue;
           }
-          VirtualFile locVirtualFile = null;
-          var locFileUri = loc.getFileUri();
-          if (locFileUri != null) {
-            locVirtualFile = VirtualFileUtils.INSTANCE.uriToVirtualFile(fileUri);
-          }
-          if (textRange != null && locVirtualFile != null) {
-            var locPsiFile = toPsiFile(project, locVirtualFile);
-            var range = matcher.match(locPsiFile, textRange);
-            matchedLocations.add(resolvedLocation(locPsiFile.getVirtualFile(), range, loc.getMessage(), null));
+          if (textRange != null) {
+            var locMatcher = matchers.forUri(fileUri);
+            if (locMatcher != null) {
+              var range = locMatcher.match(textRange);
+              matchedLocations.add(resolvedLocation(locMatcher.getPsiFile().getVirtualFile(), range, loc.getMessage(), null));
+            }
           }
         } catch (TextRangeMatcher.NoMatchException e) {
           // File content is likely to have changed during the analysis, should be fixed in next analysis
           SonarLintConsole.get(project)
-            .debug("Failed to find secondary location of finding for file: '" + psiFile.getName() + "'. The location won't be displayed - " + e.getMessage());
+            .debug("Failed to find secondary location of finding for file: '" + matchers.primaryFileName() + "'. The location won't be displayed - " + e.getMessage());
         } catch (Exception e) {
           var textRange = loc.getTextRange();
           var detailString = String.join(",",
@@ -171,6 +184,50 @@ public class RawIssueAdapter {
       .toList();
   }
 
+  /**
+   * Resolves each file involved in the findings of a file only once, must be used inside a single read action.
+   */
+  private static class FileMatchers {
+    private final Project project;
+    private final TextRangeMatcher matcher;
+    private final PsiFile primaryPsiFile;
+    private final Map<VirtualFile, TextRangeMatcher.FileMatcher> matcherByFile = new HashMap<>();
+    private final Map<URI, Optional<VirtualFile>> fileByUri = new HashMap<>();
+
+    private FileMatchers(Project project, VirtualFile primaryFile) throws TextRangeMatcher.NoMatchException {
+      this.project = project;
+      this.matcher = new TextRangeMatcher(project);
+      this.primaryPsiFile = toPsiFile(project, primaryFile);
+    }
+
+    private String primaryFileName() {
+      return primaryPsiFile.getName();
+    }
+
+    private TextRangeMatcher.FileMatcher primary() throws TextRangeMatcher.NoMatchException {
+      var fileMatcher = matcherByFile.get(primaryPsiFile.getVirtualFile());
+      if (fileMatcher == null) {
+        fileMatcher = matcher.forFile(primaryPsiFile);
+        matcherByFile.put(primaryPsiFile.getVirtualFile(), fileMatcher);
+      }
+      return fileMatcher;
+    }
+
+    @CheckForNull
+    private TextRangeMatcher.FileMatcher forUri(URI fileUri) throws TextRangeMatcher.NoMatchException {
+      var virtualFile = fileByUri.computeIfAbsent(fileUri, uri -> Optional.ofNullable(VirtualFileUtils.INSTANCE.uriToVirtualFile(uri)));
+      if (virtualFile.isEmpty()) {
+        return null;
+      }
+      var fileMatcher = matcherByFile.get(virtualFile.get());
+      if (fileMatcher == null) {
+        fileMatcher = matcher.forFile(toPsiFile(project, virtualFile.get()));
+        matcherByFile.put(virtualFile.get(), fileMatcher);
+      }
+      return fileMatcher;
+    }
+  }
+
   private RawIssueAdapter() {
     // utility class
   }
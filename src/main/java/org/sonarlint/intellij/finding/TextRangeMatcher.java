@@ -29,6 +29,8 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiWhiteSpace;
+import java.util.Arrays;
+import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.tracking.TextRangeWithHashDto;
@@ -75,6 +77,19 @@ public class TextRangeMatcher {
     return match(file, textRange.getStartLine(), textRange.getStartLineOffset(), textRange.getEndLine(), textRange.getEndLineOffset());
   }
 
+  /**
+   * Prepares the matching of many ranges in the same file, the document and the notebook cells layout are only resolved once.
+   * <b>Can only be called with read access</b>, the returned matcher should not outlive the read action.
+   */
+  public FileMatcher forFile(PsiFile file) throws NoMatchException {
+    ApplicationManager.getApplication().assertReadAccessAllowed();
+    var doc = PsiDocumentManager.getInstance(project).getDocument(file);
+    if (doc == null) {
+      throw new NoMatchException("No document found for file: " + file.getName());
+    }
+    return new FileMatcher(file, doc);
+  }
+
   private RangeMarker match(PsiFile file, @Nullable Integer startLine, @Nullable Integer startLineOffset, @Nullable Integer endLine, @Nullable Integer endLineOffset)
     throws NoMatchException {
     ApplicationManager.getApplication().assertReadAccessAllowed();
@@ -92,8 +107,13 @@ public class TextRangeMatcher {
 
   private static TextRange getIssueTextRange(PsiFile file, Document doc, @Nullable Integer startLine, @Nullable Integer startLineOffset, @Nullable Integer endLine,
     @Nullable Integer endLineOffset) throws NoMatchException {
-    if (startLine != null && endLine != null && startLineOffset != null && endLineOffset != null && "ipynb".equals(file.getVirtualFile().getExtension())) {
-      var newTextRange = computeTextRangeForNotebook(doc.getText(), startLine, startLineOffset, endLine, endLineOffset);
+    return getIssueTextRange(file, doc, () -> NotebookLines.of(doc.getText()), startLine, startLineOffset, endLine, endLineOffset);
+  }
+
+  private static TextRange getIssueTextRange(PsiFile file, Document doc, Supplier<NotebookLines> notebookLines, @Nullable Integer startLine,
+    @Nullable Integer startLineOffset, @Nullable Integer endLine, @Nullable Integer endLineOffset) throws NoMatchException {
+    if (startLine != null && endLine != null && startLineOffset != null && endLineOffset != null && isNotebook(file)) {
+      var newTextRange = notebookLines.get().shift(startLine, startLineOffset, endLine, endLineOffset);
       startLine = newTextRange.getStartLine();
       startLineOffset = newTextRange.getStartLineOffset();
       endLine = newTextRange.getEndLine();
@@ -124,26 +144,14 @@ public class TextRangeMatcher {
     return new TextRange(rangeStart, rangeEnd);
   }
 
+  private static boolean isNotebook(PsiFile file) {
+    var virtualFile = file.getVirtualFile();
+    return virtualFile != null && "ipynb".equals(virtualFile.getExtension());
+  }
+
   public static TextRangeDto computeTextRangeForNotebook(String fileContent, int prevStartLine,
     int prevStartLineOffset, int prevEndLine, int prevEndLineOffset) {
-    var isMarkdown = false;
-    var startLine = prevStartLine;
-    var endLine = prevEndLine;
-    var lineNumber = 0;
-    for (var line : fileContent.lines().toList()) {
-      if (line.startsWith("#%% md") || line.startsWith("#%% raw")) {
-        isMarkdown = true;
-      } else if (line.startsWith("#%%")) {
-        isMarkdown = false;
-      }
-
-      if (isMarkdown && startLine > lineNumber) {
-        startLine++;
-        endLine++;
-      }
-      lineNumber++;
-    }
-    return new TextRangeDto(startLine, prevStartLineOffset, endLine, prevEndLineOffset);
+    return NotebookLines.of(fileContent).shift(prevStartLine, prevStartLineOffset, prevEndLine, prevEndLineOffset);
   }
 
   private static int findEndLineOffset(Document doc, int ijLine, @Nullable Integer endOffset) {
@@ -200,6 +208,88 @@ public class TextRangeMatcher {
     return nextRangeStart;
   }
 
+  /**
+   * Matches ranges of a single file, see {@link #forFile(PsiFile)}.
+   */
+  public static class FileMatcher {
+    private final PsiFile file;
+    private final Document doc;
+    private NotebookLines notebookLines;
+
+    private FileMatcher(PsiFile file, Document doc) {
+      this.file = file;
+      this.doc = doc;
+    }
+
+    public PsiFile getPsiFile() {
+      return file;
+    }
+
+    public RangeMarker match(TextRangeDto textRange) throws NoMatchException {
+      var range = getIssueTextRange(file, doc, this::getNotebookLines, textRange.getStartLine(), textRange.getStartLineOffset(), textRange.getEndLine(),
+        textRange.getEndLineOffset());
+      return doc.createRangeMarker(range.getStartOffset(), range.getEndOffset());
+    }
+
+    private NotebookLines getNotebookLines() {
+      if (notebookLines == null) {
+        notebookLines = NotebookLines.of(doc.getText());
+      }
+      return notebookLines;
+    }
+  }
+
+  /**
+   * Layout of the cells of a notebook, as exported by IntelliJ: markdown and raw cells are not sent to the analyzer, so lines reported by the
+   * backend have to be shifted by the number of markdown lines that precede them.
+   */
+  static class NotebookLines {
+    // index k -> length of the smallest prefix of the file containing k code lines
+    private final int[] prefixLengthByCodeLinesCount;
+    private final int markdownLinesCount;
+
+    private NotebookLines(int[] prefixLengthByCodeLinesCount, int markdownLinesCount) {
+      this.prefixLengthByCodeLinesCount = prefixLengthByCodeLinesCount;
+      this.markdownLinesCount = markdownLinesCount;
+    }
+
+    static NotebookLines of(String fileContent) {
+      var lines = fileContent.lines().toList();
+      var prefixLengths = new int[lines.size() + 1];
+      var isMarkdown = false;
+      var codeLinesCount = 0;
+      var markdownLinesCount = 0;
+      for (var lineNumber = 0; lineNumber < lines.size(); lineNumber++) {
+        var line = lines.get(lineNumber);
+        if (line.startsWith("#%% md") || line.startsWith("#%% raw")) {
+          isMarkdown = true;
+        } else if (line.startsWith("#%%")) {
+          isMarkdown = false;
+        }
+
+        if (isMarkdown) {
+          markdownLinesCount++;
+        } else {
+          codeLinesCount++;
+          prefixLengths[codeLinesCount] = lineNumber + 1;
+        }
+      }
+      return new NotebookLines(Arrays.copyOf(prefixLengths, codeLinesCount + 1), markdownLinesCount);
+    }
+
+    TextRangeDto shift(int startLine, int startLineOffset, int endLine, int endLineOffset) {
+      int shift;
+      if (startLine <= 0) {
+        shift = 0;
+      } else if (startLine < prefixLengthByCodeLinesCount.length) {
+        shift = prefixLengthByCodeLinesCount[startLine] - startLine;
+      } else {
+        shift = markdownLinesCount;
+      }
+      return new TextRangeDto(startLine + shift, startLineOffset, endLine + shift, endLineOffset);
+    }
+  }
+
   public static class NoMatchException extends Exception {
     public NoMatchException(String msg) {
       super(msg);
@@ -23,41 +23,142 @@ import com.intellij.openapi.components.Service
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 import org.sonarlint.intellij.cayc.CleanAsYouCodeService
 import org.sonarlint.intellij.common.util.SonarLintUtils.getService
 
+/**
+ * Known taint vulnerabilities, indexed by id, server key and file. A taint vulnerability replaces the one with the same id or server key.
+ * Updates are applied in proportion to their size under a lock, and return the ids of the taint vulnerabilities they removed or replaced, so
+ * that the views remove the same ones. Readers never lock: they get immutable lists that are replaced, never
+ * mutated, when the content they reflect changes.
+ */
 @Service(Service.Level.PROJECT)
 class TaintVulnerabilitiesCache(val project: Project) {
     private var isResolvedState = false
-    var taintVulnerabilities: List<LocalTaintVulnerability> = emptyList()
 
-    fun update(taintVulnerabilityIdsToRemove: Set<UUID>, taintVulnerabilitiesToAdd: List<LocalTaintVulnerability>, taintVulnerabilitiesToUpdate: List<LocalTaintVulnerability>) {
-        val currentTaintVulnerabilities = taintVulnerabilities.toMutableList()
-        currentTaintVulnerabilities.removeAll { it.getId() in taintVulnerabilityIdsToRemove }
-        currentTaintVulnerabilities.addAll(taintVulnerabilitiesToAdd)
-        val updatedTaintVulnerabilityKeys = taintVulnerabilitiesToUpdate.map { updatedTaint -> updatedTaint.getServerKey() }
-        currentTaintVulnerabilities.removeAll { it.getServerKey() in updatedTaintVulnerabilityKeys }
-        currentTaintVulnerabilities.addAll(taintVulnerabilitiesToUpdate)
-        taintVulnerabilities = currentTaintVulnerabilities
+    // All the fields below are guarded by this, except the published immutable views
+    private val entriesById = LinkedHashMap<UUID, Entry>()
+    private val idByServerKey = HashMap<String, UUID>()
+    private val idsByFile = HashMap<VirtualFile, LinkedHashSet<UUID>>()
+    // Number of taint vulnerabilities by [isOnNewCode][isResolved], as they were when added
+    private val counts = Array(2) { IntArray(2) }
+
+    private val publishedByFile = ConcurrentHashMap<VirtualFile, List<LocalTaintVulnerability>>()
+    @Volatile
+    private var publishedAll: List<LocalTaintVulnerability>? = emptyList()
+
+    var taintVulnerabilities: List<LocalTaintVulnerability>
+        get() = publishedAll ?: synchronized(this) {
+            publishedAll ?: entriesById.values.map { it.taintVulnerability }.also { publishedAll = it }
+        }
+        set(value) {
+            synchronized(this) {
+                val touchedFiles = HashSet<VirtualFile>(idsByFile.keys)
+                entriesById.clear()
+                idByServerKey.clear()
+                idsByFile.clear()
+                counts.forEach { it.fill(0) }
+                value.forEach { add(it, touchedFiles, HashSet()) }
+                publish(touchedFiles)
+            }
+        }
+
+    fun update(
+        taintVulnerabilityIdsToRemove: Set<UUID>, taintVulnerabilitiesToAdd: List<LocalTaintVulnerability>,
+        taintVulnerabilitiesToUpdate: List<LocalTaintVulnerability>,
+    ): Set<UUID> {
+        synchronized(this) {
+            val touchedFiles = HashSet<VirtualFile>()
+            val removedIds = HashSet<UUID>()
+            taintVulnerabilityIdsToRemove.forEach { removeById(it, touchedFiles, removedIds) }
+            taintVulnerabilitiesToAdd.forEach { add(it, touchedFiles, removedIds) }
+            // updated taint vulnerabilities replace the ones with the same server key
+            taintVulnerabilitiesToUpdate.forEach { add(it, touchedFiles, removedIds) }
+            publish(touchedFiles)
+            return removedIds
+        }
     }
 
-    fun remove(taintVulnerabilityToRemove: LocalTaintVulnerability): Boolean {
-        val currentTaintVulnerabilities = taintVulnerabilities.toMutableList()
-        val removed = currentTaintVulnerabilities.removeIf { currentVulnerability -> currentVulnerability.getServerKey() == taintVulnerabilityToRemove.getServerKey() }
-        if (removed) {
-            taintVulnerabilities = currentTaintVulnerabilities
+    /**
+     * Removes the taint vulnerability with the same server key, and returns its id.
+     */
+    fun remove(taintVulnerabilityToRemove: LocalTaintVulnerability): UUID? {
+        synchronized(this) {
+            val id = idByServerKey[taintVulnerabilityToRemove.getServerKey()] ?: return null
+            val touchedFiles = HashSet<VirtualFile>()
+            removeById(id, touchedFiles, HashSet())
+            publish(touchedFiles)
+            return id
         }
-        return removed
     }
 
-    fun getTaintVulnerabilitiesForFile(file: VirtualFile) : List<LocalTaintVulnerability> {
-        return taintVulnerabilities.filter { it.file() == file }
+    fun getTaintVulnerabilitiesForFile(file: VirtualFile): List<LocalTaintVulnerability> {
+        return publishedByFile[file] ?: emptyList()
     }
 
     @JvmOverloads
     fun getFocusAwareCount(isResolved: Boolean? = null): Int {
         val isFocusOnNewCode = getService(CleanAsYouCodeService::class.java).shouldFocusOnNewCode(project)
         isResolved?.let { isResolvedState = it }
-        return taintVulnerabilities.count { (isResolvedState || !it.isResolved()) && (!isFocusOnNewCode || it.isOnNewCode()) }
+        synchronized(this) {
+            var count = 0
+            for (onNewCode in 0..1) {
+                if (isFocusOnNewCode && onNewCode == 0) continue
+                count += counts[onNewCode][0]
+                if (isResolvedState) {
+                    count += counts[onNewCode][1]
+                }
+            }
+            return count
+        }
+    }
+
+    private fun add(taintVulnerability: LocalTaintVulnerability, touchedFiles: MutableSet<VirtualFile>, removedIds: MutableSet<UUID>) {
+        idByServerKey[taintVulnerability.getServerKey()]?.let { removeById(it, touchedFiles, removedIds) }
+        removeById(taintVulnerability.getId(), touchedFiles, removedIds)
+        val entry = Entry(taintVulnerability, taintVulnerability.isOnNewCode(), taintVulnerability.isResolved())
+        entriesById[taintVulnerability.getId()] = entry
+        idByServerKey[taintVulnerability.getServerKey()] = taintVulnerability.getId()
+        taintVulnerability.file()?.let { file ->
+            idsByFile.getOrPut(file) { LinkedHashSet() }.add(taintVulnerability.getId())
+            touchedFiles.add(file)
+        }
+        counts[entry.countIndexOnNewCode()][entry.countIndexResolved()]++
+    }
+
+    private fun removeById(id: UUID, touchedFiles: MutableSet<VirtualFile>, removedIds: MutableSet<UUID>) {
+        val entry = entriesById.remove(id) ?: return
+        removedIds.add(id)
+        val taintVulnerability = entry.taintVulnerability
+        idByServerKey.remove(taintVulnerability.getServerKey(), id)
+        taintVulnerability.file()?.let { file ->
+            idsByFile[file]?.let { ids ->
+                ids.remove(id)
+                if (ids.isEmpty()) {
+                    idsByFile.remove(file)
+                }
+            }
+            touchedFiles.add(file)
+        }
+        counts[entry.countIndexOnNewCode()][entry.countIndexResolved()]--
+    }
+
+    private fun publish(touchedFiles: Set<VirtualFile>) {
+        touchedFiles.forEach { file ->
+            val ids = idsByFile[file]
+            if (ids == null) {
+                publishedByFile.remove(file)
+            } else {
+                publishedByFile[file] = ids.mapNotNull { entriesById[it]?.taintVulnerability }
+            }
+        }
+        // the complete list is only rebuilt when someone asks for it
+        publishedAll = null
+    }
+
+    private data class Entry(val taintVulnerability: LocalTaintVulnerability, val isOnNewCode: Boolean, val isResolved: Boolean) {
+        fun countIndexOnNewCode() = if (isOnNewCode) 1 else 0
+        fun countIndexResolved() = if (isResolved) 1 else 0
     }
 }
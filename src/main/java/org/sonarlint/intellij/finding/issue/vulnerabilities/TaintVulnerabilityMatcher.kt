@@ -21,6 +21,7 @@ package org.sonarlint.intellij.finding.issue.vulnerabilities
 
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
 import org.sonarlint.intellij.finding.Flow
 import org.sonarlint.intellij.finding.Location
 import org.sonarlint.intellij.finding.TextRangeMatcher
@@ -28,7 +29,7 @@ import org.sonarlint.intellij.finding.TextRangeMatcher.NoMatchException
 import org.sonarlint.intellij.finding.fileOnlyLocation
 import org.sonarlint.intellij.finding.resolvedLocation
 import org.sonarlint.intellij.finding.unknownLocation
-import org.sonarlint.intellij.util.ProjectUtils.tryFindFile
+import org.sonarlint.intellij.util.ProjectPathIndex
 import org.sonarlint.intellij.util.SonarLintAppUtils.findModuleForFile
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.tracking.TaintVulnerabilityDto
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.tracking.TaintVulnerabilityDto.FlowDto.LocationDto
@@ -37,6 +38,7 @@ import java.nio.file.Path
 
 class TaintVulnerabilityMatcher(private val project: Project) {
   private val textRangeMatcher = TextRangeMatcher(project)
+  private val pathIndex = getService(project, ProjectPathIndex::class.java)
 
   fun match(remoteIssue: TaintVulnerabilityDto): LocalTaintVulnerability {
       val primaryLocation = matchLocation(remoteIssue)
@@ -58,7 +60,7 @@ class TaintVulnerabilityMatcher(private val project: Project) {
   }
 
   private fun matchLocation(filePath: Path, textRange: TextRangeWithHashDto?, message: String): Location {
-    val matchedFile = tryFindFile(project, filePath)
+    val matchedFile = pathIndex.findFile(filePath)
 
     return if (matchedFile != null) matchTextRange(matchedFile, textRange, message) else unknownLocation(message, filePath)
   }
@@ -0,0 +1,179 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.fs
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ModuleRootManager
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.encoding.EncodingProjectManager
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.net.URI
+import java.nio.charset.Charset
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Future
+import org.apache.commons.codec.digest.DigestUtils
+import org.sonarlint.intellij.common.ui.ReadActionUtils.Companion.computeReadActionSafely
+import org.sonarlint.intellij.util.ContentHash
+import org.sonarlint.intellij.util.GlobalLogOutput
+import org.sonarsource.sonarlint.core.client.utils.ClientLogOutput
+import org.sonarsource.sonarlint.core.rpc.protocol.common.ClientFileDto
+
+/**
+ * Persists the files listed for each module across IDE restarts, so that listing the files of a module on project open only computes the
+ * files that changed since the previous session.
+ * A listing is only reused if the structure of the module (content roots, source and test roots, encodings) is the same, and each of its
+ * entries only if the file was not modified on disk since it was listed. Files sent with their content or with a forced language are never
+ * cached.
+ */
+@Service(Service.Level.PROJECT)
+class ClientFileListingCache(private val project: Project) {
+
+    fun open(configScopeId: String, module: Module): Listing {
+        val fingerprint = computeReadActionSafely(project) { computeFingerprint(module) } ?: return Listing(storagePath(configScopeId), 0, emptyMap())
+        val storagePath = storagePath(configScopeId)
+        return Listing(storagePath, fingerprint, read(storagePath, fingerprint))
+    }
+
+    private fun storagePath(configScopeId: String): Path =
+        Paths.get(PathManager.getSystemPath()).resolve("sonarlint/file-listings").resolve(project.locationHash).resolve(DigestUtils.md5Hex(configScopeId))
+
+    class Listing(private val storagePath: Path, private val fingerprint: Long, private val cachedEntriesByUrl: Map<String, Entry>) {
+        private val listedEntries = ConcurrentHashMap<String, Entry>()
+
+        /**
+         * Returns the cached file if it was not modified since it was listed.
+         */
+        fun getCached(file: VirtualFile, configScopeId: String): ClientFileDto? {
+            if (!file.isValid) return null
+            val entry = cachedEntriesByUrl[file.url]?.takeIf { it.timeStamp == file.timeStamp } ?: return null
+            listedEntries[file.url] = entry
+            return ClientFileDto(
+                URI.create(entry.uri), Paths.get(entry.relativePath), configScopeId, entry.isTest, entry.charset, Paths.get(file.path), null, null, true
+            )
+        }
+
+        fun record(file: VirtualFile, clientFile: ClientFileDto) {
+            if (clientFile.content == null && clientFile.detectedLanguage == null) {
+                listedEntries[file.url] = Entry(
+                    clientFile.uri.toString(), clientFile.ideRelativePath.toString(), clientFile.isTest(), clientFile.charset, file.timeStamp
+                )
+            }
+        }
+
+        /**
+         * Writes the listed files, unless they are the ones that were read from the cache.
+         */
+        fun saveInBackground(): Future<*> {
+            val entries = HashMap(listedEntries)
+            if (entries == cachedEntriesByUrl) {
+                return CompletableFuture.completedFuture(null)
+            }
+            return ApplicationManager.getApplication().executeOnPooledThread { write(storagePath, fingerprint, entries) }
+        }
+    }
+
+    data class Entry(val uri: String, val relativePath: String, val isTest: Boolean, val charset: String?, val timeStamp: Long)
+
+    companion object {
+        private const val FORMAT_VERSION = 1
+
+        private fun computeFingerprint(module: Module): Long {
+            val structure = StringBuilder()
+            structure.append(module.project.guessProjectDir()?.url).append('\n')
+            ModuleRootManager.getInstance(module).contentEntries.forEach { contentEntry ->
+                structure.append(contentEntry.url).append('\n')
+                contentEntry.sourceFolders.forEach { structure.append(it.url).append(' ').append(it.isTestSource).append('\n') }
+                contentEntry.excludeFolderUrls.forEach { structure.append(it).append('\n') }
+            }
+            val encodingProjectManager = EncodingProjectManager.getInstance(module.project)
+            structure.append(encodingProjectManager.defaultCharsetName).append(' ').append(Charset.defaultCharset().name()).append('\n')
+            encodingProjectManager.allMappings.entries.sortedBy { it.key.url }.forEach { (file, charset) ->
+                structure.append(file.url).append(' ').append(charset?.name()).append('\n')
+            }
+            return ContentHash.of(structure)
+        }
+
+        private fun read(storagePath: Path, fingerprint: Long): Map<String, Entry> {
+            if (!Files.exists(storagePath)) {
+                return emptyMap()
+            }
+            return try {
+                DataInputStream(BufferedInputStream(Files.newInputStream(storagePath))).use { input ->
+                    if (input.readInt() != FORMAT_VERSION || input.readLong() != fingerprint) {
+                        return emptyMap()
+                    }
+                    val count = input.readInt()
+                    val entries = HashMap<String, Entry>(count * 2)
+                    repeat(count) {
+                        val url = input.readUTF()
+                        entries[url] = Entry(input.readUTF(), input.readUTF(), input.readBoolean(), input.readUTF().ifEmpty { null }, input.readLong())
+                    }
+                    entries
+                }
+            } catch (e: IOException) {
+                GlobalLogOutput.get().log("Unable to read the cached file listing at $storagePath: ${e.message}", ClientLogOutput.Level.DEBUG)
+                emptyMap()
+            }
+        }
+
+        private fun write(storagePath: Path, fingerprint: Long, entriesByUrl: Map<String, Entry>) {
+            try {
+                Files.createDirectories(storagePath.parent)
+                // each save writes its own file, so that concurrent saves of a listing never mix their entries
+                val tempPath = Files.createTempFile(storagePath.parent, storagePath.fileName.toString(), ".tmp")
+                try {
+                    DataOutputStream(BufferedOutputStream(Files.newOutputStream(tempPath))).use { output ->
+                        output.writeInt(FORMAT_VERSION)
+                        output.writeLong(fingerprint)
+                        output.writeInt(entriesByUrl.size)
+                        entriesByUrl.forEach { (url, entry) ->
+                            output.writeUTF(url)
+                            output.writeUTF(entry.uri)
+                            output.writeUTF(entry.relativePath)
+                            output.writeBoolean(entry.isTest)
+                            output.writeUTF(entry.charset ?: "")
+                            output.writeLong(entry.timeStamp)
+                        }
+                    }
+                    Files.move(tempPath, storagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+                } finally {
+                    // only left if the write or the move failed
+                    Files.deleteIfExists(tempPath)
+                }
+            } catch (e: IOException) {
+                GlobalLogOutput.get().log("Unable to write the cached file listing at $storagePath: ${e.message}", ClientLogOutput.Level.DEBUG)
+            }
+        }
+    }
+}
@@ -24,80 +24,154 @@ import com.intellij.openapi.module.Module
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.project.ProjectCoreUtil
 import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.roots.ProjectFileIndex
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent
 import com.intellij.openapi.vfs.newvfs.events.VFileEvent
 import com.intellij.serviceContainer.NonInjectable
+import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+import org.sonarlint.intellij.common.ui.ReadActionUtils.Companion.computeReadActionSafely
 import org.sonarlint.intellij.common.util.FileUtils
 import org.sonarlint.intellij.common.util.SonarLintUtils.getService
 import org.sonarlint.intellij.core.BackendService
-import org.sonarlint.intellij.util.SonarLintAppUtils.findModuleForFile
 import org.sonarlint.intellij.util.SonarLintAppUtils.visitAndAddAllChildren
 import org.sonarsource.sonarlint.plugin.api.module.file.ModuleFileEvent
 
+/**
+ * Events received while a previous batch is being forwarded are queued and coalesced: only one event is kept per file,
+ * the modules of the files are resolved in read actions covering at most [MAX_BATCH_SIZE] files each, so that a large drain never blocks
+ * write actions for long, and the backend is notified in bounded-size batches.
+ */
 open class DefaultVirtualFileSystemEventsHandler @NonInjectable constructor(private val executorService: ExecutorService) : VirtualFileSystemEventsHandler, Disposable {
 
+    private val pendingEvents = ConcurrentLinkedQueue<PendingEvents>()
+    private val drainScheduled = AtomicBoolean(false)
+
     // default constructor used for the application service instantiation
     // keep events in order with a single thread executor
     constructor() : this(Executors.newSingleThreadExecutor { r -> Thread(r, "sonarlint-vfs-events-notifier") })
 
     override fun forwardEventsAsync(events: List<VFileEvent>, eventTypeConverter: (VFileEvent) -> ModuleFileEvent.Type?) {
-        executorService.submit { forwardEvents(events, eventTypeConverter) }
+        pendingEvents.add(PendingEvents(events, eventTypeConverter))
+        if (drainScheduled.compareAndSet(false, true)) {
+            executorService.submit { forwardPendingEvents() }
+        }
     }
 
-    private fun forwardEvents(
-        events: List<VFileEvent>,
-        eventTypeConverter: (VFileEvent) -> ModuleFileEvent.Type?,
-    ) {
-        
+    private fun forwardPendingEvents() {
+        drainScheduled.set(false)
+        val segments = mutableListOf(LinkedHashMap<VirtualFile, CoalescedEvent>())
+        while (true) {
+            val pending = pendingEvents.poll() ?: break
+            coalesce(pending, segments)
+        }
         val openProjects = ProjectManager.getInstance().openProjects.filter { !it.isDisposed }.toList()
-        val filesByModule = fileEventsByModules(events, openProjects, eventTypeConverter)
-        val allFilesByModule = filesByModule.entries.associate { it.key to it.value.toList() }
-        if (allFilesByModule.isNotEmpty()) {
-            getService(BackendService::class.java).updateFileSystem(allFilesByModule, false)
+        segments.filter { it.isNotEmpty() }.forEach { eventsByFile ->
+            val filesByModule = fileEventsByModules(eventsByFile, openProjects)
+            batches(filesByModule).forEach { getService(BackendService::class.java).updateFileSystem(it, false) }
         }
     }
 
-    private fun fileEventsByModules(
-        events: List<VFileEvent>,
-        openProjects: List<Project>,
-        eventTypeConverter: (VFileEvent) -> ModuleFileEvent.Type?,
-    ): Map<Module, List<VirtualFileEvent>> {
-        val map: MutableMap<Module, List<VirtualFileEvent>> = mutableMapOf()
-        for (event in events) {
+    /**
+     * A deletion is never merged with a creation or a modification of the same file, as a moved file keeps the same [VirtualFile]: such
+     * events start a new segment that is forwarded after the previous one.
+     */
+    private fun coalesce(pending: PendingEvents, segments: MutableList<LinkedHashMap<VirtualFile, CoalescedEvent>>) {
+        for (event in pending.events) {
             // call event.file only once as it can be hurting performance
             val file = event.file ?: continue
             if (ProjectCoreUtil.isProjectOrWorkspaceFile(file)) continue
-            val fileModule = findModule(file, openProjects) ?: continue
-            if (!FileUtils.Companion.isFileValidForSonarLintWithExtensiveChecks(file, fileModule.project)) continue
+            val type = pending.eventTypeConverter(event) ?: continue
             val fileInvolved = if (event is VFileCopyEvent) event.findCreatedFile() else file
             fileInvolved ?: continue
-            val type = eventTypeConverter(event) ?: continue
-            val moduleEvents = map[fileModule] ?: emptyList()
-            map[fileModule] = moduleEvents + allEventsFor(fileInvolved, fileModule, type)
+            var eventsByFile = segments.last()
+            val previous = eventsByFile[fileInvolved]
+            if (previous != null && (previous.type == ModuleFileEvent.Type.DELETED) != (type == ModuleFileEvent.Type.DELETED)) {
+                eventsByFile = LinkedHashMap()
+                segments.add(eventsByFile)
+            }
+            eventsByFile[fileInvolved] = CoalescedEvent(file, merge(eventsByFile[fileInvolved]?.type, type))
+        }
+    }
+
+    private fun fileEventsByModules(
+        eventsByFile: Map<VirtualFile, CoalescedEvent>,
+        openProjects: List<Project>,
+    ): Map<Module, List<VirtualFileEvent>> {
+        val modulesByFile = findModules(eventsByFile.values.map { it.moduleFile }, openProjects)
+        val map = LinkedHashMap<Module, MutableList<VirtualFileEvent>>()
+        for ((fileInvolved, event) in eventsByFile) {
+            val fileModule = modulesByFile[event.moduleFile] ?: continue
+            if (!FileUtils.Companion.isFileValidForSonarLintWithExtensiveChecks(event.moduleFile, fileModule.project)) continue
+            val moduleEvents = map.getOrPut(fileModule) { ArrayList() }
+            visitAndAddAllChildren(fileInvolved, fileModule.project).mapTo(moduleEvents) { VirtualFileEvent(event.type, it) }
         }
         return map
     }
 
-    private fun allEventsFor(
-        file: VirtualFile,
-        fileModule: Module,
-        type: ModuleFileEvent.Type,
-    ): List<VirtualFileEvent> {
-        return visitAndAddAllChildren(file, fileModule.project).mapNotNull { VirtualFileEvent(type, it) }
+    private fun findModules(files: Collection<VirtualFile>, openProjects: List<Project>): Map<VirtualFile, Module> {
+        val modulesByFile = HashMap<VirtualFile, Module>()
+        var remainingFiles = files.distinct()
+        for (project in openProjects) {
+            if (remainingFiles.isEmpty()) break
+            val found = HashMap<VirtualFile, Module>()
+            for (chunk in remainingFiles.chunked(MAX_BATCH_SIZE)) {
+                val foundInChunk = computeReadActionSafely(project) {
+                    if (!project.isOpen) return@computeReadActionSafely emptyMap<VirtualFile, Module>()
+                    val fileIndex = ProjectFileIndex.getInstance(project)
+                    chunk.filter { it.isValid }.mapNotNull { file -> fileIndex.getModuleForFile(file, false)?.let { file to it } }.toMap()
+                } ?: break
+                found.putAll(foundInChunk)
+            }
+            modulesByFile.putAll(found)
+            remainingFiles = remainingFiles.filter { it !in found }
+        }
+        return modulesByFile
     }
 
-    private fun findModule(file: VirtualFile?, openProjects: List<Project>): Module? {
-        file ?: return null
-        return openProjects.asSequence()
-            .filter { !it.isDisposed }
-            .map { findModuleForFile(file, it) }
-            .find { it != null }
+    private fun batches(filesByModule: Map<Module, List<VirtualFileEvent>>): List<Map<Module, List<VirtualFileEvent>>> {
+        val batches = mutableListOf<Map<Module, List<VirtualFileEvent>>>()
+        var currentBatch = LinkedHashMap<Module, List<VirtualFileEvent>>()
+        var currentBatchSize = 0
+        for ((module, events) in filesByModule) {
+            for (chunk in events.chunked(MAX_BATCH_SIZE)) {
+                if (currentBatchSize + chunk.size > MAX_BATCH_SIZE) {
+                    batches.add(currentBatch)
+                    currentBatch = LinkedHashMap()
+                    currentBatchSize = 0
+                }
+                currentBatch.merge(module, chunk) { previous, added -> previous + added }
+                currentBatchSize += chunk.size
+            }
+        }
+        if (currentBatch.isNotEmpty()) {
+            batches.add(currentBatch)
+        }
+        return batches
     }
 
     override fun dispose() {
         executorService.shutdownNow()
     }
+
+    private class PendingEvents(val events: List<VFileEvent>, val eventTypeConverter: (VFileEvent) -> ModuleFileEvent.Type?)
+
+    /**
+     * @param moduleFile the file used to find the module, which differs from the file involved for copies
+     */
+    private data class CoalescedEvent(val moduleFile: VirtualFile, val type: ModuleFileEvent.Type)
+
+    companion object {
+        const val MAX_BATCH_SIZE = 1000
+
+        /**
+         * A file created and modified in any order is still a new file for the backend.
+         */
+        fun merge(previous: ModuleFileEvent.Type?, next: ModuleFileEvent.Type): ModuleFileEvent.Type {
+            return if (previous == ModuleFileEvent.Type.CREATED) previous else next
+        }
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.fs
+
+import java.net.URI
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import org.sonarlint.intellij.util.ContentHash
+
+/**
+ * Remembers the hash of the content last sent to the backend for each file, so that a modified file whose content is the same as what the
+ * backend already has (e.g. after an undo, or when the same change is notified twice) is not sent again.
+ * The backend only accepts full contents, so the content is sent as a whole as soon as it differs.
+ */
+class SyncedFileContents {
+    private val contentHashByUri = ConcurrentHashMap<URI, Long>()
+    private val sentFilesCount = AtomicLong()
+    private val skippedFilesCount = AtomicLong()
+    private val sentCharsCount = AtomicLong()
+
+    /**
+     * Returns the hash of the content to send, or null if this content was the last one sent for this file.
+     * The hash is remembered as soon as the content is about to be sent, so that a later change is compared to the content in flight
+     * and not to an older one. Use [forgetFailed] if sending it fails.
+     */
+    fun hashToSend(uri: URI, content: String): Long? {
+        val hash = ContentHash.of(content)
+        if (contentHashByUri.put(uri, hash) == hash) {
+            skippedFilesCount.incrementAndGet()
+            return null
+        }
+        countSent(content)
+        return hash
+    }
+
+    fun recordSent(uri: URI, contentHash: Long, content: String) {
+        contentHashByUri[uri] = contentHash
+        countSent(content)
+    }
+
+    /**
+     * Sending the content with the given hash failed. It is only forgotten if no other content has been sent for this file since.
+     */
+    fun forgetFailed(uri: URI, contentHash: Long) {
+        contentHashByUri.remove(uri, contentHash)
+    }
+
+    private fun countSent(content: String) {
+        sentFilesCount.incrementAndGet()
+        sentCharsCount.addAndGet(content.length.toLong())
+    }
+
+    /**
+     * The backend reads the file from the disk or does not know it anymore.
+     */
+    fun forget(uri: URI) {
+        contentHashByUri.remove(uri)
+    }
+
+    /**
+     * A new backend does not know any content.
+     */
+    fun clear() {
+        contentHashByUri.clear()
+    }
+
+    fun summary() = "${sentFilesCount.get()} files sent with content (${sentCharsCount.get()} chars), ${skippedFilesCount.get()} unchanged files skipped"
+}
@@ -39,11 +39,14 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.jrt.JrtFileSystem;
 import com.intellij.pom.java.LanguageLevel;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -53,6 +56,7 @@ import org.sonarlint.intellij.common.analysis.AnalysisConfigurator;
 import org.sonarlint.intellij.common.ui.SonarLintConsole;
 
 import static org.sonarlint.intellij.common.ui.ReadActionUtils.computeReadActionSafely;
+import static org.sonarlint.intellij.common.util.SonarLintUtils.getService;
 import static org.sonarlint.intellij.common.util.SonarLintUtils.isEmpty;
 
 public class JavaAnalysisConfigurator implements AnalysisConfigurator {
@@ -71,22 +75,37 @@ public class JavaAnalysisConfigurator implements AnalysisConfigurator {
   @Override
   public AnalysisConfiguration configure(@NotNull Module ijModule, Collection<VirtualFile> filesToAnalyze) {
     var config = new AnalysisConfiguration();
+    var properties = config.extraProperties;
+    var moduleClasspath = getService(ijModule.getProject(), JavaClasspathCache.class)
+      .getClasspath(ijModule, () -> computeClasspath(ijModule));
+    setClasspathProperties(moduleClasspath, properties);
+    configureJavaSourceTarget(ijModule, properties);
+    return config;
+  }
+
+  private static JavaModuleClasspath computeClasspath(Module ijModule) {
     var moduleClasspath = new JavaModuleClasspath();
     moduleClasspath.dependentModules().add(ijModule);
     collectModuleClasspath(moduleClasspath, ijModule, true, false);
-    var properties = config.extraProperties;
-    setMultiValuePropertyIfNonEmpty(properties, JAVA_LIBRARIES_PROPERTY, moduleClasspath.libraries());
-    setMultiValuePropertyIfNonEmpty(properties, JAVA_TEST_LIBRARIES_PROPERTY, moduleClasspath.testLibraries());
-    setMultiValuePropertyIfNonEmpty(properties, JAVA_BINARIES_PROPERTY, moduleClasspath.binaries());
-    setMultiValuePropertyIfNonEmpty(properties, JAVA_TEST_BINARIES_PROPERTY, moduleClasspath.testBinaries());
-    configureJavaSourceTarget(ijModule, properties);
+    return moduleClasspath;
+  }
+
+  private static void setClasspathProperties(JavaModuleClasspath moduleClasspath, Map<String, String> properties) {
+    // Compiler output directories can be created by a build outside the IDE (see SLI-107), so they are checked on every analysis
+    var missingCompilerOutputs = moduleClasspath.compilerOutputs().stream()
+      .filter(outputPath -> !Files.isDirectory(Path.of(outputPath)))
+      .collect(Collectors.toSet());
+    setMultiValuePropertyIfNonEmpty(properties, JAVA_LIBRARIES_PROPERTY, moduleClasspath.libraries(), missingCompilerOutputs);
+    setMultiValuePropertyIfNonEmpty(properties, JAVA_TEST_LIBRARIES_PROPERTY, moduleClasspath.testLibraries(), missingCompilerOutputs);
+    setMultiValuePropertyIfNonEmpty(properties, JAVA_BINARIES_PROPERTY, moduleClasspath.binaries(), missingCompilerOutputs);
+    setMultiValuePropertyIfNonEmpty(properties, JAVA_TEST_BINARIES_PROPERTY, moduleClasspath.testBinaries(), missingCompilerOutputs);
     if (moduleClasspath.getJdkHome() != null) {
       properties.put(JAVA_JDK_HOME_PROPERTY, moduleClasspath.getJdkHome());
     }
-    return config;
   }
 
-  private static void setMultiValuePropertyIfNonEmpty(Map<String, String> properties, String propKey, Set<String> values) {
+  private static void setMultiValuePropertyIfNonEmpty(Map<String, String> properties, String propKey, Set<String> allValues, Set<String> excludedValues) {
+    var values = allValues.stream().filter(value -> !excludedValues.contains(value)).toList();
     if (!values.isEmpty()) {
       var joinedLibs = StringUtils.join(values.stream().map(JavaAnalysisConfigurator::csvEscape).toList(), SEPARATOR);
       properties.put(propKey, joinedLibs);
@@ -171,9 +190,9 @@ public class JavaAnalysisConfigurator implements AnalysisConfigurator {
   }
 
   private static void processCompilerOutput(JavaModuleClasspath moduleClasspath, @NotNull Module module, boolean topLevel, boolean testModule) {
-    var output = getCompilerOutputPath(module);
-    if (output != null) {
-      final var outputPath = VfsUtilCore.virtualToIoFile(output).getAbsolutePath();
+    var outputPath = getCompilerOutputPath(module);
+    if (outputPath != null) {
+      moduleClasspath.compilerOutputs().add(outputPath);
       if (topLevel) {
         moduleClasspath.binaries().add(outputPath);
         // Production .class should be on tests classpath
@@ -187,9 +206,9 @@ public class JavaAnalysisConfigurator implements AnalysisConfigurator {
         }
       }
     }
-    var testOutput = getCompilerTestOutputPath(module);
-    if (testOutput != null) {
-      final var testOutputPath = VfsUtilCore.virtualToIoFile(testOutput).getAbsolutePath();
+    var testOutputPath = getCompilerTestOutputPath(module);
+    if (testOutputPath != null) {
+      moduleClasspath.compilerOutputs().add(testOutputPath);
       if (topLevel) {
         moduleClasspath.testBinaries().add(testOutputPath);
       }
@@ -242,41 +261,23 @@ public class JavaAnalysisConfigurator implements AnalysisConfigurator {
   }
 
   @CheckForNull
-  private static VirtualFile getCompilerOutputPath(final Module module) {
+  private static String getCompilerOutputPath(final Module module) {
     final var compilerModuleExtension = CompilerModuleExtension.getInstance(module);
-    if (compilerModuleExtension != null) {
-      var file = compilerModuleExtension.getCompilerOutputPath();
-      // see SLI-107
-      if (exists(file)) {
-        return file;
-      }
-    }
-    return null;
+    return compilerModuleExtension == null ? null : toIoPath(compilerModuleExtension.getCompilerOutputUrl());
   }
 
   @CheckForNull
-  private static VirtualFile getCompilerTestOutputPath(final Module module) {
+  private static String getCompilerTestOutputPath(final Module module) {
     final var compilerModuleExtension = CompilerModuleExtension.getInstance(module);
-    if (compilerModuleExtension != null) {
-      var file = compilerModuleExtension.getCompilerOutputPathForTests();
-      if (exists(file)) {
-        return file;
-      }
-    }
-    return null;
+    return compilerModuleExtension == null ? null : toIoPath(compilerModuleExtension.getCompilerOutputUrlForTests());
   }
 
-  /**
-   * Checks if the file exists in the physical FS. It doesn't rely on the automatic refresh of the virtual FS, because
-   * sometimes it's status is out of date, and the file doesn't actually exist in the FS.
-   * It will trigger a refresh of the virtual file, which means to refresh it's status and attributes, and calling all listeners.
-   */
-  private static boolean exists(@Nullable VirtualFile file) {
-    if (file == null) {
-      return false;
+  @CheckForNull
+  private static String toIoPath(@Nullable String url) {
+    if (url == null) {
+      return null;
     }
-
-    return file.exists();
+    return new File(VfsUtilCore.urlToPath(url)).getAbsolutePath();
   }
 
 }
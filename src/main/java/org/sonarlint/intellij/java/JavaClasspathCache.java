@@ -0,0 +1,79 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.java;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the classpath computed for each module, as walking the order entries of a large project is expensive and the classpath rarely
+ * changes between two analyses.
+ * The cache is cleared when the roots of a module change (this also covers libraries and SDKs). The cached classpath includes the compiler
+ * output directories even if they do not exist yet, callers check them on each analysis.
+ */
+@Service(Service.Level.PROJECT)
+public final class JavaClasspathCache implements Disposable {
+
+  private final Map<Module, JavaModuleClasspath> classpathByModule = new ConcurrentHashMap<>();
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  public JavaClasspathCache(Project project) {
+    project.getMessageBus().connect(this).subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+      @Override
+      public void rootsChanged(ModuleRootEvent event) {
+        invalidate();
+      }
+    });
+  }
+
+  public JavaModuleClasspath getClasspath(Module module, Supplier<JavaModuleClasspath> computeClasspath) {
+    var cached = classpathByModule.get(module);
+    if (cached != null) {
+      return cached;
+    }
+    var countBeforeComputation = modificationCount.get();
+    var classpath = computeClasspath.get();
+    synchronized (this) {
+      // do not cache a classpath computed while the roots were changing
+      if (countBeforeComputation == modificationCount.get() && !module.isDisposed()) {
+        classpathByModule.put(module, classpath);
+      }
+    }
+    return classpath;
+  }
+
+  public synchronized void invalidate() {
+    modificationCount.incrementAndGet();
+    classpathByModule.clear();
+  }
+
+  @Override
+  public void dispose() {
+    classpathByModule.clear();
+  }
+}
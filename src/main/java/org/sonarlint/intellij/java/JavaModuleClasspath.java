@@ -33,6 +33,7 @@ public class JavaModuleClasspath {
   private final Set<String> testLibraries = new LinkedHashSet<>();
   private final Set<String> binaries = new LinkedHashSet<>();
   private final Set<String> testBinaries = new LinkedHashSet<>();
+  private final Set<String> compilerOutputs = new LinkedHashSet<>();
   private String jdkHome;
 
   public Set<Module> dependentModules() {
@@ -59,6 +60,13 @@ public class JavaModuleClasspath {
     return testBinaries;
   }
 
+  /**
+   * The compiler output directories found in the other entries, they might not exist yet.
+   */
+  public Set<String> compilerOutputs() {
+    return compilerOutputs;
+  }
+
   public void setJdkHome(@Nullable String jdkHome) {
     this.jdkHome = jdkHome;
   }
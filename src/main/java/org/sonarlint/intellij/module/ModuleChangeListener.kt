@@ -26,6 +26,7 @@ import com.intellij.util.Function
 import org.sonarlint.intellij.common.util.SonarLintUtils.getService
 import org.sonarlint.intellij.config.Settings.getSettingsFor
 import org.sonarlint.intellij.core.BackendService
+import org.sonarlint.intellij.core.ConfigurationScopeIndex
 import org.sonarlint.intellij.util.runOnPooledThread
 
 class ModuleChangeListener(val project: Project) : ModuleListener {
@@ -49,6 +50,7 @@ class ModuleChangeListener(val project: Project) : ModuleListener {
                 moduleMapping[module.name] = previousModuleName
             }
         }
+        ConfigurationScopeIndex.modulesChanged(project)
     }
 
 }
@@ -19,7 +19,6 @@
  */
 package org.sonarlint.intellij.trigger;
 
-import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerListener;
@@ -40,14 +39,12 @@ import static org.sonarlint.intellij.util.ThreadUtilsKt.runOnPooledThread;
 
 @ThreadSafe
 @Service(Service.Level.PROJECT)
-public final class EditorOpenTrigger implements FileEditorManagerListener, Disposable {
+public final class EditorOpenTrigger implements FileEditorManagerListener {
 
-  private final EventScheduler scheduler;
   private final Project myProject;
 
   public EditorOpenTrigger(Project project) {
     myProject = project;
-    scheduler = new EventScheduler(myProject, "open", TriggerType.EDITOR_OPEN, 1000, true);
   }
 
   public void onProjectOpened() {
@@ -66,9 +63,4 @@ public final class EditorOpenTrigger implements FileEditorManagerListener, Dispo
     });
   }
 
-  @Override
-  public void dispose() {
-    scheduler.stopScheduler();
-  }
-
 }
@@ -21,38 +21,58 @@ package org.sonarlint.intellij.trigger
 
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
-import java.util.concurrent.Executors
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.ScheduledFuture
 import java.util.concurrent.TimeUnit
+import kotlin.math.max
+import org.sonarlint.intellij.analysis.Analysis
 import org.sonarlint.intellij.analysis.AnalysisSubmitter
+import org.sonarlint.intellij.analysis.Cancelable
+import org.sonarlint.intellij.analysis.RunningAnalysesTracker
+import org.sonarlint.intellij.common.ui.SonarLintConsole
 import org.sonarlint.intellij.common.util.SonarLintUtils.getService
 import org.sonarlint.intellij.config.Settings
 
-class EventScheduler(
+/**
+ * Coalesces auto-trigger events and submits the queued files once the debounce delay expires.
+ * All instances share a single scheduling thread. The debounce adapts to the typing rate and to the duration of the last
+ * analysis, and a file is never part of more than one in-flight analysis: files still being analyzed are deferred until
+ * the previous analysis finishes. Files waiting for too long on an analysis submitted by this scheduler are submitted again, the new
+ * analysis takes them over while the previous one keeps going for its other files, see [RunningAnalysesTracker].
+ */
+class EventScheduler internal constructor(
     private val project: Project,
     private val schedulerName: String,
     private val triggerType: TriggerType,
     private val timer: Long,
     // True -> Schedule tasks at specific intervals
     // False -> Cancel the scheduled task and reschedule a new one
-    private val atInterval: Boolean
+    private val atInterval: Boolean,
+    private val scheduler: ScheduledExecutorService,
+    private val clock: () -> Long,
 ) {
 
-    private val filesToAnalyze = mutableSetOf<VirtualFile>()
-    private val scheduler = Executors.newScheduledThreadPool(1) { r -> Thread(r, "sonarlint-auto-trigger-$schedulerName-${project.name}") }
+    constructor(project: Project, schedulerName: String, triggerType: TriggerType, timer: Long, atInterval: Boolean) :
+        this(project, schedulerName, triggerType, timer, atInterval, executor, System::currentTimeMillis)
+
+    // File -> time at which it was first queued since the last submission, guarded by this
+    private val filesToAnalyze = LinkedHashMap<VirtualFile, Long>()
+    private val inFlightAnalyses = ConcurrentHashMap<VirtualFile, Cancelable>()
+    private val maxDelay = timer * MAX_DELAY_FACTOR
     private var scheduledTask: ScheduledFuture<*>? = null
+    private var lastNotification = 0L
+    private var typingIntervalEma = 0.0
+    @Volatile
+    private var lastAnalysisDuration = 0L
 
+    @Synchronized
     fun stopScheduler() {
-        scheduledTask?.cancel(true)
-        filesToAnalyze.clear()
-        scheduler.shutdownNow()
-    }
-
-    private fun trigger() {
-        if (filesToAnalyze.isNotEmpty()) {
-            getService(project, AnalysisSubmitter::class.java).autoAnalyzeFiles(filesToAnalyze.toList(), triggerType)
-        }
+        scheduledTask?.cancel(false)
+        scheduledTask = null
         filesToAnalyze.clear()
+        inFlightAnalyses.clear()
     }
 
     fun notify(file: VirtualFile) {
@@ -60,23 +80,99 @@ class EventScheduler(
             return
         }
 
-        filesToAnalyze.add(file)
+        val now = clock()
+        synchronized(this) {
+            filesToAnalyze.putIfAbsent(file, now)
+            recordTypingInterval(now)
+            if (atInterval) {
+                // Schedule new task only if no task currently scheduled
+                if (!hasPendingTrigger()) {
+                    schedule(debounceDelay())
+                }
+            } else {
+                // Cancelling the scheduled task and postponing it later
+                scheduledTask?.cancel(false)
+                schedule(debounceDelay())
+            }
+        }
+    }
+
+    private fun recordTypingInterval(now: Long) {
+        val interval = now - lastNotification
+        lastNotification = now
+        // Pauses longer than the maximum delay end a burst, they do not tell anything about the typing rate
+        typingIntervalEma = if (interval > maxDelay) 0.0 else EMA_WEIGHT * interval + (1 - EMA_WEIGHT) * typingIntervalEma
+    }
+
+    internal fun debounceDelay(): Long {
+        val typingDelay = (typingIntervalEma * TYPING_FACTOR).toLong()
+        val analysisDelay = lastAnalysisDuration / 2
+        return max(timer, max(typingDelay, analysisDelay)).coerceAtMost(maxDelay)
+    }
+
+    // The running task is not done yet while it triggers, but it will not look at the files queued in the meantime
+    private fun hasPendingTrigger() = scheduledTask?.let { !it.isDone && it.getDelay(TimeUnit.MILLISECONDS) > 0 } ?: false
 
-        // Remove the previously finished task
-        if (scheduledTask?.isDone == true) {
-            scheduledTask = null
+    private fun schedule(delay: Long) {
+        scheduledTask = scheduler.schedule({ trigger() }, delay, TimeUnit.MILLISECONDS)
+    }
+
+    private fun trigger() {
+        if (project.isDisposed) {
+            stopScheduler()
+            return
+        }
+        releaseFinishedAnalyses()
+        val runningAnalyses = getService(project, RunningAnalysesTracker::class.java)
+        val now = clock()
+        val readyFiles = mutableListOf<VirtualFile>()
+        var deferredFiles = false
+        val queuedFiles = synchronized(this) { filesToAnalyze.toList() }
+        for ((file, queuedAt) in queuedFiles) {
+            val inFlight = inFlightAnalyses[file]
+            val tooLong = inFlight != null && now - queuedAt >= maxDelay
+            if (tooLong) {
+                // The running analysis is about outdated content, do not make the user wait for it any longer
+                getService(project, SonarLintConsole::class.java).debug("[$schedulerName] Taking over ${file.name} from an outdated analysis")
+            }
+            if (tooLong || (inFlight == null && !runningAnalyses.isAnalyzing(file))) {
+                readyFiles.add(file)
+            } else {
+                deferredFiles = true
+            }
+        }
+        synchronized(this) { readyFiles.forEach { filesToAnalyze.remove(it) } }
+        if (readyFiles.isNotEmpty()) {
+            getService(project, AnalysisSubmitter::class.java).autoAnalyzeFiles(readyFiles, triggerType)?.let { analysis ->
+                readyFiles.forEach { inFlightAnalyses[it] = analysis }
+            }
+        }
+        if (deferredFiles) {
+            synchronized(this) {
+                if (!hasPendingTrigger()) {
+                    schedule(timer)
+                }
+            }
         }
+    }
 
-        if (atInterval) {
-            scheduledTask ?: let {
-                // Schedule new task only if no task currently scheduled
-                scheduledTask = scheduler.schedule({ trigger() }, timer, TimeUnit.MILLISECONDS)
+    private fun releaseFinishedAnalyses() {
+        inFlightAnalyses.values.removeIf { analysis ->
+            val analysisRun = analysis as? Analysis
+            val finished = analysisRun == null || analysisRun.isFinished
+            if (finished && analysisRun != null) {
+                lastAnalysisDuration = analysisRun.durationMillis
             }
-        } else {
-            // Cancelling the scheduled task and postponing it later
-            scheduledTask?.cancel(false)
-            scheduledTask = scheduler.schedule({ trigger() }, timer, TimeUnit.MILLISECONDS)
+            finished
         }
     }
 
+    companion object {
+        private const val MAX_DELAY_FACTOR = 2
+        private const val TYPING_FACTOR = 1.5
+        private const val EMA_WEIGHT = 0.3
+
+        private val executor = AppExecutorUtil.createBoundedScheduledExecutorService("SonarLint auto-trigger", 1)
+    }
+
 }
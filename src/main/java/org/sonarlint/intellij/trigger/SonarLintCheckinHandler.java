@@ -23,6 +23,7 @@ import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.options.UnnamedConfigurable;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbService;
@@ -41,9 +42,11 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.swing.JCheckBox;
@@ -53,6 +56,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.sonarlint.intellij.actions.SonarLintToolWindow;
 import org.sonarlint.intellij.analysis.AnalysisResult;
+import org.sonarlint.intellij.analysis.AnalysisState;
 import org.sonarlint.intellij.analysis.AnalysisSubmitter;
 import org.sonarlint.intellij.analysis.RunningAnalysesTracker;
 import org.sonarlint.intellij.cayc.CleanAsYouCodeService;
@@ -103,21 +107,21 @@ public class SonarLintCheckinHandler extends CheckinHandler {
         return ReturnResult.CANCEL;
       }
 
+      var waitCancelled = new AtomicBoolean(false);
       new Task.Modal(project, "Waiting for SonarQube for IDE Analysis", true) {
+        @Override
         public void run(@NotNull final ProgressIndicator progressIndicator) {
-          new Timer().scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-              var analysis = analysisIdsByCallback.getRight().stream().map(id -> getService(project, RunningAnalysesTracker.class).getById(id)).filter(Objects::nonNull).toList();
-              if (analysis.isEmpty()) {
-                cancel();
-              }
-            }
-          }, 0, 100);
+          // findings are converted and published asynchronously, the results are only complete once every final publication is done
+          analysisIdsByCallback.getRight().forEach(id -> waitForFinalPublication(id, progressIndicator));
+        }
+
+        @Override
+        public void onCancel() {
+          waitCancelled.set(true);
         }
       }.queue();
 
-      if (!analysisIdsByCallback.getLeft().analysisSucceeded()) {
+      if (waitCancelled.get() || !analysisIdsByCallback.getLeft().analysisSucceeded()) {
         return ReturnResult.CANCEL;
       }
       var results = analysisIdsByCallback.getLeft().getResults();
@@ -128,6 +132,26 @@ public class SonarLintCheckinHandler extends CheckinHandler {
     }
   }
 
+  private void waitForFinalPublication(UUID analysisId, ProgressIndicator progressIndicator) {
+    var tracker = getService(project, RunningAnalysesTracker.class);
+    // a cancelled or failed analysis is no longer tracked, and will never publish its final result
+    AnalysisState analysis;
+    while ((analysis = tracker.getById(analysisId)) != null) {
+      progressIndicator.checkCanceled();
+      try {
+        analysis.finalPublication().get(100, TimeUnit.MILLISECONDS);
+        return;
+      } catch (TimeoutException e) {
+        // still running, check again
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessCanceledException(e);
+      } catch (ExecutionException e) {
+        return;
+      }
+    }
+  }
+
   private void handleError(Exception e, int numFiles) {
     var msg = "SonarQube for IDE - Error analysing " + numFiles + " changed file(s).";
     if (e.getMessage() != null) {
@@ -43,8 +43,11 @@ enum class TriggerType(private val displayName: String, private val shouldUpdate
         val nonAnalysisSnapshot =
             listOf(EDITOR_OPEN, CURRENT_FILE_ACTION, COMPILATION, EDITOR_CHANGE, CONFIG_CHANGE, BINDING_UPDATE, SERVER_SENT_EVENT, SELECTION_CHANGED)
 
-        // Events that should reset the cache of the focused files already analyzed
-        val shouldResetDirtyFiles = listOf(COMPILATION, CONFIG_CHANGE, BINDING_UPDATE, SERVER_SENT_EVENT)
+        // Events that should invalidate the cached results of the files already analyzed
+        val shouldInvalidateAnalysisResultCache = listOf(COMPILATION, CONFIG_CHANGE, BINDING_UPDATE, SERVER_SENT_EVENT)
+
+        // Events that do not change the files, their cached results can be shown instead of analyzing them again
+        val canUseAnalysisResultCache = listOf(EDITOR_OPEN, SELECTION_CHANGED)
     }
 
     fun getName() = displayName
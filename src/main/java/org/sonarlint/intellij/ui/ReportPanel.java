@@ -144,26 +144,25 @@ public class ReportPanel extends SimpleToolWindowPanel implements Disposable {
         .filter(e -> !e.getValue().isEmpty())
         .collect(Collectors.toMap(Map.Entry::getKey, e -> (Collection<LiveIssue>) e.getValue()));
 
+      treeBuilder.updateModelInBackground(newIssues, this::expandTree);
+      oldTreeBuilder.updateModelInBackground(oldIssues);
       runOnUiThread(project, () -> {
-        treeBuilder.updateModel(newIssues);
-        oldTreeBuilder.updateModel(oldIssues);
         securityHotspotTreeBuilder.updateModel(newHotspots);
         oldSecurityHotspotTreeBuilder.updateModel(oldHotspots);
       });
     } else {
+      treeBuilder.updateModelInBackground(findings.getIssuesPerFile(), this::expandTree);
+      oldTreeBuilder.updateModelInBackground(Collections.emptyMap());
       runOnUiThread(project, () -> {
         securityHotspotTreeBuilder.updateModel(findings.getSecurityHotspotsPerFile());
         oldSecurityHotspotTreeBuilder.updateModel(Collections.emptyMap());
-        treeBuilder.updateModel(findings.getIssuesPerFile());
-        oldTreeBuilder.updateModel(Collections.emptyMap());
       });
     }
 
     disableEmptyDisplay(true);
 
+    // the issue trees are expanded once their background update completes
     setTrees(currentFocus);
-
-    expandTree();
   }
 
   public void remove(LiveIssue issue) {
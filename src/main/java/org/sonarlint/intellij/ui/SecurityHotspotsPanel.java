@@ -403,10 +403,7 @@ public class SecurityHotspotsPanel extends SimpleToolWindowPanel implements Disp
   }
 
   public Collection<LiveSecurityHotspotNode> getDisplayedNodesForFile(VirtualFile file) {
-    return securityHotspotTreeBuilder.getFilteredNodes()
-      .stream()
-      .filter(node -> node.getHotspot().file().equals(file))
-      .toList();
+    return securityHotspotTreeBuilder.getFilteredNodesForFile(file);
   }
 
   @Override
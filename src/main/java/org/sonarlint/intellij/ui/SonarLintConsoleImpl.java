@@ -25,29 +25,54 @@ import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.serviceContainer.NonInjectable;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.jetbrains.annotations.Nullable;
 import org.sonarlint.intellij.common.ui.SonarLintConsole;
+import org.sonarlint.intellij.messages.ProjectConfigurationListener;
 
 import static org.sonarlint.intellij.config.Settings.getSettingsFor;
 
+/**
+ * Lines are queued and appended to the console view in batches, at most every {@link #FLUSH_DELAY_MS} ms, so that logging never waits for
+ * the console view. At most {@link #MAX_PENDING_LOGS} lines are kept while waiting for a flush or for the console view to be created, the
+ * oldest ones are dropped to make room for new ones and only counted.
+ */
 public class SonarLintConsoleImpl implements SonarLintConsole, Disposable {
 
-  private ConsoleView consoleView;
+  static final int MAX_PENDING_LOGS = 10_000;
+  private static final long FLUSH_DELAY_MS = 100;
+
+  private volatile ConsoleView consoleView;
   private final Project myProject;
-  private final Queue<Log> previousLogs = new ConcurrentLinkedQueue<>();
+  private final Queue<Log> pendingLogs = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingLogsCount = new AtomicInteger();
+  private final AtomicInteger droppedLogsCount = new AtomicInteger();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  // read from the settings on first use, then updated when the settings or the verbose toggle change
+  @Nullable
+  private volatile Boolean verboseEnabled;
 
   public SonarLintConsoleImpl(Project project) {
     this.myProject = project;
+    listenToSettingsChanges();
   }
 
   @NonInjectable
   SonarLintConsoleImpl(Project project, ConsoleView consoleView) {
     this.consoleView = consoleView;
     this.myProject = project;
+    listenToSettingsChanges();
+  }
+
+  private void listenToSettingsChanges() {
+    myProject.getMessageBus().connect(this).subscribe(ProjectConfigurationListener.TOPIC, settings -> verboseEnabled = settings.isVerboseEnabled());
   }
 
   @Override
@@ -57,9 +82,24 @@ public class SonarLintConsoleImpl implements SonarLintConsole, Disposable {
     }
   }
 
+  /**
+   * The settings are not read on every call, as this is called for every debug line.
+   */
   @Override
   public boolean debugEnabled() {
-    return getSettingsFor(myProject).isVerboseEnabled();
+    var enabled = verboseEnabled;
+    if (enabled == null) {
+      enabled = getSettingsFor(myProject).isVerboseEnabled();
+      verboseEnabled = enabled;
+    }
+    return enabled;
+  }
+
+  /**
+   * Called by the verbose toggle of the tool window, which only changes this setting and does not notify the other settings listeners.
+   */
+  public void setVerboseEnabled(boolean enabled) {
+    verboseEnabled = enabled;
   }
 
   @Override
@@ -73,12 +113,51 @@ public class SonarLintConsoleImpl implements SonarLintConsole, Disposable {
   }
 
   private void print(String msg, ConsoleViewContentType outputType) {
-    if (!myProject.isDisposed()) {
-      if (consoleView == null) {
-        previousLogs.offer(new Log(msg + "\n", outputType));
-      } else {
-        consoleView.print(msg + "\n", outputType);
+    if (myProject.isDisposed()) {
+      return;
+    }
+    pendingLogs.offer(new Log(msg + "\n", outputType));
+    if (pendingLogsCount.incrementAndGet() > MAX_PENDING_LOGS && pendingLogs.poll() != null) {
+      pendingLogsCount.decrementAndGet();
+      droppedLogsCount.incrementAndGet();
+    }
+    scheduleFlush();
+  }
+
+  private void scheduleFlush() {
+    if (consoleView != null && flushScheduled.compareAndSet(false, true)) {
+      AppExecutorUtil.getAppScheduledExecutorService().schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Appends the pending lines to the console view, consecutive lines of the same type being printed at once. The dropped lines being older
+   * than the pending ones, their count is printed first.
+   */
+  synchronized void flush() {
+    flushScheduled.set(false);
+    var view = consoleView;
+    if (view == null || myProject.isDisposed()) {
+      return;
+    }
+    var dropped = droppedLogsCount.getAndSet(0);
+    if (dropped > 0) {
+      view.print(dropped + " log lines were dropped as the console could not keep up\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+    }
+    var text = new StringBuilder();
+    ConsoleViewContentType textType = null;
+    Log log;
+    while ((log = pendingLogs.poll()) != null) {
+      pendingLogsCount.decrementAndGet();
+      if (textType != null && textType != log.outputType) {
+        view.print(text.toString(), textType);
+        text.setLength(0);
       }
+      text.append(log.text);
+      textType = log.outputType;
+    }
+    if (textType != null) {
+      view.print(text.toString(), textType);
     }
   }
 
@@ -93,7 +172,11 @@ public class SonarLintConsoleImpl implements SonarLintConsole, Disposable {
   }
 
   @Override
-  public void clear() {
+  public synchronized void clear() {
+    while (pendingLogs.poll() != null) {
+      pendingLogsCount.decrementAndGet();
+    }
+    droppedLogsCount.set(0);
     if (consoleView != null) {
       consoleView.clear();
     }
@@ -101,12 +184,9 @@ public class SonarLintConsoleImpl implements SonarLintConsole, Disposable {
 
   @Override
   public void setConsoleView(ConsoleView consoleView) {
-    while (!previousLogs.isEmpty()) {
-      var log = previousLogs.poll();
-      consoleView.print(log.text, log.outputType);
-    }
     this.consoleView = consoleView;
     Disposer.register(this, consoleView);
+    flush();
   }
 
   @Override
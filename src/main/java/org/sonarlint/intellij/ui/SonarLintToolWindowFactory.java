@@ -136,6 +136,7 @@ public class SonarLintToolWindowFactory implements ToolWindowFactory {
         buildTabName(0, SonarLintToolWindowFactory.TAINT_VULNERABILITIES_TAB_TITLE),
         false);
     taintVulnerabilitiesContent.setCloseable(false);
+    taintVulnerabilitiesContent.setDisposer(vulnerabilitiesPanel);
     contentManager.addDataProvider(vulnerabilitiesPanel);
     contentManager.addContent(taintVulnerabilitiesContent);
   }
@@ -21,10 +21,15 @@ package org.sonarlint.intellij.ui.nodes;
 
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.SimpleTextAttributes;
+import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import javax.swing.Icon;
 import javax.swing.tree.TreeNode;
 import org.sonarlint.intellij.finding.Finding;
@@ -35,6 +40,10 @@ import static org.sonarlint.intellij.common.util.SonarLintUtils.pluralize;
 public class FileNode extends AbstractNode {
   private final VirtualFile file;
   private final boolean isSecurityHotspot;
+  // Children that are only materialized when the tree first asks for them, usually when the node gets expanded
+  @Nullable
+  private Supplier<List<? extends AbstractNode>> pendingChildrenFactory;
+  private int pendingChildrenCount;
 
   public FileNode(VirtualFile file, boolean isSecurityHotspot) {
     this.file = file;
@@ -55,11 +64,64 @@ public class FileNode extends AbstractNode {
     return file;
   }
 
+  /**
+   * Replaces the children of this node by nodes created from the given (already sorted) findings, the nodes are only created when first needed.
+   * Must be called on the EDT, and be followed by a structure change event.
+   */
+  public <T> void setLazyChildren(List<T> findings, Function<T, ? extends AbstractNode> nodeFactory) {
+    removeAllChildren();
+    pendingChildrenCount = findings.size();
+    pendingChildrenFactory = () -> findings.stream().<AbstractNode>map(nodeFactory).toList();
+  }
+
+  private void materializeChildren() {
+    var factory = pendingChildrenFactory;
+    if (factory != null) {
+      pendingChildrenFactory = null;
+      factory.get().forEach(super::add);
+    }
+  }
+
   @Override
-  public int getFindingCount() {
+  public int getChildCount() {
+    materializeChildren();
     return super.getChildCount();
   }
 
+  @Override
+  public TreeNode getChildAt(int index) {
+    materializeChildren();
+    return super.getChildAt(index);
+  }
+
+  @Override
+  public int getIndex(TreeNode aChild) {
+    materializeChildren();
+    return super.getIndex(aChild);
+  }
+
+  @Override
+  public Enumeration<TreeNode> children() {
+    materializeChildren();
+    return super.children();
+  }
+
+  @Override
+  public boolean isLeaf() {
+    return pendingChildrenFactory != null ? (pendingChildrenCount == 0) : super.isLeaf();
+  }
+
+  @Override
+  public void removeAllChildren() {
+    pendingChildrenFactory = null;
+    super.removeAllChildren();
+  }
+
+  @Override
+  public int getFindingCount() {
+    return pendingChildrenFactory != null ? pendingChildrenCount : super.getChildCount();
+  }
+
   public Icon getIcon() {
     return file.getFileType().getIcon();
   }
@@ -21,6 +21,7 @@ package org.sonarlint.intellij.ui.nodes;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import org.sonarlint.intellij.ui.tree.TreeCellRenderer;
 import org.sonarlint.intellij.ui.tree.TreeSummary;
 
@@ -37,8 +38,7 @@ public class SummaryNode extends AbstractNode {
       return 0;
     }
 
-    var nodes = children.stream().map(n -> (FileNode) n).toList();
-    var foundIndex = Collections.binarySearch(nodes, newChild, comparator);
+    var foundIndex = Collections.binarySearch(this.<FileNode>childrenView(), newChild, comparator);
     if (foundIndex >= 0) {
       throw new IllegalArgumentException("Child already exists");
     }
@@ -54,8 +54,7 @@ public class SummaryNode extends AbstractNode {
       return 0;
     }
 
-    var nodes = children.stream().map(n -> (LiveSecurityHotspotNode) n).toList();
-    var foundIndex = Collections.binarySearch(nodes, newChild, comparator);
+    var foundIndex = Collections.binarySearch(this.<LiveSecurityHotspotNode>childrenView(), newChild, comparator);
     if (foundIndex >= 0) {
       throw new IllegalArgumentException("Child already exists");
     }
@@ -65,6 +64,22 @@ public class SummaryNode extends AbstractNode {
     return insertIdx;
   }
 
+  /**
+   * Replaces all the children at once. The nodes must already be sorted.
+   */
+  public void setLiveSecurityHotspotNodes(List<LiveSecurityHotspotNode> sortedNodes) {
+    removeAllChildren();
+    sortedNodes.forEach(this::add);
+  }
+
+  /**
+   * A view of the children that does not copy them, all the children being of the given type.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> List<T> childrenView() {
+    return (List<T>) (List<?>) children;
+  }
+
   @Override
   public void render(TreeCellRenderer renderer) {
     renderer.append(treeSummary.getText());
@@ -19,14 +19,42 @@
  */
 package org.sonarlint.intellij.ui.tree
 
-class CompactTree(private val nodesByParent: Map<Any, List<Any>>) {
-    fun getChild(parent: Any, index: Int) = nodesByParent[parent]?.getOrNull(index)
-    fun getChildCount(parent: Any) = nodesByParent[parent]?.size ?: 0
+import java.util.Collections
+import java.util.IdentityHashMap
+
+/**
+ * Immutable tree structure. Children are either listed explicitly in [nodesByParent], or derived from the parent node itself by [childrenOf],
+ * which avoids copying the whole structure when only a few parents change.
+ */
+class CompactTree(private val nodesByParent: Map<Any, List<Any>>, private val childrenOf: (Any) -> List<Any> = { emptyList() }) {
+    // keyed by the list of children, as nodes of different parents can be equal
+    private val indexesByChildren = Collections.synchronizedMap(IdentityHashMap<List<Any>, Map<Any, Int>>())
+
+    fun getChildren(parent: Any) = nodesByParent[parent] ?: childrenOf(parent)
+
+    fun getChild(parent: Any, index: Int) = getChildren(parent).getOrNull(index)
+    fun getChildCount(parent: Any) = getChildren(parent).size
 
     fun getIndexOfChild(parent: Any?, child: Any?): Int {
         if (parent == null || child == null) {
             return -1
         }
-        return nodesByParent[parent]?.indexOf(child) ?: -1
+        val children = getChildren(parent)
+        if (children.size <= LINEAR_SEARCH_MAX_SIZE) {
+            return children.indexOf(child)
+        }
+        return indexesOf(children)[child] ?: -1
+    }
+
+    fun indexesOf(children: List<Any>): Map<Any, Int> {
+        return indexesByChildren.getOrPut(children) {
+            val indexByChild = HashMap<Any, Int>(children.size * 2)
+            children.forEachIndexed { index, child -> indexByChild.putIfAbsent(child, index) }
+            indexByChild
+        }
+    }
+
+    companion object {
+        private const val LINEAR_SEARCH_MAX_SIZE = 8
     }
 }
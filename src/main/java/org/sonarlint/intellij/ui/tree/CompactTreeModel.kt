@@ -31,9 +31,18 @@ class CompactTreeModel(private val rootNode: SummaryNode) : TreeModel {
 
     private var compactTree: CompactTree = CompactTree(mapOf(rootNode to emptyList()))
 
+    /**
+     * Replaces the structure of the tree and notifies the listeners with insertions and removals per parent, so that the expansion state of the
+     * nodes that are kept is preserved. Parents whose list of children is the same instance in both trees are skipped without being compared.
+     */
     fun setCompactTree(compactTree: CompactTree) {
+        val previousTree = this.compactTree
         this.compactTree = compactTree
-        notifyListeners()
+        if (previousTree.getChildCount(rootNode) == 0 || compactTree.getChildCount(rootNode) == 0) {
+            notifyListeners()
+        } else {
+            notifyChanges(previousTree, compactTree, TreePath(rootNode))
+        }
     }
 
     override fun getRoot() = rootNode
@@ -58,6 +67,42 @@ class CompactTreeModel(private val rootNode: SummaryNode) : TreeModel {
         listeners.forEach { it.treeStructureChanged(TreeModelEvent(this, TreePath(root))) }
     }
 
+    private fun notifyChanges(previousTree: CompactTree, currentTree: CompactTree, parentPath: TreePath) {
+        val parent = parentPath.lastPathComponent
+        val previousChildren = previousTree.getChildren(parent)
+        val currentChildren = currentTree.getChildren(parent)
+        if (previousChildren === currentChildren) {
+            return
+        }
+        val previousIndexes = previousTree.indexesOf(previousChildren)
+        val currentIndexes = currentTree.indexesOf(currentChildren)
+        val keptChildren = currentChildren.filter { it in previousIndexes }
+        if (previousChildren.filter { it in currentIndexes } != keptChildren) {
+            // kept nodes were reordered, insertions and removals cannot describe the change
+            listeners.forEach { it.treeStructureChanged(TreeModelEvent(this, parentPath)) }
+            return
+        }
+        val removedIndexes = previousChildren.indices.filter { previousChildren[it] !in currentIndexes }
+        if (removedIndexes.isNotEmpty()) {
+            val event = TreeModelEvent(this, parentPath, removedIndexes.toIntArray(), removedIndexes.map { previousChildren[it] }.toTypedArray())
+            listeners.forEach { it.treeNodesRemoved(event) }
+        }
+        val insertedIndexes = currentChildren.indices.filter { currentChildren[it] !in previousIndexes }
+        if (insertedIndexes.isNotEmpty()) {
+            val event = TreeModelEvent(this, parentPath, insertedIndexes.toIntArray(), insertedIndexes.map { currentChildren[it] }.toTypedArray())
+            listeners.forEach { it.treeNodesInserted(event) }
+        }
+        // equal nodes can still render differently, e.g. a file with a different number of findings
+        val changedIndexes = currentChildren.indices.filter { index ->
+            previousIndexes[currentChildren[index]]?.let { previousChildren[it] !== currentChildren[index] } ?: false
+        }
+        if (changedIndexes.isNotEmpty()) {
+            val event = TreeModelEvent(this, parentPath, changedIndexes.toIntArray(), changedIndexes.map { currentChildren[it] }.toTypedArray())
+            listeners.forEach { it.treeNodesChanged(event) }
+        }
+        keptChildren.forEach { notifyChanges(previousTree, currentTree, parentPath.pathByAddingChild(it)) }
+    }
+
     override fun valueForPathChanged(path: TreePath?, newValue: Any?) {
         throw UnsupportedOperationException("Tree is not mutable")
     }
@@ -24,6 +24,7 @@ import com.google.common.collect.Ordering;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -32,13 +33,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeSet;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.swing.tree.DefaultTreeModel;
 import org.sonarlint.intellij.common.util.SonarLintUtils;
 import org.sonarlint.intellij.editor.CodeAnalyzerRestarter;
+import org.sonarlint.intellij.finding.FindingsValidity;
 import org.sonarlint.intellij.finding.issue.LiveIssue;
 import org.sonarlint.intellij.ui.nodes.AbstractNode;
 import org.sonarlint.intellij.ui.nodes.FileNode;
@@ -48,6 +49,7 @@ import org.sonarsource.sonarlint.core.client.utils.ImpactSeverity;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.IssueSeverity;
 
 import static org.sonarlint.intellij.ui.UiUtils.runOnUiThread;
+import static org.sonarlint.intellij.util.ThreadUtilsKt.runOnPooledThread;
 import static org.sonarsource.sonarlint.core.client.utils.ImpactSeverity.HIGH;
 import static org.sonarsource.sonarlint.core.client.utils.ImpactSeverity.LOW;
 import static org.sonarsource.sonarlint.core.client.utils.ImpactSeverity.MEDIUM;
@@ -65,6 +67,9 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
   private static final List<IssueSeverity> SEVERITY_ORDER = List.of(BLOCKER, CRITICAL, MAJOR, MINOR, INFO);
   private static final List<ImpactSeverity> IMPACT_ORDER = List.of(ImpactSeverity.BLOCKER, HIGH, MEDIUM, LOW, ImpactSeverity.INFO);
   private static final Comparator<LiveIssue> ISSUE_COMPARATOR = new IssueComparator();
+  private static final Comparator<VirtualFile> FILE_COMPARATOR = Comparator.comparing(VirtualFile::getName).thenComparing(VirtualFile::getPath);
+  // Number of file nodes added to the tree per EDT event when streaming an update
+  static final int FILE_BATCH_SIZE = 500;
 
   private final FindingTreeIndex index;
   private final Project project;
@@ -73,6 +78,8 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
   private boolean includeLocallyResolvedIssues = false;
   private Map<VirtualFile, Collection<LiveIssue>> latestIssues;
   private TreeSummary treeSummary;
+  // Incremented by every update, so that batches of a superseded update stop being applied
+  private final AtomicLong latestUpdateId = new AtomicLong();
 
   public IssueTreeModelBuilder(Project project) {
     this.project = project;
@@ -104,6 +111,7 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
   }
 
   public void updateModel(Map<VirtualFile, Collection<LiveIssue>> map) {
+    latestUpdateId.incrementAndGet();
     latestIssues = map;
     var toRemove = index.getAllFiles().stream().filter(f -> !map.containsKey(f)).toList();
     ApplicationManager.getApplication().assertIsDispatchThread();
@@ -124,6 +132,88 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
     model.nodeChanged(summaryNode);
   }
 
+  public void updateModelInBackground(Map<VirtualFile, Collection<LiveIssue>> map) {
+    updateModelInBackground(map, () -> {
+    });
+  }
+
+  /**
+   * Replaces the whole content of the tree, meant for large reports: issues are filtered and sorted on a pooled thread, then file nodes are
+   * added in batches, each batch in its own EDT event. Issue nodes are only created when their file node is expanded.
+   * Can be called from any thread, {@code onCompletion} runs on the EDT once the last batch has been added.
+   */
+  public void updateModelInBackground(Map<VirtualFile, Collection<LiveIssue>> map, Runnable onCompletion) {
+    if (ApplicationManager.getApplication().isDispatchThread()) {
+      startBackgroundUpdate(map, onCompletion);
+    } else {
+      runOnUiThread(project, () -> startBackgroundUpdate(map, onCompletion));
+    }
+  }
+
+  private void startBackgroundUpdate(Map<VirtualFile, Collection<LiveIssue>> map, Runnable onCompletion) {
+    var updateId = latestUpdateId.incrementAndGet();
+    latestIssues = map;
+    // the state of the builder is only accessed on the EDT, the pooled thread works on what is captured here
+    var includeResolved = includeLocallyResolvedIssues;
+    runOnPooledThread(project, () -> {
+      var preparedFiles = prepare(map, includeResolved);
+      runOnUiThread(project, () -> addFileNodesBatch(updateId, preparedFiles, 0, 0, onCompletion));
+    });
+  }
+
+  private static List<PreparedFile> prepare(Map<VirtualFile, Collection<LiveIssue>> map, boolean includeResolved) {
+    var preparedFiles = new ArrayList<PreparedFile>(map.size());
+    for (var e : map.entrySet()) {
+      if (!accept(e.getKey())) {
+        continue;
+      }
+      var issues = new ArrayList<>(filter(e.getKey(), e.getValue(), includeResolved));
+      if (!issues.isEmpty()) {
+        issues.sort(ISSUE_COMPARATOR);
+        preparedFiles.add(new PreparedFile(e.getKey(), issues));
+      }
+    }
+    preparedFiles.sort(Comparator.comparing(PreparedFile::file, FILE_COMPARATOR));
+    return preparedFiles;
+  }
+
+  private void addFileNodesBatch(long updateId, List<PreparedFile> preparedFiles, int from, int issuesCount, Runnable onCompletion) {
+    if (updateId != latestUpdateId.get()) {
+      return;
+    }
+    var parent = getFilesParent();
+    if (from == 0) {
+      parent.removeAllChildren();
+      index.clear();
+      model.nodeStructureChanged(parent);
+    }
+
+    var to = Math.min(from + FILE_BATCH_SIZE, preparedFiles.size());
+    var insertedIndices = new int[to - from];
+    var totalIssuesCount = issuesCount;
+    for (var i = from; i < to; i++) {
+      var preparedFile = preparedFiles.get(i);
+      var fNode = new FileNode(preparedFile.file(), false);
+      fNode.setLazyChildren(preparedFile.issues(), IssueNode::new);
+      index.setFileNode(fNode);
+      parent.add(fNode);
+      insertedIndices[i - from] = i;
+      totalIssuesCount += preparedFile.issues().size();
+    }
+    if (insertedIndices.length > 0) {
+      model.nodesWereInserted(parent, insertedIndices);
+    }
+    treeSummary.refresh(to, totalIssuesCount);
+    model.nodeChanged(summaryNode);
+
+    if (to < preparedFiles.size()) {
+      var nextIssuesCount = totalIssuesCount;
+      runOnUiThread(project, () -> addFileNodesBatch(updateId, preparedFiles, to, nextIssuesCount, onCompletion));
+    } else {
+      onCompletion.run();
+    }
+  }
+
   public void allowResolvedIssues(boolean allowResolved) {
     if (includeLocallyResolvedIssues != allowResolved) {
       includeLocallyResolvedIssues = allowResolved;
@@ -136,13 +226,13 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
     SonarLintUtils.getService(project, CodeAnalyzerRestarter.class).refreshFiles(fileList);
   }
 
-  private int setFileIssues(VirtualFile file, Iterable<LiveIssue> issues) {
+  private int setFileIssues(VirtualFile file, Collection<LiveIssue> issues) {
     if (!accept(file)) {
       removeFile(file);
       return 0;
     }
 
-    var filtered = filter(issues);
+    var filtered = filter(file, issues);
     if (filtered.isEmpty()) {
       removeFile(file);
       return 0;
@@ -183,30 +273,24 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
     model.removeNodeFromParent(node);
   }
 
-  private static void setIssues(FileNode node, Iterable<LiveIssue> issuePointers) {
-    node.removeAllChildren();
-
-    // 15ms for 500 issues -> to improve?
-    var issues = new TreeSet<>(ISSUE_COMPARATOR);
-
-    for (var issue : issuePointers) {
-      issues.add(issue);
-    }
-
-    for (var issue : issues) {
-      var iNode = new IssueNode(issue);
-      node.add(iNode);
-    }
+  private static void setIssues(FileNode node, Collection<LiveIssue> issuePointers) {
+    var issues = new ArrayList<>(issuePointers);
+    issues.sort(ISSUE_COMPARATOR);
+    node.setLazyChildren(issues, IssueNode::new);
   }
 
-  private List<LiveIssue> filter(Iterable<LiveIssue> issues) {
-    return StreamSupport.stream(issues.spliterator(), false)
-      .filter(this::accept)
-      .toList();
+  private List<LiveIssue> filter(VirtualFile file, Collection<LiveIssue> issues) {
+    return filter(file, issues, includeLocallyResolvedIssues);
   }
 
-  private boolean accept(LiveIssue issue) {
-    return (!issue.isResolved() && issue.isValid()) || includeLocallyResolvedIssues;
+  private static List<LiveIssue> filter(VirtualFile file, Collection<LiveIssue> issues, boolean includeResolved) {
+    if (includeResolved) {
+      return List.copyOf(issues);
+    }
+    // the validity of all the issues of the file is checked at once
+    return FindingsValidity.filterValid(file, issues).stream()
+      .filter(issue -> !issue.isResolved())
+      .toList();
   }
 
   private static boolean accept(VirtualFile file) {
@@ -254,15 +338,13 @@ public class IssueTreeModelBuilder implements FindingTreeModelBuilder {
 
   private static class FileNodeComparator implements Comparator<FileNode> {
     @Override public int compare(FileNode o1, FileNode o2) {
-      int c = o1.file().getName().compareTo(o2.file().getName());
-      if (c != 0) {
-        return c;
-      }
-
-      return o1.file().getPath().compareTo(o2.file().getPath());
+      return FILE_COMPARATOR.compare(o1.file(), o2.file());
     }
   }
 
+  private record PreparedFile(VirtualFile file, List<LiveIssue> issues) {
+  }
+
   static class IssueComparator implements Comparator<LiveIssue> {
     @Override public int compare(@Nonnull LiveIssue o1, @Nonnull LiveIssue o2) {
       var isResolvedCompare = Comparator.comparing(LiveIssue::isResolved).compare(o1, o2);
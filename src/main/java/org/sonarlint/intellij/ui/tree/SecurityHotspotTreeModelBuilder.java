@@ -28,18 +28,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.swing.tree.DefaultTreeModel;
 import org.sonarlint.intellij.actions.filters.SecurityHotspotFilters;
 import org.sonarlint.intellij.common.util.SonarLintUtils;
 import org.sonarlint.intellij.editor.CodeAnalyzerRestarter;
+import org.sonarlint.intellij.finding.FindingsValidity;
 import org.sonarlint.intellij.finding.hotspot.LiveSecurityHotspot;
 import org.sonarlint.intellij.ui.nodes.AbstractNode;
 import org.sonarlint.intellij.ui.nodes.FileNode;
@@ -72,7 +75,9 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
   private SummaryNode summaryNode;
   private TreeSummary treeSummary;
   private List<LiveSecurityHotspotNode> nonFilteredNodes;
+  private Map<String, LiveSecurityHotspotNode> nonFilteredNodesByServerKey;
   private List<LiveSecurityHotspotNode> filteredNodes;
+  private volatile Map<VirtualFile, List<LiveSecurityHotspotNode>> filteredNodesByFile = Map.of();
 
   public SecurityHotspotTreeModelBuilder() {
     this.index = new FindingTreeIndex();
@@ -87,6 +92,7 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
     model = new DefaultTreeModel(summaryNode);
     model.setRoot(summaryNode);
     nonFilteredNodes = new ArrayList<>();
+    nonFilteredNodesByServerKey = new HashMap<>();
     filteredNodes = new ArrayList<>();
     return model;
   }
@@ -103,7 +109,7 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
     var toRemove = index.getAllFiles().stream().filter(f -> !map.containsKey(f)).toList();
     ApplicationManager.getApplication().assertIsDispatchThread();
 
-    nonFilteredNodes.clear();
+    clearNonFilteredNodes();
     toRemove.forEach(this::removeFile);
 
     var fileWithIssuesCount = 0;
@@ -119,13 +125,13 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
     model.nodeChanged(summaryNode);
   }
 
-  private int setFileSecurityHotspots(VirtualFile file, Iterable<LiveSecurityHotspot> securityHotspots) {
+  private int setFileSecurityHotspots(VirtualFile file, Collection<LiveSecurityHotspot> securityHotspots) {
     if (!accept(file)) {
       removeFile(file);
       return 0;
     }
 
-    var filtered = filter(securityHotspots, false);
+    var filtered = filter(file, securityHotspots, false);
     if (filtered.isEmpty()) {
       removeFile(file);
       return 0;
@@ -166,7 +172,7 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
       var iNode = new LiveSecurityHotspotNode(securityHotspot, false);
       node.add(iNode);
 
-      nonFilteredNodes.add(iNode);
+      addNonFilteredNode(iNode);
     }
   }
 
@@ -179,76 +185,53 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
     }
   }
 
-  public LiveSecurityHotspot findFilteredHotspotByKey(String securityHotspotKey) {
-    var nodes = summaryNode.children();
-    while (nodes.hasMoreElements()) {
-      var securityHotspotNode = (LiveSecurityHotspotNode) nodes.nextElement();
-      if (securityHotspotKey.equals(securityHotspotNode.getHotspot().getServerKey())) {
-        return securityHotspotNode.getHotspot();
-      }
+  private void addNonFilteredNode(LiveSecurityHotspotNode node) {
+    nonFilteredNodes.add(node);
+    var serverKey = node.getHotspot().getServerKey();
+    if (serverKey != null) {
+      nonFilteredNodesByServerKey.putIfAbsent(serverKey, node);
     }
-    return null;
+  }
+
+  private void clearNonFilteredNodes() {
+    nonFilteredNodes.clear();
+    nonFilteredNodesByServerKey.clear();
+  }
+
+  @CheckForNull
+  public LiveSecurityHotspot findFilteredHotspotByKey(String securityHotspotKey) {
+    var node = nonFilteredNodesByServerKey.get(securityHotspotKey);
+    return node != null && node.getParent() == summaryNode ? node.getHotspot() : null;
   }
 
   public Optional<LiveSecurityHotspot> findHotspotByKey(String securityHotspotKey) {
-    return nonFilteredNodes.stream()
-      .map(LiveSecurityHotspotNode::getHotspot)
-      .filter(hotspot -> hotspot.getServerKey() != null && hotspot.getServerKey().equals(securityHotspotKey))
-      .findFirst();
+    return Optional.ofNullable(nonFilteredNodesByServerKey.get(securityHotspotKey)).map(LiveSecurityHotspotNode::getHotspot);
   }
 
+  /**
+   * Sorts all the Security Hotspots once and attaches them to the root in one go, firing a single structure event.
+   */
   public int updateModelWithoutFileNode(Map<VirtualFile, Collection<LiveSecurityHotspot>> map) {
-    summaryNode.removeAllChildren();
-
+    var nodes = new ArrayList<LiveSecurityHotspotNode>();
     for (var e : map.entrySet()) {
-      setSecurityHotspots(e.getKey(), e.getValue());
+      if (accept(e.getKey())) {
+        filter(e.getKey(), e.getValue(), true).forEach(securityHotspot -> nodes.add(new LiveSecurityHotspotNode(securityHotspot, true)));
+      }
     }
+    nodes.sort(SECURITY_HOTSPOT_WITHOUT_FILE_COMPARATOR);
 
-    copyToFilteredNodes();
-    model.nodeChanged(summaryNode);
+    clearNonFilteredNodes();
+    nodes.forEach(this::addNonFilteredNode);
+    summaryNode.setLiveSecurityHotspotNodes(nodes);
+    model.nodeStructureChanged(summaryNode);
 
     return summaryNode.getFindingCount();
   }
 
-  private void setSecurityHotspots(VirtualFile file, Iterable<LiveSecurityHotspot> securityHotspots) {
-    if (!accept(file)) {
-      return;
-    }
-
-    var filtered = filter(securityHotspots, true);
-    if (filtered.isEmpty()) {
-      return;
-    }
-
-    setRootSecurityHotspots(filtered);
-  }
-
-  private void setRootSecurityHotspots(Iterable<LiveSecurityHotspot> securityHotspotsPointer) {
-    for (var securityHotspot : securityHotspotsPointer) {
-      var iNode = new LiveSecurityHotspotNode(securityHotspot, true);
-      var idx = summaryNode.insertLiveSecurityHotspotNode(iNode, SECURITY_HOTSPOT_WITHOUT_FILE_COMPARATOR);
-      var newIdx = new int[] {idx};
-      model.nodesWereInserted(summaryNode, newIdx);
-      model.nodeChanged(summaryNode);
-    }
-  }
-
-  private void copyToFilteredNodes() {
-    nonFilteredNodes.clear();
-    Collections.list(summaryNode.children()).forEach(e -> {
-      var securityHotspotNode = (LiveSecurityHotspotNode) e;
-      nonFilteredNodes.add((LiveSecurityHotspotNode) securityHotspotNode.clone());
-    });
-  }
-
   public boolean updateStatusForHotspotWithFileNode(String securityHotspotKey, HotspotStatus status) {
-    var optionalNode = nonFilteredNodes
-      .stream()
-      .filter(node -> securityHotspotKey.equals(node.getHotspot().getServerKey()))
-      .findFirst();
+    var hotspotNode = nonFilteredNodesByServerKey.get(securityHotspotKey);
 
-    if (optionalNode.isPresent()) {
-      var hotspotNode = optionalNode.get();
+    if (hotspotNode != null) {
       var hotspot = hotspotNode.getHotspot();
       hotspot.setStatus(status);
       if (hotspot.isResolved()) {
@@ -269,34 +252,40 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
     return filteredNodes;
   }
 
-  private Collection<VirtualFile> getFilesForNodes() {
-    return nonFilteredNodes.stream().map(LiveSecurityHotspotNode::getHotspot).map(LiveSecurityHotspot::file).collect(Collectors.toSet());
+  /**
+   * Backed by an index rebuilt each time the filtering is applied, as this is called for each open file on every highlighting pass.
+   */
+  public List<LiveSecurityHotspotNode> getFilteredNodesForFile(VirtualFile file) {
+    return filteredNodesByFile.getOrDefault(file, List.of());
+  }
+
+  private Set<VirtualFile> getFilesForNodes() {
+    var files = new HashSet<VirtualFile>();
+    nonFilteredNodes.forEach(node -> files.add(node.getHotspot().file()));
+    return files;
   }
 
   public int updateStatusAndApplyCurrentFiltering(Project project, String securityHotspotKey, HotspotStatus status) {
-    for (var securityHotspotNode : nonFilteredNodes) {
-      if (securityHotspotKey.equals(securityHotspotNode.getHotspot().getServerKey())) {
-        securityHotspotNode.getHotspot().setStatus(status);
-        break;
-      }
+    var securityHotspotNode = nonFilteredNodesByServerKey.get(securityHotspotKey);
+    if (securityHotspotNode != null) {
+      securityHotspotNode.getHotspot().setStatus(status);
     }
     return applyCurrentFiltering(project);
   }
 
+  /**
+   * The non-filtered nodes are kept sorted, so the filtered ones are attached to the root in one go.
+   */
   public int applyCurrentFiltering(Project project) {
     filteredNodes.clear();
     var fileList = getFilesForNodes();
-    Collections.list(summaryNode.children()).forEach(e -> model.removeNodeFromParent((LiveSecurityHotspotNode) e));
     for (var securityHotspotNode : nonFilteredNodes) {
       if (currentFilter.shouldIncludeSecurityHotspot(securityHotspotNode.getHotspot()) && (shouldIncludeResolvedHotspots || !securityHotspotNode.getHotspot().isResolved())) {
-        fileList.add(securityHotspotNode.getHotspot().file());
-        var idx = summaryNode.insertLiveSecurityHotspotNode(securityHotspotNode, SECURITY_HOTSPOT_WITHOUT_FILE_COMPARATOR);
-        var newIdx = new int[] {idx};
-        model.nodesWereInserted(summaryNode, newIdx);
-        model.nodeChanged(summaryNode);
         filteredNodes.add(securityHotspotNode);
       }
     }
+    summaryNode.setLiveSecurityHotspotNodes(filteredNodes);
+    filteredNodesByFile = filteredNodes.stream().collect(Collectors.groupingBy(node -> node.getHotspot().file()));
     model.reload();
     treeSummary.refresh(fileList.size(), filteredNodes.size());
     SonarLintUtils.getService(project, CodeAnalyzerRestarter.class).refreshFiles(fileList);
@@ -318,18 +307,15 @@ public class SecurityHotspotTreeModelBuilder implements FindingTreeModelBuilder
     updateModelWithoutFileNode(Collections.emptyMap());
   }
 
-  private static List<LiveSecurityHotspot> filter(Iterable<LiveSecurityHotspot> securityHotspots, boolean allowResolved) {
-    return StreamSupport.stream(securityHotspots.spliterator(), false)
-      .filter(hotspot -> accept(hotspot, allowResolved))
-      .toList();
-  }
-
-  private static boolean accept(LiveSecurityHotspot securityHotspot, boolean allowResolved) {
+  private static List<LiveSecurityHotspot> filter(VirtualFile file, Collection<LiveSecurityHotspot> securityHotspots, boolean allowResolved) {
+    // the validity of all the Security Hotspots of the file is checked at once
+    var validSecurityHotspots = FindingsValidity.filterValid(file, securityHotspots);
     if (allowResolved) {
-      return securityHotspot.isValid();
-    } else {
-      return !securityHotspot.isResolved() && securityHotspot.isValid();
+      return validSecurityHotspots;
     }
+    return validSecurityHotspots.stream()
+      .filter(securityHotspot -> !securityHotspot.isResolved())
+      .toList();
   }
 
   private static boolean accept(VirtualFile file) {
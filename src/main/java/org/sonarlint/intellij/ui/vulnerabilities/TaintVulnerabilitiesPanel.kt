@@ -36,6 +36,7 @@ import com.intellij.ui.SimpleTextAttributes
 import com.intellij.ui.components.JBPanel
 import com.intellij.ui.components.JBPanelWithEmptyText
 import com.intellij.ui.components.panels.HorizontalLayout
+import com.intellij.util.concurrency.SequentialTaskExecutor
 import com.intellij.util.ui.tree.TreeUtil
 import java.awt.BorderLayout
 import java.awt.Dimension
@@ -112,6 +113,8 @@ class TaintVulnerabilitiesPanel(private val project: Project) : SimpleToolWindow
 
     private val taintVulnerabilityTreeUpdater = TaintVulnerabilityTreeUpdater(treeSummary)
     private val oldTaintVulnerabilityTreeUpdater = TaintVulnerabilityTreeUpdater(oldTreeSummary)
+    // keeps the updates of the trees in order
+    private val treeUpdatesExecutor = SequentialTaskExecutor.createSequentialApplicationPoolExecutor("SonarLint taint vulnerabilities tree")
 
     init {
         val globalSettings = getGlobalSettings()
@@ -233,26 +236,37 @@ class TaintVulnerabilitiesPanel(private val project: Project) : SimpleToolWindow
     fun allowResolvedTaintVulnerabilities(includeResolved: Boolean) {
         taintVulnerabilityTreeUpdater.resolutionFilter = if (includeResolved) ResolutionFilter.ALL else ResolutionFilter.OPEN_ONLY
         oldTaintVulnerabilityTreeUpdater.resolutionFilter = if (includeResolved) ResolutionFilter.ALL else ResolutionFilter.OPEN_ONLY
-        switchCard()
+        updateTrees { it.prepareFiltering() }
     }
 
     fun populate(taintVulnerabilities: List<LocalTaintVulnerability>) {
         val cache = getService(project, TaintVulnerabilitiesCache::class.java)
         cache.taintVulnerabilities = taintVulnerabilities
-        updateTrees(taintVulnerabilities)
+        updateTrees { it.prepare(taintVulnerabilities) }
     }
 
     fun update(closedTaintVulnerabilityIds: Set<UUID>, addedTaintVulnerabilities: List<LocalTaintVulnerability>, updatedTaintVulnerabilities: List<LocalTaintVulnerability>) {
         val cache = getService(project, TaintVulnerabilitiesCache::class.java)
-        cache.update(closedTaintVulnerabilityIds, addedTaintVulnerabilities, updatedTaintVulnerabilities)
-        updateTrees(cache.taintVulnerabilities)
+        val removedTaintVulnerabilityIds = cache.update(closedTaintVulnerabilityIds, addedTaintVulnerabilities, updatedTaintVulnerabilities)
+        val taintVulnerabilities = cache.taintVulnerabilities
+        updateTrees { it.prepareUpdate(taintVulnerabilities, removedTaintVulnerabilityIds, addedTaintVulnerabilities, updatedTaintVulnerabilities) }
     }
 
-    private fun updateTrees(newTaintVulnerabilities: List<LocalTaintVulnerability>) {
-        runOnUiThread(project) {
-            populateSubTree(tree, taintVulnerabilityTreeUpdater, newTaintVulnerabilities)
-            populateSubTree(oldTree, oldTaintVulnerabilityTreeUpdater, newTaintVulnerabilities)
-            switchCard()
+    /**
+     * Trees are prepared one after the other on a background thread, and displayed in the same order on the UI thread.
+     */
+    private fun updateTrees(prepare: (TaintVulnerabilityTreeUpdater) -> TaintVulnerabilityTreeUpdater.PreparedTree) {
+        treeUpdatesExecutor.execute {
+            if (project.isDisposed) {
+                return@execute
+            }
+            val preparedTree = prepare(taintVulnerabilityTreeUpdater)
+            val preparedOldTree = prepare(oldTaintVulnerabilityTreeUpdater)
+            runOnUiThread(project) {
+                populateSubTree(tree, taintVulnerabilityTreeUpdater, preparedTree)
+                populateSubTree(oldTree, oldTaintVulnerabilityTreeUpdater, preparedOldTree)
+                switchCard()
+            }
         }
     }
 
@@ -282,13 +296,13 @@ class TaintVulnerabilitiesPanel(private val project: Project) : SimpleToolWindow
         }
     }
 
-    private fun populateSubTree(tree: TaintVulnerabilityTree, updater: TaintVulnerabilityTreeUpdater, taintVulnerabilities: List<LocalTaintVulnerability>) {
+    private fun populateSubTree(tree: TaintVulnerabilityTree, updater: TaintVulnerabilityTreeUpdater, preparedTree: TaintVulnerabilityTreeUpdater.PreparedTree) {
         val expandedPaths = TreeUtil.collectExpandedPaths(tree)
         val selectionPath: TreePath? = tree.selectionPath
         // Temporarily remove the listener to avoid transient selection events while changing the model
         treeListeners[tree]?.forEach { listener -> tree.removeTreeSelectionListener(listener) }
         try {
-            updater.taintVulnerabilities = taintVulnerabilities
+            updater.apply(preparedTree)
             tree.showsRootHandles = updater.filteredTaintVulnerabilities.isNotEmpty()
             TreeUtil.restoreExpandedPaths(tree, expandedPaths)
             if (selectionPath != null) {
@@ -327,9 +341,10 @@ class TaintVulnerabilitiesPanel(private val project: Project) : SimpleToolWindow
 
     fun remove(taintVulnerability: LocalTaintVulnerability) {
         val cache = getService(project, TaintVulnerabilitiesCache::class.java)
-        val removed = cache.remove(taintVulnerability)
-        if (removed) {
-            updateTrees(cache.taintVulnerabilities)
+        val removedId = cache.remove(taintVulnerability)
+        if (removedId != null) {
+            val taintVulnerabilities = cache.taintVulnerabilities
+            updateTrees { it.prepareUpdate(taintVulnerabilities, setOf(removedId), emptyList(), emptyList()) }
         }
     }
 
@@ -357,7 +372,8 @@ class TaintVulnerabilitiesPanel(private val project: Project) : SimpleToolWindow
         taintVulnerabilityTreeUpdater.focusFilter = if (shouldFocusOnNewCode) FocusFilter.NEW_CODE else FocusFilter.ALL_CODE
         oldTaintVulnerabilityTreeUpdater.focusFilter = if (shouldFocusOnNewCode) FocusFilter.OLD_CODE else FocusFilter.ALL_CODE
         oldTree.isVisible = shouldFocusOnNewCode
-        updateTrees(getService(project, TaintVulnerabilitiesCache::class.java).taintVulnerabilities)
+        val taintVulnerabilities = getService(project, TaintVulnerabilitiesCache::class.java).taintVulnerabilities
+        updateTrees { it.prepare(taintVulnerabilities) }
     }
 
     private fun findFilteredTaintVulnerabilityByKey(key: String): LocalTaintVulnerability? {
@@ -428,7 +444,7 @@ class TaintVulnerabilitiesPanel(private val project: Project) : SimpleToolWindow
     }
 
     override fun dispose() {
-        // Nothing to do
+        treeUpdatesExecutor.shutdownNow()
     }
 
 }
@@ -19,13 +19,13 @@
  */
 package org.sonarlint.intellij.ui.vulnerabilities.tree
 
-import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.vfs.VirtualFile
+import java.util.UUID
 import org.sonarlint.intellij.finding.FindingType
 import org.sonarlint.intellij.finding.Flow
 import org.sonarlint.intellij.finding.FragmentLocation
 import org.sonarlint.intellij.finding.SameFileFlowFragment
 import org.sonarlint.intellij.finding.issue.vulnerabilities.LocalTaintVulnerability
-import org.sonarlint.intellij.ui.UiUtils.Companion.runOnUiThread
 import org.sonarlint.intellij.ui.nodes.SummaryNode
 import org.sonarlint.intellij.ui.tree.CompactTree
 import org.sonarlint.intellij.ui.tree.CompactTreeModel
@@ -54,61 +54,151 @@ class TaintVulnerabilityTreeUpdater(private val treeSummary: TreeSummary) {
         }
     }
 
+    @Volatile
     var focusFilter: FocusFilter = FocusFilter.ALL_CODE
-        set(value) {
-            field = value
-            applyFiltering()
-        }
 
+    @Volatile
     var resolutionFilter: ResolutionFilter = ResolutionFilter.OPEN_ONLY
-        set(value) {
-            field = value
-            applyFiltering()
-        }
 
     private fun findingFilters() = listOf<FindingFilter>(focusFilter, resolutionFilter)
 
-    var taintVulnerabilities: List<LocalTaintVulnerability> = mutableListOf()
-        set(value) {
-            field = value
-            applyFiltering()
-        }
+    /**
+     * The taint vulnerabilities currently displayed, only updated on the UI thread by [apply].
+     */
+    var taintVulnerabilities: List<LocalTaintVulnerability> = emptyList()
+        private set
 
     var filteredTaintVulnerabilities: List<LocalTaintVulnerability> = emptyList()
+        private set
+
+    // State of the latest prepared tree, guarded by this
+    private var latestTaintVulnerabilities: List<LocalTaintVulnerability> = emptyList()
+    private val filteredById = HashMap<UUID, LocalTaintVulnerability>()
+    private val filteredByFile = HashMap<VirtualFile?, List<LocalTaintVulnerability>>()
+    private var sortedFiles: List<FileSummary> = emptyList()
+
+    /**
+     * Filters, groups and sorts all the taint vulnerabilities. Can be called from any thread, the result is displayed by [apply].
+     */
+    fun prepare(taintVulnerabilities: List<LocalTaintVulnerability>): PreparedTree {
+        synchronized(this) {
+            latestTaintVulnerabilities = taintVulnerabilities
+            filteredById.clear()
+            filteredByFile.clear()
+            val filters = findingFilters()
+            taintVulnerabilities.filter { vulnerability -> filters.all { filter -> filter.filter(vulnerability) } }
+                .groupBy { it.file() }
+                .forEach { (file, vulnerabilities) ->
+                    filteredByFile[file] = sortTaintVulnerabilities(vulnerabilities)
+                    vulnerabilities.forEach { filteredById[it.getId()] = it }
+                }
+            sortedFiles = sortFiles()
+            return createPreparedTree()
+        }
+    }
 
-    private fun applyFiltering() {
-        val filters = findingFilters()
-        filteredTaintVulnerabilities = taintVulnerabilities.filter { vulnerability -> filters.all { filter -> filter.filter(vulnerability) } }
-        runOnUiThread(ModalityState.defaultModalityState()) { model.setCompactTree(createCompactTree(filteredTaintVulnerabilities)) }
-        treeSummary.refresh(filteredTaintVulnerabilities.filter { it.file() != null }.groupBy { it.file() }.keys.size, filteredTaintVulnerabilities.size)
+    /**
+     * Filters the latest taint vulnerabilities again, after a filter changed.
+     */
+    fun prepareFiltering(): PreparedTree {
+        synchronized(this) {
+            return prepare(latestTaintVulnerabilities)
+        }
     }
 
-    private fun createCompactTree(taintVulnerabilities: List<LocalTaintVulnerability>): CompactTree {
-        val taintVulnerabilitiesByFile = taintVulnerabilities.filter { it.file() != null }.groupBy { it.file()!! }
-        val sortedFiles = taintVulnerabilitiesByFile.keys.sortedWith(compareBy({ it.name }, { it.path }))
-            .map { FileSummary(it, taintVulnerabilitiesByFile[it]!!.size, FindingType.TAINT_VULNERABILITY) }
-        val nodesByParent: MutableMap<Any, List<Any>> = mutableMapOf(model.root to sortedFiles)
-        taintVulnerabilitiesByFile.forEach { (file, taintVulnerabilities) ->
-            val fileSummary = FileSummary(file, taintVulnerabilities.size, FindingType.TAINT_VULNERABILITY)
-            val sortedTaintVulnerabilities = taintVulnerabilities.sortedWith(compareBy<LocalTaintVulnerability> { it.creationDate() }.thenByDescending { it.severity() }.thenBy { it.rangeMarker()?.startOffset }.thenBy { it.getRuleKey() })
-            nodesByParent[fileSummary] = sortedTaintVulnerabilities
-            sortedTaintVulnerabilities.forEach { taintVulnerability ->
-                nodesByParent[taintVulnerability] = taintVulnerability.flows
-                taintVulnerability.flows.forEach { flow ->
-                    if (flow.isCrossFileFlow) {
-                        nodesByParent[flow] = flow.crossFileFlowFragments
-                        flow.crossFileFlowFragments.forEach { fragment ->
-                            nodesByParent[fragment] = fragment.locations
-                            fragment.locations.forEach { location -> nodesByParent[location] = emptyList() }
-                        }
-                    } else {
-                        val singleFileFlow = flow.crossFileFlowFragments[0]
-                        nodesByParent[flow] = singleFileFlow.locations
-                        singleFileFlow.locations.forEach { location -> nodesByParent[location] = emptyList() }
-                    }
+    /**
+     * Applies the changes to the latest prepared tree. Only the files of the changed taint vulnerabilities are sorted again, the other files keep
+     * the same list of children so that the model skips them when notifying the changes.
+     * The removed ids are the ones reported by [org.sonarlint.intellij.finding.issue.vulnerabilities.TaintVulnerabilitiesCache], which also
+     * include the taint vulnerabilities replaced by an update with the same server key.
+     */
+    fun prepareUpdate(
+        taintVulnerabilities: List<LocalTaintVulnerability>, removedTaintVulnerabilityIds: Set<UUID>,
+        addedTaintVulnerabilities: List<LocalTaintVulnerability>, updatedTaintVulnerabilities: List<LocalTaintVulnerability>,
+    ): PreparedTree {
+        synchronized(this) {
+            latestTaintVulnerabilities = taintVulnerabilities
+            val filters = findingFilters()
+            val touchedFiles = HashMap<VirtualFile?, MutableList<LocalTaintVulnerability>>()
+            fun vulnerabilitiesOf(file: VirtualFile?) = touchedFiles.getOrPut(file) { ArrayList(filteredByFile[file] ?: emptyList()) }
+            fun removeById(id: UUID) {
+                filteredById.remove(id)?.let { previous -> vulnerabilitiesOf(previous.file()).remove(previous) }
+            }
+
+            removedTaintVulnerabilityIds.forEach { removeById(it) }
+            (addedTaintVulnerabilities + updatedTaintVulnerabilities).forEach { vulnerability ->
+                removeById(vulnerability.getId())
+                if (filters.all { filter -> filter.filter(vulnerability) }) {
+                    vulnerabilitiesOf(vulnerability.file()).add(vulnerability)
+                    filteredById[vulnerability.getId()] = vulnerability
+                }
+            }
+
+            val filesChanged = touchedFiles.any { (file, vulnerabilities) -> filteredByFile.containsKey(file) == vulnerabilities.isEmpty() }
+            touchedFiles.forEach { (file, vulnerabilities) ->
+                if (vulnerabilities.isEmpty()) {
+                    filteredByFile.remove(file)
+                } else {
+                    filteredByFile[file] = sortTaintVulnerabilities(vulnerabilities)
                 }
             }
+            sortedFiles = if (filesChanged) {
+                sortFiles()
+            } else {
+                sortedFiles.map { summary ->
+                    if (touchedFiles.containsKey(summary.file)) fileSummary(summary.file, filteredByFile[summary.file]!!) else summary
+                }
+            }
+            return createPreparedTree()
+        }
+    }
+
+    /**
+     * Displays a prepared tree. Must be called on the UI thread, in the order the trees were prepared.
+     */
+    fun apply(preparedTree: PreparedTree) {
+        taintVulnerabilities = preparedTree.taintVulnerabilities
+        filteredTaintVulnerabilities = preparedTree.filteredTaintVulnerabilities
+        model.setCompactTree(preparedTree.compactTree)
+        treeSummary.refresh(preparedTree.filesCount, preparedTree.filteredTaintVulnerabilities.size)
+    }
+
+    private fun sortFiles() = filteredByFile.entries.mapNotNull { (file, vulnerabilities) -> file?.let { fileSummary(it, vulnerabilities) } }
+        .sortedWith(compareBy({ it.file.name }, { it.file.path }))
+
+    private fun createPreparedTree(): PreparedTree {
+        val nodesByParent = HashMap<Any, List<Any>>(sortedFiles.size * 2 + 1)
+        nodesByParent[model.root] = sortedFiles
+        sortedFiles.forEach { nodesByParent[it] = filteredByFile[it.file]!! }
+        return PreparedTree(
+            latestTaintVulnerabilities,
+            filteredByFile.values.flatten(),
+            sortedFiles.size,
+            CompactTree(nodesByParent) { node -> childrenOf(node) }
+        )
+    }
+
+    class PreparedTree(
+        val taintVulnerabilities: List<LocalTaintVulnerability>,
+        val filteredTaintVulnerabilities: List<LocalTaintVulnerability>,
+        val filesCount: Int,
+        val compactTree: CompactTree,
+    )
+
+    companion object {
+        private fun fileSummary(file: VirtualFile, vulnerabilities: List<LocalTaintVulnerability>) =
+            FileSummary(file, vulnerabilities.size, FindingType.TAINT_VULNERABILITY)
+
+        private fun sortTaintVulnerabilities(vulnerabilities: List<LocalTaintVulnerability>) =
+            vulnerabilities.sortedWith(compareBy<LocalTaintVulnerability> { it.creationDate() }.thenByDescending { it.severity() }
+                .thenBy { it.rangeMarker()?.startOffset }.thenBy { it.getRuleKey() })
+
+        // the flows are derived from the vulnerability, so they keep the same instances for as long as the vulnerability is displayed
+        private fun childrenOf(node: Any): List<Any> = when (node) {
+            is LocalTaintVulnerability -> node.flows
+            is Flow -> if (node.isCrossFileFlow) node.crossFileFlowFragments else node.crossFileFlowFragments.firstOrNull()?.locations ?: emptyList()
+            is SameFileFlowFragment -> node.locations
+            else -> emptyList()
         }
-        return CompactTree(nodesByParent)
     }
 }
@@ -0,0 +1,36 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+object ContentHash {
+
+    /**
+     * 64-bit FNV-1a of the characters, enough to tell two versions of a file apart without copying the content.
+     */
+    @JvmStatic
+    fun of(content: CharSequence): Long {
+        var hash = -0x340d631b7bdddcdbL
+        for (i in content.indices) {
+            hash = (hash xor content[i].code.toLong()) * 0x100000001b3L
+        }
+        return hash xor content.length.toLong()
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ModuleRootEvent
+import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.roots.ModuleRootManager
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Resolves the relative path used for analysis by walking up the parents of a file once, instead of trying each strategy of
+ * [SonarLintAppUtils.getRelativePathForAnalysis] in turn. The cost is proportional to the depth of the file, not to the number of content roots.
+ * The project base directory and the content roots of each module are cached until the project structure changes.
+ */
+@Service(Service.Level.PROJECT)
+class ContentRootsIndex(private val project: Project) {
+
+    // replaced rather than cleared, so that content roots computed concurrently with a change are never kept
+    @Volatile
+    private var contentRootsByModule = ConcurrentHashMap<Module, Map<VirtualFile, Int>>()
+
+    @Volatile
+    private var projectDir: ProjectDir? = null
+
+    init {
+        project.messageBus.connect().subscribe(ModuleRootListener.TOPIC, object : ModuleRootListener {
+            override fun rootsChanged(event: ModuleRootEvent) {
+                invalidate()
+            }
+        })
+    }
+
+    fun invalidate() {
+        contentRootsByModule = ConcurrentHashMap()
+        projectDir = null
+    }
+
+    /**
+     * Follows the precedence of the strategies of [SonarLintAppUtils.getRelativePathForAnalysis]: the project base directory wins
+     * over the content roots, and among the content roots containing the file, the first declared one wins.
+     * Returns null if the file is neither under the project base directory nor under a content root of the module.
+     */
+    fun getRelativePath(module: Module, file: VirtualFile): String? {
+        val baseDir = getProjectDir()
+        val contentRoots = contentRootsByModule.computeIfAbsent(module) { computeContentRoots(it) }
+        var bestContentRoot: VirtualFile? = null
+        var bestContentRootOrder = Int.MAX_VALUE
+        var current: VirtualFile? = file
+        while (current != null) {
+            if (current == baseDir) {
+                return VfsUtilCore.getRelativePath(file, current)
+            }
+            val order = contentRoots[current]
+            if (order != null && order < bestContentRootOrder) {
+                bestContentRoot = current
+                bestContentRootOrder = order
+            }
+            current = current.parent
+        }
+        return bestContentRoot?.let { VfsUtilCore.getRelativePath(file, it) }
+    }
+
+    private fun getProjectDir(): VirtualFile? {
+        val cached = projectDir
+        if (cached != null && cached.dir?.isValid != false) {
+            return cached.dir
+        }
+        return ProjectDir(project.guessProjectDir()).also { projectDir = it }.dir
+    }
+
+    private class ProjectDir(val dir: VirtualFile?)
+
+    companion object {
+        private fun computeContentRoots(module: Module): Map<VirtualFile, Int> {
+            val orderByContentRoot = HashMap<VirtualFile, Int>()
+            ModuleRootManager.getInstance(module).contentRoots
+                .filter { it.path.isNotBlank() }
+                .forEachIndexed { index, contentRoot -> orderByContentRoot.putIfAbsent(contentRoot, index) }
+            return orderByContentRoot
+        }
+    }
+
+}
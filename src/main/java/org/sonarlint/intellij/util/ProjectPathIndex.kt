@@ -0,0 +1,185 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ModuleRootEvent
+import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.BulkFileListener
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Resolves paths relative to the project, as sent by the backend, to a [VirtualFile], with the same precedence as a linear scan of the
+ * content roots: the first content root containing the path wins, and the project base directory is only tried last.
+ * On some versions of Rider every source file is its own content root, so file roots are indexed by name and only the roots having the
+ * same name as the path are compared.
+ * The directories matching the parent of a path under each root are remembered, so that resolving a file only looks up its name in them.
+ * Creating or deleting files does not change these directories, only the entries under a directory that is created, copied, moved,
+ * renamed or deleted are forgotten.
+ */
+@Service(Service.Level.PROJECT)
+class ProjectPathIndex(private val project: Project) {
+
+    // replaced rather than cleared, so that roots or directories resolved concurrently with a change are never kept
+    @Volatile
+    private var index = Index()
+
+    // lets a resolution that ran concurrently with a directory change know that it might be outdated
+    private val directoryChanges = AtomicLong()
+
+    init {
+        val busConnection = project.messageBus.connect()
+        busConnection.subscribe(ModuleRootListener.TOPIC, object : ModuleRootListener {
+            override fun rootsChanged(event: ModuleRootEvent) {
+                invalidate()
+            }
+        })
+        busConnection.subscribe(VirtualFileManager.VFS_CHANGES, object : BulkFileListener {
+            override fun after(events: List<VFileEvent>) {
+                val changedDirectoryPaths = events.flatMap { changedDirectoryPaths(it) }
+                if (changedDirectoryPaths.isNotEmpty()) {
+                    invalidate(changedDirectoryPaths)
+                }
+            }
+        })
+    }
+
+    fun invalidate() {
+        index = Index()
+    }
+
+    private fun invalidate(changedDirectoryPaths: List<String>) {
+        val currentIndex = index
+        val roots = currentIndex.contentRoots ?: return
+        val relativePaths = changedDirectoryPaths.flatMap { path -> roots.directoryRootPaths.mapNotNull { relativePath(path, it) } }
+        if (relativePaths.any { it.isEmpty() }) {
+            // a root itself changed
+            invalidate()
+        } else if (relativePaths.isNotEmpty()) {
+            directoryChanges.incrementAndGet()
+            currentIndex.parentDirectories.keys.removeIf { parent -> relativePaths.any { parent == it || parent.startsWith("$it/") } }
+        }
+    }
+
+    fun findFile(filePath: Path): VirtualFile? {
+        val path = ProjectUtils.getSystemIndependentPath(filePath)
+        val currentIndex = index
+        val roots = getContentRoots(currentIndex)
+        val name = path.substringAfterLast('/')
+        var directoryMatch: VirtualFile? = null
+        var directoryMatchOrder = Int.MAX_VALUE
+        for ((order, directory) in getParentDirectories(currentIndex, roots, path.substringBeforeLast('/', ""))) {
+            val matchedFile = if (directory.isValid) directory.findChild(name) else null
+            if (matchedFile != null) {
+                directoryMatch = matchedFile
+                directoryMatchOrder = order
+                break
+            }
+        }
+        val fileMatch = roots.fileRootsByName[name]
+            ?.firstOrNull { (order, fileRoot) -> order < directoryMatchOrder && (fileRoot.path == path || fileRoot.path.endsWith("/$path")) }
+        return fileMatch?.second ?: directoryMatch
+    }
+
+    private fun getParentDirectories(currentIndex: Index, roots: ContentRoots, parent: String): List<Pair<Int, VirtualFile>> {
+        val directories = currentIndex.parentDirectories
+        directories[parent]?.let { return it }
+        if (directories.size >= MAX_PARENT_DIRECTORIES) {
+            directories.clear()
+        }
+        val changesBefore = directoryChanges.get()
+        // getContentRoots function does not have consistent behaviour across different version of IDEs,
+        // so the project base directory is also tried, after all the content roots
+        val candidates = roots.directoryRoots + listOfNotNull(project.guessProjectDir()?.let { Int.MAX_VALUE to it })
+        val parentDirectoriesList = candidates.mapNotNull { (order, root) ->
+            val directory = if (parent.isEmpty()) root else root.findFileByRelativePath(parent)
+            directory?.takeIf { it.isDirectory }?.let { order to it }
+        }
+        directories[parent] = parentDirectoriesList
+        if (directoryChanges.get() != changesBefore) {
+            directories.remove(parent, parentDirectoriesList)
+        }
+        return parentDirectoriesList
+    }
+
+    private fun getContentRoots(currentIndex: Index): ContentRoots {
+        currentIndex.contentRoots?.let { return it }
+        val directoryRoots = ArrayList<Pair<Int, VirtualFile>>()
+        val fileRootsByName = HashMap<String, MutableList<Pair<Int, VirtualFile>>>()
+        ProjectRootManager.getInstance(project).contentRoots.forEachIndexed { order, contentRoot ->
+            if (contentRoot.isDirectory) {
+                directoryRoots.add(order to contentRoot)
+            } else {
+                fileRootsByName.computeIfAbsent(contentRoot.name) { ArrayList() }.add(order to contentRoot)
+            }
+        }
+        val directoryRootPaths = (directoryRoots.map { it.second } + listOfNotNull(project.guessProjectDir())).map { it.path }
+        return ContentRoots(directoryRoots, directoryRootPaths, fileRootsByName).also { currentIndex.contentRoots = it }
+    }
+
+    private class Index {
+        @Volatile
+        var contentRoots: ContentRoots? = null
+        val parentDirectories = ConcurrentHashMap<String, List<Pair<Int, VirtualFile>>>()
+    }
+
+    private class ContentRoots(
+        val directoryRoots: List<Pair<Int, VirtualFile>>,
+        // including the project base directory
+        val directoryRootPaths: List<String>,
+        val fileRootsByName: Map<String, List<Pair<Int, VirtualFile>>>,
+    )
+
+    companion object {
+        private const val MAX_PARENT_DIRECTORIES = 10_000
+
+        private fun changedDirectoryPaths(event: VFileEvent): List<String> {
+            return when {
+                event is VFileCreateEvent -> if (event.isDirectory) listOf(event.path) else emptyList()
+                event.file?.isDirectory != true -> emptyList()
+                event is VFileCopyEvent -> listOf("${event.newParent.path}/${event.newChildName}")
+                event is VFileDeleteEvent -> listOf(event.path)
+                event is VFileMoveEvent -> listOf(event.oldPath, event.newPath)
+                event is VFilePropertyChangeEvent && event.isRename -> listOf(event.oldPath, event.newPath)
+                else -> emptyList()
+            }
+        }
+
+        private fun relativePath(path: String, rootPath: String) = when {
+            path == rootPath -> ""
+            path.startsWith("$rootPath/") -> path.substring(rootPath.length + 1)
+            else -> null
+        }
+    }
+
+}
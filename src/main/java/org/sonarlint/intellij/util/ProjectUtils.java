@@ -21,8 +21,6 @@ package org.sonarlint.intellij.util;
 
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.project.ProjectUtil;
-import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
@@ -36,6 +34,7 @@ import javax.annotation.CheckForNull;
 import org.sonarlint.intellij.finding.TextRangeMatcher;
 
 import static org.sonarlint.intellij.common.ui.ReadActionUtils.computeReadActionSafely;
+import static org.sonarlint.intellij.common.util.SonarLintUtils.getService;
 import static org.sonarlint.intellij.util.SonarLintAppUtils.getRelativePathForAnalysis;
 
 public class ProjectUtils {
@@ -66,30 +65,7 @@ public class ProjectUtils {
 
   @CheckForNull
   public static VirtualFile tryFindFile(Project project, Path filePath) {
-    for (var contentRoot : ProjectRootManager.getInstance(project).getContentRoots()) {
-      if (contentRoot.isDirectory()) {
-        var matchedFile = findByRelativePath(contentRoot, filePath);
-        if (matchedFile != null) {
-          return matchedFile;
-        }
-      } else {
-        // On some version of Rider, all source files are returned as individual content roots, so simply check for equality
-        if (contentRoot.getPath().endsWith(getSystemIndependentPath(filePath))) {
-          return contentRoot;
-        }
-      }
-    }
-
-    // getContentRoots function does not have consistent behaviour across different version of IDEs,
-    // so find the file using root path if it does not work
-    var root = ProjectUtil.guessProjectDir(project);
-    if (root == null) return null;
-    return findByRelativePath(root, filePath);
-  }
-
-  @CheckForNull
-  private static VirtualFile findByRelativePath(VirtualFile file, Path path) {
-    return file.findFileByRelativePath(getSystemIndependentPath(path));
+    return getService(project, ProjectPathIndex.class).findFile(filePath);
   }
 
   public static String getSystemIndependentPath(Path filePath) {
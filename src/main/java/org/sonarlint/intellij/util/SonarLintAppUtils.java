@@ -41,6 +41,7 @@ import org.sonarlint.intellij.common.util.FileUtils;
 
 import static com.intellij.openapi.vfs.VirtualFileVisitor.NO_FOLLOW_SYMLINKS;
 import static org.sonarlint.intellij.common.ui.ReadActionUtils.computeReadActionSafely;
+import static org.sonarlint.intellij.common.util.SonarLintUtils.getService;
 
 public class SonarLintAppUtils {
 
@@ -81,6 +82,22 @@ public class SonarLintAppUtils {
    */
   @CheckForNull
   public static String getRelativePathForAnalysis(Module module, VirtualFile virtualFile) {
+    var project = module.getProject();
+    if (!module.isDisposed() && !project.isDisposed()) {
+      var relativePath = getService(project, ContentRootsIndex.class).getRelativePath(module, virtualFile);
+      if (relativePath != null) {
+        return relativePath;
+      }
+    }
+    return computeRelativePathForAnalysis(module, virtualFile);
+  }
+
+  /**
+   * Tries each strategy in turn, without the help of {@link ContentRootsIndex}. Only used for the files that are neither under the project
+   * base directory nor under a content root of the module.
+   */
+  @CheckForNull
+  static String computeRelativePathForAnalysis(Module module, VirtualFile virtualFile) {
     var relativePathToProject = getPathRelativeToProjectBaseDir(module.getProject(), virtualFile);
     if (relativePathToProject != null) {
       return relativePathToProject;
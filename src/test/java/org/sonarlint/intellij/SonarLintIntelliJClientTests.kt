@@ -19,12 +19,16 @@
  */
 package org.sonarlint.intellij
 
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.WriteAction
 import java.nio.file.Paths
+import java.util.concurrent.TimeUnit
 import org.assertj.core.api.Assertions.assertThat
 import org.assertj.core.api.Assertions.tuple
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.sonarlint.intellij.config.global.ServerConnection
+import org.sonarlint.intellij.core.BackendService
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.config.binding.BindingSuggestionDto
 import org.sonarsource.sonarlint.core.rpc.protocol.client.message.MessageType
 import org.sonarsource.sonarlint.core.rpc.protocol.common.ClientFileDto
@@ -96,6 +100,22 @@ class SonarLintIntelliJClientTests : AbstractSonarLintLightTests() {
             .containsOnly(tuple(Paths.get("sonar-project.properties"), "precontent=hey\n"))
     }
 
+    @Test
+    fun it_should_list_the_same_files_when_listing_by_chunks_in_parallel() {
+        val dir = myFixture.tempDirFixture.findOrCreateDir("listing")
+        WriteAction.runAndWait<Exception> {
+            (0 until 1200).forEach { index -> dir.createChildData(this, "file$index.properties") }
+        }
+        val moduleId = BackendService.moduleId(module)
+
+        val listedOnUiThread = client.listFiles(moduleId)
+        val listedInParallel = ApplicationManager.getApplication().executeOnPooledThread<List<ClientFileDto>> { client.listFiles(moduleId) }
+            .get(1, TimeUnit.MINUTES)
+
+        assertThat(listedInParallel).hasSizeGreaterThanOrEqualTo(1200)
+        assertThat(listedInParallel.map { it.uri }).containsExactlyInAnyOrderElementsOf(listedOnUiThread.map { it.uri })
+    }
+
     @Test
     fun it_should_suggest_exact_binding_if_there_is_one_suggestion() {
         globalSettings.serverConnections = listOf(ServerConnection.newBuilder().setName("connectionId").build())
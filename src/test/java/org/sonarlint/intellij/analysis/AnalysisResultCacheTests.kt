@@ -0,0 +1,159 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.analysis
+
+import com.intellij.lang.Language
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileEditor.FileEditorManager
+import com.intellij.openapi.vfs.VirtualFile
+import java.time.Instant
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
+import org.sonarlint.intellij.finding.LiveFindings
+import org.sonarlint.intellij.trigger.TriggerType
+
+class AnalysisResultCacheTests : AbstractSonarLintLightTests() {
+
+    private lateinit var cache: AnalysisResultCache
+    private lateinit var file: VirtualFile
+
+    @BeforeEach
+    fun prepare() {
+        cache = getService(project, AnalysisResultCache::class.java)
+        cache.invalidate()
+        file = createAndOpenTestVirtualFile("MyClass.java", Language.findLanguageByID("JAVA"), "class MyClass {}")
+        cache.recordContributedProperties(module, mapOf("sonar.java.source" to "17"))
+    }
+
+    @Test
+    fun should_serve_findings_of_unchanged_file() {
+        storeEmptyResult()
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).containsExactly(file)
+    }
+
+    @Test
+    fun should_not_serve_findings_of_modified_file() {
+        storeEmptyResult()
+
+        WriteCommandAction.runWriteCommandAction(project) {
+            FileDocumentManager.getInstance().getDocument(file)!!.insertString(0, "// comment\n")
+        }
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).isEmpty()
+    }
+
+    @Test
+    fun should_not_serve_findings_after_invalidation() {
+        storeEmptyResult()
+
+        cache.invalidate()
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).isEmpty()
+    }
+
+    @Test
+    fun should_only_forget_findings_of_invalidated_files() {
+        val file2 = createAndOpenTestVirtualFile("MyClass2.java", Language.findLanguageByID("JAVA"), "class MyClass2 {}")
+        cache.snapshot(listOf(file, file2)).store(emptyResult(file, file2))
+
+        cache.invalidate(listOf(file2))
+
+        assertThat(cache.getCachedFindings(listOf(file, file2)).files).containsExactly(file)
+    }
+
+    @Test
+    fun should_serve_findings_of_reopened_file() {
+        storeEmptyResult()
+
+        FileEditorManager.getInstance(project).closeFile(file)
+        FileEditorManager.getInstance(project).openFile(file, false)
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).containsExactly(file)
+    }
+
+    @Test
+    fun should_count_hits_and_misses() {
+        val file2 = createAndOpenTestVirtualFile("MyClass2.java", Language.findLanguageByID("JAVA"), "class MyClass2 {}")
+        val smallCache = AnalysisResultCache(project, 2)
+        smallCache.recordContributedProperties(module, mapOf("sonar.java.source" to "17"))
+        smallCache.snapshot(listOf(file)).store(emptyResult(file))
+
+        smallCache.getCachedFindings(listOf(file, file2))
+
+        assertThat(smallCache.summary()).isEqualTo("1 hits, 1 misses")
+    }
+
+    @Test
+    fun should_not_serve_findings_analyzed_with_other_properties() {
+        storeEmptyResult()
+
+        cache.recordContributedProperties(module, mapOf("sonar.java.source" to "21"))
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).isEmpty()
+    }
+
+    @Test
+    fun should_not_serve_findings_of_file_that_failed_to_be_analyzed() {
+        val snapshot = cache.snapshot(listOf(file))
+
+        snapshot.discard(setOf(file))
+        snapshot.store(emptyResult(file))
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).isEmpty()
+    }
+
+    @Test
+    fun should_forget_findings_of_file_that_failed_to_be_analyzed_after_they_were_stored() {
+        val snapshot = cache.snapshot(listOf(file))
+        snapshot.store(emptyResult(file))
+
+        snapshot.discard(setOf(file))
+
+        assertThat(cache.getCachedFindings(listOf(file)).files).isEmpty()
+    }
+
+    @Test
+    fun should_evict_least_recently_used_entries() {
+        val smallCache = AnalysisResultCache(project, 2)
+        smallCache.recordContributedProperties(module, mapOf("sonar.java.source" to "17"))
+        val file2 = createAndOpenTestVirtualFile("MyClass2.java", Language.findLanguageByID("JAVA"), "class MyClass2 {}")
+        val file3 = createAndOpenTestVirtualFile("MyClass3.java", Language.findLanguageByID("JAVA"), "class MyClass3 {}")
+        smallCache.snapshot(listOf(file, file2)).store(emptyResult(file, file2))
+        // file becomes the most recently used entry
+        smallCache.getCachedFindings(listOf(file))
+
+        smallCache.snapshot(listOf(file3)).store(emptyResult(file3))
+
+        assertThat(smallCache.getCachedFindings(listOf(file, file2, file3)).files).containsExactlyInAnyOrder(file, file3)
+    }
+
+    private fun storeEmptyResult() {
+        cache.snapshot(listOf(file)).store(emptyResult(file))
+    }
+
+    private fun emptyResult(vararg files: VirtualFile) =
+        AnalysisResult(null, LiveFindings.none(), files.toMutableList(), TriggerType.EDITOR_CHANGE, Instant.now())
+
+}
@@ -23,17 +23,25 @@ import com.intellij.lang.LanguageExtensionPoint;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.extensions.ExtensionPoint;
 import com.intellij.openapi.extensions.Extensions;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.vfs.VirtualFile;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -52,9 +60,11 @@ import org.sonarlint.intellij.messages.AnalysisListener;
 import org.sonarlint.intellij.trigger.TriggerType;
 import org.sonarlint.intellij.util.VirtualFileUtils;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
+import org.sonarsource.sonarlint.core.commons.api.progress.CanceledException;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedIssueDto;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
@@ -211,6 +221,79 @@ class AnalysisTests extends AbstractSonarLintLightTests {
     Awaitility.await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> verify(sonarLintConsole).info("Analysis canceled"));
   }
 
+  @Test
+  void shouldReadModulesParallelismFromSystemProperty() {
+    try {
+      System.setProperty(Analysis.MODULES_PARALLELISM_PROPERTY, "3");
+      assertThat(Analysis.getModulesParallelism()).isEqualTo(3);
+
+      System.setProperty(Analysis.MODULES_PARALLELISM_PROPERTY, "0");
+      assertThat(Analysis.getModulesParallelism()).isEqualTo(1);
+
+      System.setProperty(Analysis.MODULES_PARALLELISM_PROPERTY, "not a number");
+      assertThat(Analysis.getModulesParallelism()).isPositive();
+    } finally {
+      System.clearProperty(Analysis.MODULES_PARALLELISM_PROPERTY);
+    }
+  }
+
+  @Test
+  void shouldMergeTheResultsOfModulesAnalyzedConcurrently() {
+    var module1 = aModule("module1");
+    var module2 = aModule("module2");
+    var file1 = mock(VirtualFile.class);
+    var file2 = mock(VirtualFile.class);
+    when(sonarLintAnalyzer.analyzeModule(eq(module1), any(), any(AnalysisState.class), any(ProgressIndicator.class), any(Boolean.class)))
+      .thenReturn(new ModuleAnalysisResult(Set.of(file1)));
+    when(sonarLintAnalyzer.analyzeModule(eq(module2), any(), any(AnalysisState.class), any(ProgressIndicator.class), any(Boolean.class)))
+      .thenReturn(new ModuleAnalysisResult(Set.of(file2)));
+    var filesByModule = new LinkedHashMap<Module, Collection<VirtualFile>>();
+    filesByModule.put(module1, new ArrayList<>(List.of(file1)));
+    filesByModule.put(module2, new ArrayList<>(List.of(file2)));
+
+    var summary = task.analyzeModulesConcurrently(filesByModule, 2, new EmptyProgressIndicator(), false);
+
+    assertThat(summary.failedFiles()).containsOnly(file1, file2);
+    assertThat(summary.analysisIds()).hasSize(2).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void shouldCancelTheOtherModulesWhenAModuleCancelsTheAnalysis() {
+    var module1 = aModule("module1");
+    var module2 = aModule("module2");
+    var indicator = new EmptyProgressIndicator();
+    var module2Started = new CountDownLatch(1);
+    var module2Cancelled = new AtomicBoolean();
+    when(sonarLintAnalyzer.analyzeModule(eq(module1), any(), any(AnalysisState.class), any(ProgressIndicator.class), any(Boolean.class)))
+      .thenAnswer(invocation -> {
+        module2Started.await(2, TimeUnit.SECONDS);
+        indicator.cancel();
+        throw new ProcessCanceledException();
+      });
+    when(sonarLintAnalyzer.analyzeModule(eq(module2), any(), any(AnalysisState.class), any(ProgressIndicator.class), any(Boolean.class)))
+      .thenAnswer(invocation -> {
+        module2Started.countDown();
+        ProgressIndicator moduleIndicator = invocation.getArgument(3);
+        Awaitility.await().atMost(2, TimeUnit.SECONDS).until(moduleIndicator::isCanceled);
+        module2Cancelled.set(true);
+        throw new ProcessCanceledException();
+      });
+    var filesByModule = new LinkedHashMap<Module, Collection<VirtualFile>>();
+    filesByModule.put(module1, new ArrayList<>());
+    filesByModule.put(module2, new ArrayList<>());
+
+    assertThatThrownBy(() -> task.analyzeModulesConcurrently(filesByModule, 2, indicator, false))
+      .isInstanceOfAny(ProcessCanceledException.class, CanceledException.class);
+    Awaitility.await().atMost(2, TimeUnit.SECONDS).untilTrue(module2Cancelled);
+  }
+
+  private Module aModule(String name) {
+    var module = mock(Module.class);
+    when(module.getName()).thenReturn(name);
+    when(module.getProject()).thenReturn(getProject());
+    return module;
+  }
+
   private List<LanguageExtensionPoint<?>> getExternalAnnotators() {
     ExtensionPoint<@org.jetbrains.annotations.NotNull LanguageExtensionPoint<?>> extensionPoint = Extensions.getRootArea().getExtensionPoint("com.intellij.externalAnnotator");
     return extensionPoint.extensions().toList();
@@ -0,0 +1,142 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.analysis
+
+import com.intellij.openapi.editor.RangeMarker
+import com.intellij.openapi.util.TextRange
+import java.util.Optional
+import java.util.UUID
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.`when`
+import org.sonarlint.intellij.finding.FindingContext
+import org.sonarlint.intellij.finding.Flow
+import org.sonarlint.intellij.finding.Location
+import org.sonarlint.intellij.finding.QuickFix
+import org.sonarlint.intellij.finding.fileOnlyLocation
+import org.sonarlint.intellij.finding.issue.LiveIssue
+import org.sonarlint.intellij.finding.resolvedLocation
+
+class FindingsDiffTests {
+
+    @Test
+    fun should_consider_all_findings_added_when_nothing_was_known() {
+        val issue = anIssue(UUID.randomUUID(), "message", 0, 5)
+
+        val diff = FindingsDiff.compute(null, listOf(issue))
+
+        assertThat(diff.added).containsExactly(issue)
+        assertThat(diff.removed).isEmpty()
+        assertThat(diff.changed).isEmpty()
+        assertThat(diff.merged).containsExactly(issue)
+    }
+
+    @Test
+    fun should_keep_previous_instances_of_unchanged_findings() {
+        val id = UUID.randomUUID()
+        val previous = anIssue(id, "message", 0, 5)
+        val current = anIssue(id, "message", 0, 5)
+
+        val diff = FindingsDiff.compute(listOf(previous), listOf(current))
+
+        assertThat(diff.isEmpty()).isTrue()
+        assertThat(diff.merged).containsExactly(previous)
+    }
+
+    @Test
+    fun should_compute_added_removed_and_changed_findings() {
+        val movedId = UUID.randomUUID()
+        val previousMoved = anIssue(movedId, "message", 0, 5)
+        val removed = anIssue(UUID.randomUUID(), "removed", 10, 15)
+        val currentMoved = anIssue(movedId, "message", 2, 7)
+        val added = anIssue(UUID.randomUUID(), "added", 20, 25)
+
+        val diff = FindingsDiff.compute(listOf(previousMoved, removed), listOf(currentMoved, added))
+
+        assertThat(diff.isEmpty()).isFalse()
+        assertThat(diff.added).containsExactly(added)
+        assertThat(diff.removed).containsExactly(removed)
+        assertThat(diff.changed).containsExactly(currentMoved)
+        assertThat(diff.merged).containsExactly(currentMoved, added)
+    }
+
+    @Test
+    fun should_consider_a_finding_changed_when_a_quick_fix_changed() {
+        val id = UUID.randomUUID()
+        val previous = anIssue(id, "message", 0, 5)
+        `when`(previous.quickFixes()).thenReturn(listOf(QuickFix("Remove this", emptyList())))
+        val current = anIssue(id, "message", 0, 5)
+        `when`(current.quickFixes()).thenReturn(listOf(QuickFix("Rename this", emptyList())))
+
+        val diff = FindingsDiff.compute(listOf(previous), listOf(current))
+
+        assertThat(diff.changed).containsExactly(current)
+        assertThat(diff.merged).containsExactly(current)
+    }
+
+    @Test
+    fun should_consider_a_finding_changed_when_a_flow_location_moved() {
+        val id = UUID.randomUUID()
+        val previous = anIssue(id, "message", 0, 5)
+        `when`(previous.context()).thenReturn(aContext(aLocation(10, 15)))
+        val current = anIssue(id, "message", 0, 5)
+        `when`(current.context()).thenReturn(aContext(aLocation(12, 17)))
+
+        val diff = FindingsDiff.compute(listOf(previous), listOf(current))
+
+        assertThat(diff.changed).containsExactly(current)
+    }
+
+    @Test
+    fun should_keep_previous_instances_of_findings_with_equivalent_flows() {
+        val id = UUID.randomUUID()
+        val previous = anIssue(id, "message", 0, 5)
+        `when`(previous.context()).thenReturn(aContext(aLocation(10, 15), fileOnlyLocation(null, "file")))
+        val current = anIssue(id, "message", 0, 5)
+        `when`(current.context()).thenReturn(aContext(aLocation(10, 15), fileOnlyLocation(null, "file")))
+
+        val diff = FindingsDiff.compute(listOf(previous), listOf(current))
+
+        assertThat(diff.isEmpty()).isTrue()
+        assertThat(diff.merged).containsExactly(previous)
+    }
+
+    private fun aContext(vararg locations: Location) = Optional.of(FindingContext(listOf(Flow(1, locations.toList()))))
+
+    private fun aLocation(start: Int, end: Int): Location {
+        val range = mock(RangeMarker::class.java)
+        `when`(range.isValid).thenReturn(true)
+        `when`(range.startOffset).thenReturn(start)
+        `when`(range.endOffset).thenReturn(end)
+        return resolvedLocation(null, range, "location", null)
+    }
+
+    private fun anIssue(id: UUID, message: String, start: Int, end: Int): LiveIssue {
+        val issue = mock(LiveIssue::class.java)
+        `when`(issue.backendId).thenReturn(id)
+        `when`(issue.ruleKey).thenReturn("java:S123")
+        `when`(issue.message).thenReturn(message)
+        `when`(issue.validTextRange).thenReturn(TextRange(start, end))
+        `when`(issue.isValid).thenReturn(true)
+        return issue
+    }
+
+}
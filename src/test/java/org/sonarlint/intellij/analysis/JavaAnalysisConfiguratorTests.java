@@ -229,6 +229,30 @@ class JavaAnalysisConfiguratorTests extends AbstractSonarLintLightTests {
       .containsEntry("sonar.java.jdkHome", FAKE_JDK_ROOT_PATH.resolve("jdk1.8").toRealPath().toString());
   }
 
+  @Test
+  void should_recompute_classpath_when_module_roots_change() throws IOException {
+    var propsBefore = underTest.configure(getModule(), Collections.emptyList()).extraProperties;
+    var newLibPath = createFile(tempDirPath.resolve("newLib.jar"));
+
+    ModuleRootModificationUtil.updateModel(getModule(), model -> addLibrary(newLibPath, "newLib", model, DependencyScope.COMPILE, false));
+
+    assertThat(propsBefore.get("sonar.java.libraries")).doesNotContain(newLibPath.toRealPath().toString());
+    assertThat(underTest.configure(getModule(), Collections.emptyList()).extraProperties.get("sonar.java.libraries"))
+      .contains(newLibPath.toRealPath().toString());
+  }
+
+  @Test
+  void should_check_compiler_outputs_on_each_analysis() throws IOException {
+    var outputPath = compilerTestOutputDirPath.toRealPath().toString();
+    Files.delete(compilerTestOutputDirPath);
+    assertThat(underTest.configure(getModule(), Collections.emptyList()).extraProperties).doesNotContainKey("sonar.java.test.binaries");
+
+    // e.g. created by a build from the command line
+    Files.createDirectory(compilerTestOutputDirPath);
+
+    assertThat(underTest.configure(getModule(), Collections.emptyList()).extraProperties).containsEntry("sonar.java.test.binaries", outputPath);
+  }
+
   private static Sdk addRtJarTo(@NotNull Sdk jdk) {
     try {
       jdk = (Sdk) jdk.clone();
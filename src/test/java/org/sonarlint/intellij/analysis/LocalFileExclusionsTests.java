@@ -126,6 +126,29 @@ class LocalFileExclusionsTests extends AbstractSonarLintLightTests {
     assertIsNotExcluded(file, nonExcludedFilesByModule);
   }
 
+  @Test
+  void should_take_exclusions_changes_into_account_after_a_first_check() {
+    var file = myFixture.copyFileToProject("foo.php", "foo.php");
+    assertIsNotExcluded(file, underTest.retainNonExcludedFilesByModules(List.of(file), false, excludeReasons::put));
+
+    setProjectLevelExclusions(List.of("GLOB:foo.php"));
+
+    var nonExcludedFilesByModule = underTest.retainNonExcludedFilesByModules(List.of(file), false, excludeReasons::put);
+    assertIsExcluded(file, nonExcludedFilesByModule, "file matches exclusions defined in the SonarQube for IDE Project Settings");
+  }
+
+  @Test
+  void should_take_file_rename_into_account_after_a_first_check() throws Exception {
+    var file = myFixture.copyFileToProject("foo.php", "foo.php");
+    setProjectLevelExclusions(List.of("GLOB:bar.php"));
+    assertIsNotExcluded(file, underTest.retainNonExcludedFilesByModules(List.of(file), false, excludeReasons::put));
+
+    WriteAction.runAndWait(() -> file.rename(null, "bar.php"));
+
+    var nonExcludedFilesByModule = underTest.retainNonExcludedFilesByModules(List.of(file), false, excludeReasons::put);
+    assertIsExcluded(file, nonExcludedFilesByModule, "file matches exclusions defined in the SonarQube for IDE Project Settings");
+  }
+
   private void triggerFileExclusions(String exclusionPattern) {
     var globalSettings = new SonarLintGlobalSettings();
     globalSettings.setFileExclusions(List.of(exclusionPattern));
@@ -160,6 +183,30 @@ class LocalFileExclusionsTests extends AbstractSonarLintLightTests {
     }
   }
 
+  @Test
+  void should_check_several_files_at_once() {
+    var sourceFile = myFixture.copyFileToProject("foo.php", "foo.php");
+    var binaryFile = myFixture.copyFileToProject("foo.bin", "foo.bin");
+
+    var nonExcludedFilesByModule = underTest.retainNonExcludedFilesByModules(List.of(sourceFile, binaryFile), false, excludeReasons::put);
+
+    assertThat(nonExcludedFilesByModule.get(getModule())).containsExactly(sourceFile);
+    assertThat(excludeReasons).containsOnlyKeys(binaryFile);
+    assertThat(excludeReasons.get(binaryFile).excludeReason()).isEqualTo("file's type or location are not supported");
+  }
+
+  @Test
+  void should_cumulate_time_spent_per_checker() {
+    var timings = new LocalFileExclusions.ExclusionCheckTimings();
+
+    var next = timings.record(LocalFileExclusions.ExclusionChecker.VCS, System.nanoTime() - 3_000_000);
+    timings.record(LocalFileExclusions.ExclusionChecker.VCS, next - 2_000_000);
+
+    assertThat(timings.getMillis(LocalFileExclusions.ExclusionChecker.VCS)).isGreaterThanOrEqualTo(5);
+    assertThat(timings.getMillis(LocalFileExclusions.ExclusionChecker.SETTINGS)).isZero();
+    assertThat(timings.toString()).contains("vcs=", "settings=0ms");
+  }
+
   private void assertIsNotExcluded(VirtualFile file, Map<Module, Collection<VirtualFile>> nonExcludedFilesByModule) {
     assertThat(excludeReasons).isEmpty();
     assertThat(nonExcludedFilesByModule.get(getModule())).containsExactly(file);
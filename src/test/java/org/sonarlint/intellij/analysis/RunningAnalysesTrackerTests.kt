@@ -0,0 +1,118 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.analysis
+
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.vfs.VirtualFile
+import java.util.UUID
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.common.ui.SonarLintConsole
+import org.sonarlint.intellij.trigger.TriggerType
+
+class RunningAnalysesTrackerTests : AbstractSonarLintLightTests() {
+
+    private val file1 = Mockito.mock(VirtualFile::class.java)
+    private val file2 = Mockito.mock(VirtualFile::class.java)
+    private val file3 = Mockito.mock(VirtualFile::class.java)
+    private val callback = Mockito.mock(AnalysisCallback::class.java)
+    private val console = Mockito.mock(SonarLintConsole::class.java)
+    private lateinit var tracker: RunningAnalysesTracker
+
+    @BeforeEach
+    fun init() {
+        tracker = RunningAnalysesTracker()
+    }
+
+    @Test
+    fun should_take_over_overlapping_files_of_an_on_the_fly_analysis() {
+        val oldProgress = Mockito.mock(ProgressIndicator::class.java)
+        val oldAnalysis = start(mutableListOf(file1, file2), TriggerType.EDITOR_CHANGE, oldProgress)
+
+        val newAnalysis = start(mutableListOf(file2, file3), TriggerType.EDITOR_CHANGE)
+
+        verify(oldProgress, never()).cancel()
+        assertThat(oldAnalysis.ownedFiles()).containsExactly(file1)
+        assertThat(newAnalysis.ownedFiles()).containsExactly(file2, file3)
+        assertThat(tracker.getSkippedFileConversions()).isEqualTo(1)
+        assertThat(tracker.getAvoidedDuplicateFileAnalyses()).isZero()
+        assertThat(tracker.getCancelledAnalyses()).isZero()
+
+        tracker.finish(newAnalysis)
+
+        assertThat(tracker.isAnalyzing(file1)).isTrue()
+        assertThat(tracker.isAnalyzing(file2)).isFalse()
+    }
+
+    @Test
+    fun should_cancel_an_on_the_fly_analysis_when_all_its_files_are_taken_over() {
+        val firstProgress = Mockito.mock(ProgressIndicator::class.java)
+        start(mutableListOf(file1, file2), TriggerType.EDITOR_CHANGE, firstProgress)
+        start(mutableListOf(file2, file3), TriggerType.EDITOR_CHANGE)
+
+        start(mutableListOf(file1), TriggerType.EDITOR_OPEN)
+
+        verify(firstProgress).cancel()
+        assertThat(tracker.getSkippedFileConversions()).isEqualTo(1)
+        assertThat(tracker.getAvoidedDuplicateFileAnalyses()).isEqualTo(1)
+        assertThat(tracker.getCancelledAnalyses()).isEqualTo(1)
+        assertThat(tracker.summary())
+            .isEqualTo("1 analyses cancelled, 1 duplicate file analyses avoided, 1 file findings conversions skipped since startup")
+    }
+
+    @Test
+    fun should_not_take_over_files_of_a_snapshot_analysis() {
+        val snapshotProgress = Mockito.mock(ProgressIndicator::class.java)
+        val snapshotAnalysis = start(mutableListOf(file1, file2), TriggerType.ALL, snapshotProgress)
+
+        start(mutableListOf(file2, file3), TriggerType.CHANGED_FILES)
+
+        verify(snapshotProgress, never()).cancel()
+        assertThat(snapshotAnalysis.ownedFiles()).containsExactly(file1, file2)
+        assertThat(tracker.getAvoidedDuplicateFileAnalyses()).isZero()
+    }
+
+    @Test
+    fun should_cancel_a_snapshot_analysis_contained_in_a_new_one() {
+        val snapshotProgress = Mockito.mock(ProgressIndicator::class.java)
+        start(mutableListOf(file1), TriggerType.RIGHT_CLICK, snapshotProgress)
+
+        start(mutableListOf(file1, file2), TriggerType.ALL)
+
+        verify(snapshotProgress).cancel()
+        assertThat(tracker.getAvoidedDuplicateFileAnalyses()).isEqualTo(1)
+        assertThat(tracker.getCancelledAnalyses()).isEqualTo(1)
+    }
+
+    private fun start(
+        files: MutableList<VirtualFile>,
+        triggerType: TriggerType,
+        progress: ProgressIndicator = Mockito.mock(ProgressIndicator::class.java),
+    ): AnalysisState {
+        val analysisState = AnalysisState(UUID.randomUUID(), callback, files, module, triggerType, progress)
+        tracker.trackReplacingSimilar(analysisState, console)
+        return analysisState
+    }
+}
@@ -629,4 +629,22 @@ class BackendServiceTests : AbstractSonarLintHeavyTests() {
         assertThat(paramsCaptor.firstValue.credentials.isRight).isTrue()
     }
 
+    @Test
+    fun test_find_configuration_scopes_of_an_opened_project() {
+        service.projectOpened(project)
+
+        assertThat(BackendService.findProject(projectBackendId(project))).isEqualTo(project)
+        assertThat(BackendService.findModule(moduleBackendId(module))).isEqualTo(module)
+        assertThat(BackendService.findModule(projectBackendId(project))).isNull()
+        assertThat(BackendService.findModule("unknown")).isNull()
+    }
+
+    @Test
+    fun test_find_module_after_it_was_removed_and_added_again() {
+        service.moduleRemoved(module)
+        service.modulesAdded(project, listOf(module))
+
+        assertThat(BackendService.findModule(moduleBackendId(module))).isEqualTo(module)
+    }
+
 }
@@ -20,6 +20,7 @@
 package org.sonarlint.intellij.editor;
 
 import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
@@ -103,4 +104,45 @@ class SonarExternalAnnotatorTests extends AbstractSonarLintLightTests {
     assertThat(SonarExternalAnnotator.getTextAttrsKey(getProject(), ImpactSeverity.BLOCKER, IssueSeverity.INFO, true)).isEqualTo(SonarLintTextAttributes.BLOCKER);
     assertThat(SonarExternalAnnotator.getTextAttrsKey(getProject(), ImpactSeverity.INFO, IssueSeverity.INFO, true)).isEqualTo(SonarLintTextAttributes.INFO);
   }
+
+  @Test
+  void should_reuse_the_annotation_plan_while_the_file_and_findings_are_unchanged() {
+    var file = myFixture.configureByText("Plan.java", "class Plan {}");
+    var annotator = new SonarExternalAnnotator();
+
+    var firstPlan = annotator.doAnnotate(annotator.collectInformation(file));
+    var secondPlan = annotator.doAnnotate(annotator.collectInformation(file));
+
+    assertThat(firstPlan).isNotNull();
+    assertThat(firstPlan.isReused()).isFalse();
+    assertThat(secondPlan).isNotNull();
+    assertThat(secondPlan.isReused()).isTrue();
+  }
+
+  @Test
+  void should_compute_a_new_annotation_plan_when_the_document_changes() {
+    var file = myFixture.configureByText("Plan.java", "class Plan {}");
+    var annotator = new SonarExternalAnnotator();
+    var firstPlan = annotator.doAnnotate(annotator.collectInformation(file));
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> myFixture.getEditor().getDocument().insertString(0, "// comment\n"));
+
+    var secondPlan = annotator.doAnnotate(annotator.collectInformation(file));
+    assertThat(firstPlan).isNotNull();
+    assertThat(secondPlan).isNotNull();
+    assertThat(secondPlan.isReused()).isFalse();
+  }
+
+  @Test
+  void should_compute_a_new_annotation_plan_once_the_previous_one_is_forgotten() {
+    var file = myFixture.configureByText("Plan.java", "class Plan {}");
+    var annotator = new SonarExternalAnnotator();
+    annotator.doAnnotate(annotator.collectInformation(file));
+
+    SonarExternalAnnotator.forgetAnnotationPlan(file.getVirtualFile());
+
+    var secondPlan = annotator.doAnnotate(annotator.collectInformation(file));
+    assertThat(secondPlan).isNotNull();
+    assertThat(secondPlan.isReused()).isFalse();
+  }
 }
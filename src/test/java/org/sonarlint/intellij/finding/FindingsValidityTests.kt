@@ -0,0 +1,100 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.finding
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.editor.RangeMarker
+import com.intellij.openapi.vfs.VirtualFile
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.finding.issue.LiveIssue
+import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedIssueDto
+import org.sonarsource.sonarlint.core.rpc.protocol.common.Either
+import org.sonarsource.sonarlint.core.rpc.protocol.common.IssueSeverity
+import org.sonarsource.sonarlint.core.rpc.protocol.common.RuleType
+import org.sonarsource.sonarlint.core.rpc.protocol.common.StandardModeDetails
+
+class FindingsValidityTests : AbstractSonarLintLightTests() {
+
+    @Test
+    fun should_filter_out_findings_invalidated_by_a_document_change() {
+        val file = myFixture.configureByText("file.ext", "first line\nsecond line").virtualFile
+        val document = myFixture.getDocument(myFixture.file)
+        val firstIssue = anIssue(file, document.createRangeMarker(0, 5))
+        val secondIssue = anIssue(file, document.createRangeMarker(11, 17))
+        val issues = listOf(firstIssue, secondIssue)
+
+        assertThat(FindingsValidity.filterValid(file, issues)).containsExactly(firstIssue, secondIssue)
+
+        WriteCommandAction.runWriteCommandAction(project) { document.deleteString(10, document.textLength) }
+
+        assertThat(FindingsValidity.filterValid(file, issues)).containsExactly(firstIssue)
+    }
+
+    @Test
+    fun should_reuse_the_result_while_the_document_and_findings_are_unchanged() {
+        val file = myFixture.configureByText("file.ext", "first line\nsecond line").virtualFile
+        val document = myFixture.getDocument(myFixture.file)
+        val issues = listOf(anIssue(file, document.createRangeMarker(0, 5)), anIssue(file, document.createRangeMarker(11, 17)))
+
+        val firstResult = FindingsValidity.filterValid(file, issues)
+
+        assertThat(FindingsValidity.filterValid(file, issues)).isSameAs(firstResult)
+        assertThat(FindingsValidity.filterValid(file, issues.toList())).isNotSameAs(firstResult).isEqualTo(firstResult)
+        WriteCommandAction.runWriteCommandAction(project) { document.insertString(0, "// ") }
+        assertThat(FindingsValidity.filterValid(file, issues)).isNotSameAs(firstResult).isEqualTo(firstResult)
+    }
+
+    @Test
+    fun should_check_a_collection_changed_in_place() {
+        val file = myFixture.configureByText("file.ext", "first line
+second line").virtualFile
+        val document = myFixture.getDocument(myFixture.file)
+        val firstIssue = anIssue(file, document.createRangeMarker(0, 5))
+        val secondIssue = anIssue(file, document.createRangeMarker(11, 17))
+        val issues = mutableListOf(firstIssue)
+        assertThat(FindingsValidity.filterValid(file, issues)).containsExactly(firstIssue)
+
+        issues[0] = secondIssue
+
+        assertThat(FindingsValidity.filterValid(file, issues)).containsExactly(secondIssue)
+    }
+
+    @Test
+    fun should_consider_findings_without_range_as_valid() {
+        val file = myFixture.configureByText("file.ext", "content").virtualFile
+        val fileLevelIssue = LiveIssue(module, aRaisedIssue(), file, emptyList())
+
+        assertThat(FindingsValidity.filterValid(file, listOf(fileLevelIssue))).containsExactly(fileLevelIssue)
+    }
+
+    private fun anIssue(file: VirtualFile, range: RangeMarker) =
+        LiveIssue(module, aRaisedIssue(), file, range, null, emptyList())
+
+    private fun aRaisedIssue(): RaisedIssueDto {
+        val issue = mock(RaisedIssueDto::class.java)
+        `when`(issue.ruleKey).thenReturn("rule")
+        `when`(issue.severityMode).thenReturn(Either.forLeft(StandardModeDetails(IssueSeverity.MAJOR, RuleType.BUG)))
+        return issue
+    }
+}
@@ -65,4 +65,41 @@ class TextRangeMatcherTest {
         assertThat(result.endLineOffset).isEqualTo(4)
     }
 
+    @Test
+    fun should_shift_lines_after_last_code_line_by_all_markdown_lines() {
+        val fileContent = """
+            #%%
+            t = 1
+            #%% md
+            test message
+        """.trimIndent()
+
+        val result = computeTextRangeForNotebook(fileContent, 3, 1, 4, 2)
+
+        assertThat(result.startLine).isEqualTo(5)
+        assertThat(result.startLineOffset).isEqualTo(1)
+        assertThat(result.endLine).isEqualTo(6)
+        assertThat(result.endLineOffset).isEqualTo(2)
+    }
+
+    @Test
+    fun should_reuse_notebook_layout_for_many_ranges() {
+        val notebookLines = TextRangeMatcher.NotebookLines.of(
+            """
+            #%% md
+            title
+            #%%
+            t = 1
+            #%% raw
+            raw
+            #%%
+            t = 2
+            """.trimIndent()
+        )
+
+        assertThat(notebookLines.shift(1, 0, 1, 3).startLine).isEqualTo(3)
+        assertThat(notebookLines.shift(2, 0, 2, 3).startLine).isEqualTo(4)
+        assertThat(notebookLines.shift(4, 0, 4, 3).startLine).isEqualTo(8)
+    }
+
 }
@@ -0,0 +1,96 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.finding.issue.vulnerabilities
+
+import com.intellij.openapi.vfs.VirtualFile
+import java.util.UUID
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.`when`
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+
+class TaintVulnerabilitiesCacheTests : AbstractSonarLintLightTests() {
+
+    private val file1 = mock(VirtualFile::class.java)
+    private val file2 = mock(VirtualFile::class.java)
+    private lateinit var cache: TaintVulnerabilitiesCache
+
+    @BeforeEach
+    fun init() {
+        cache = TaintVulnerabilitiesCache(project)
+    }
+
+    @Test
+    fun should_index_taint_vulnerabilities_by_file() {
+        val taint1 = aTaintVulnerability("key1", file1)
+        val taint2 = aTaintVulnerability("key2", file2)
+        val taint3 = aTaintVulnerability("key3", file1)
+
+        cache.taintVulnerabilities = listOf(taint1, taint2, taint3)
+
+        assertThat(cache.getTaintVulnerabilitiesForFile(file1)).containsExactly(taint1, taint3)
+        assertThat(cache.getTaintVulnerabilitiesForFile(file2)).containsExactly(taint2)
+        assertThat(cache.taintVulnerabilities).containsExactly(taint1, taint2, taint3)
+    }
+
+    @Test
+    fun should_apply_removals_additions_and_updates() {
+        val removed = aTaintVulnerability("key1", file1)
+        val outdated = aTaintVulnerability("key2", file1)
+        cache.taintVulnerabilities = listOf(removed, outdated)
+        val added = aTaintVulnerability("key3", file2)
+        val updated = aTaintVulnerability("key2", file1)
+
+        val removedIds = cache.update(setOf(removed.getId()), listOf(added), listOf(updated))
+
+        assertThat(removedIds).containsExactlyInAnyOrder(removed.getId(), outdated.getId())
+        assertThat(cache.getTaintVulnerabilitiesForFile(file1)).containsExactly(updated)
+        assertThat(cache.getTaintVulnerabilitiesForFile(file2)).containsExactly(added)
+        assertThat(cache.taintVulnerabilities).containsExactlyInAnyOrder(added, updated)
+        assertThat(cache.getFocusAwareCount()).isEqualTo(2)
+    }
+
+    @Test
+    fun should_count_resolved_taint_vulnerabilities_only_when_requested() {
+        val open = aTaintVulnerability("key1", file1)
+        val resolved = aTaintVulnerability("key2", file1, isResolved = true)
+        cache.taintVulnerabilities = listOf(open, resolved)
+
+        assertThat(cache.getFocusAwareCount(false)).isEqualTo(1)
+        assertThat(cache.getFocusAwareCount(true)).isEqualTo(2)
+
+        assertThat(cache.remove(resolved)).isEqualTo(resolved.getId())
+        assertThat(cache.getFocusAwareCount(true)).isEqualTo(1)
+        assertThat(cache.getTaintVulnerabilitiesForFile(file1)).containsExactly(open)
+    }
+
+    private fun aTaintVulnerability(serverKey: String, file: VirtualFile, isResolved: Boolean = false): LocalTaintVulnerability {
+        val taintVulnerability = mock(LocalTaintVulnerability::class.java)
+        val id = UUID.randomUUID()
+        `when`(taintVulnerability.getId()).thenReturn(id)
+        `when`(taintVulnerability.getServerKey()).thenReturn(serverKey)
+        `when`(taintVulnerability.file()).thenReturn(file)
+        `when`(taintVulnerability.isResolved()).thenReturn(isResolved)
+        return taintVulnerability
+    }
+
+}
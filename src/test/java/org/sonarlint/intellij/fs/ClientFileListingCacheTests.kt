@@ -0,0 +1,139 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.fs
+
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.vfs.VirtualFile
+import java.net.URI
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.attribute.FileTime
+import org.apache.commons.codec.digest.DigestUtils
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
+import org.sonarsource.sonarlint.core.rpc.protocol.common.ClientFileDto
+
+class ClientFileListingCacheTests : AbstractSonarLintLightTests() {
+
+    @Test
+    fun should_reuse_a_file_listed_in_a_previous_session() {
+        val file = myFixture.addFileToProject("src/Listed.java", "class Listed {}").virtualFile
+        val listing = open("listing-reused")
+        listing.record(file, clientFileDto(file))
+        listing.saveInBackground().get()
+
+        val cached = open("listing-reused").getCached(file, "listing-reused")
+
+        assertThat(cached).isNotNull
+        assertThat(cached!!.uri).isEqualTo(URI.create("file:///src/Listed.java"))
+        assertThat(cached.ideRelativePath).isEqualTo(Paths.get("src/Listed.java"))
+        assertThat(cached.charset).isEqualTo("UTF-8")
+    }
+
+    @Test
+    fun should_not_reuse_a_file_modified_since_it_was_listed() {
+        val file = myFixture.addFileToProject("src/Modified.java", "class Modified {}").virtualFile
+        val listing = open("listing-modified")
+        listing.record(file, clientFileDto(file))
+        listing.saveInBackground().get()
+
+        WriteAction.runAndWait<Throwable> { file.setBinaryContent("class Modified { }".toByteArray(), -1, file.timeStamp + 1000) }
+
+        assertThat(open("listing-modified").getCached(file, "listing-modified")).isNull()
+    }
+
+    @Test
+    fun should_not_cache_files_sent_with_their_content() {
+        val file = myFixture.addFileToProject("src/sonar-project.properties", "sonar.projectKey=key").virtualFile
+        val listing = open("listing-content")
+        listing.record(file, clientFileDto(file, "sonar.projectKey=key"))
+        listing.saveInBackground().get()
+
+        assertThat(open("listing-content").getCached(file, "listing-content")).isNull()
+    }
+
+    @Test
+    fun should_not_rewrite_a_listing_that_did_not_change() {
+        val file = myFixture.addFileToProject("src/Unchanged.java", "class Unchanged {}").virtualFile
+        val listing = open("listing-unchanged")
+        listing.record(file, clientFileDto(file))
+        listing.saveInBackground().get()
+        val storagePath = storagePath("listing-unchanged")
+        val writtenTime = FileTime.fromMillis(0)
+        Files.setLastModifiedTime(storagePath, writtenTime)
+
+        val reopened = open("listing-unchanged")
+        assertThat(reopened.getCached(file, "listing-unchanged")).isNotNull
+        reopened.saveInBackground().get()
+
+        assertThat(Files.getLastModifiedTime(storagePath)).isEqualTo(writtenTime)
+    }
+
+    @Test
+    fun should_rewrite_a_listing_with_a_new_file() {
+        val file = myFixture.addFileToProject("src/Existing.java", "class Existing {}").virtualFile
+        val newFile = myFixture.addFileToProject("src/Added.java", "class Added {}").virtualFile
+        val listing = open("listing-added")
+        listing.record(file, clientFileDto(file))
+        listing.saveInBackground().get()
+
+        val reopened = open("listing-added")
+        reopened.getCached(file, "listing-added")
+        reopened.record(newFile, clientFileDto(newFile))
+        reopened.saveInBackground().get()
+
+        assertThat(open("listing-added").getCached(newFile, "listing-added")).isNotNull
+    }
+
+    @Test
+    fun should_keep_one_complete_listing_when_saving_concurrently() {
+        val first = myFixture.addFileToProject("src/First.java", "class First {}").virtualFile
+        val second = myFixture.addFileToProject("src/Second.java", "class Second {}").virtualFile
+        val firstListing = open("listing-concurrent")
+        firstListing.record(first, clientFileDto(first))
+        val secondListing = open("listing-concurrent")
+        secondListing.record(second, clientFileDto(second))
+
+        val saves = listOf(firstListing.saveInBackground(), secondListing.saveInBackground())
+        saves.forEach { it.get() }
+
+        val reopened = open("listing-concurrent")
+        val firstCached = reopened.getCached(first, "listing-concurrent") != null
+        val secondCached = reopened.getCached(second, "listing-concurrent") != null
+        assertThat(firstCached).isNotEqualTo(secondCached)
+        Files.list(storagePath("listing-concurrent").parent).use { files ->
+            assertThat(files.map { it.fileName.toString() }.toList()).noneMatch { it.endsWith(".tmp") }
+        }
+    }
+
+    private fun open(configScopeId: String) = getService(project, ClientFileListingCache::class.java).open(configScopeId, module)
+
+    private fun storagePath(configScopeId: String) =
+        Paths.get(PathManager.getSystemPath()).resolve("sonarlint/file-listings").resolve(project.locationHash).resolve(DigestUtils.md5Hex(configScopeId))
+
+    private fun clientFileDto(file: VirtualFile, content: String? = null) = ClientFileDto(
+        URI.create("file:///" + file.path.removePrefix("/")), Paths.get(file.path.removePrefix("/")), "configScopeId", false, "UTF-8",
+        Paths.get(file.path), content, null, true
+    )
+
+}
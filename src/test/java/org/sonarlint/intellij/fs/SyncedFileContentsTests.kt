@@ -0,0 +1,89 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.fs
+
+import java.net.URI
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.sonarlint.intellij.util.ContentHash
+
+class SyncedFileContentsTests {
+
+    private val uri = URI.create("file:///project/Parser.java")
+    private val syncedFileContents = SyncedFileContents()
+
+    @Test
+    fun should_not_send_the_same_content_twice() {
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser {}")).isNotNull()
+
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser {}")).isNull()
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser { }")).isNotNull()
+        assertThat(syncedFileContents.summary()).isEqualTo("2 files sent with content (31 chars), 1 unchanged files skipped")
+    }
+
+    @Test
+    fun should_send_an_undo_while_the_change_is_in_flight() {
+        syncedFileContents.recordSent(uri, ContentHash.of("class Parser {}"), "class Parser {}")
+
+        val changeHash = syncedFileContents.hashToSend(uri, "class Parser { }")
+        val undoHash = syncedFileContents.hashToSend(uri, "class Parser {}")
+
+        assertThat(changeHash).isNotNull()
+        assertThat(undoHash).isNotNull()
+    }
+
+    @Test
+    fun should_send_content_again_when_sending_failed() {
+        val hash = syncedFileContents.hashToSend(uri, "class Parser {}")!!
+
+        syncedFileContents.forgetFailed(uri, hash)
+
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser {}")).isNotNull()
+    }
+
+    @Test
+    fun should_keep_a_newer_content_when_sending_an_older_one_failed() {
+        val olderHash = syncedFileContents.hashToSend(uri, "class Parser {}")!!
+        syncedFileContents.hashToSend(uri, "class Parser { }")
+
+        syncedFileContents.forgetFailed(uri, olderHash)
+
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser { }")).isNull()
+    }
+
+    @Test
+    fun should_send_content_again_once_forgotten() {
+        syncedFileContents.hashToSend(uri, "class Parser {}")
+
+        syncedFileContents.forget(uri)
+
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser {}")).isNotNull()
+    }
+
+    @Test
+    fun should_send_content_again_to_a_new_backend() {
+        syncedFileContents.hashToSend(uri, "class Parser {}")
+
+        syncedFileContents.clear()
+
+        assertThat(syncedFileContents.hashToSend(uri, "class Parser {}")).isNotNull()
+    }
+
+}
@@ -21,6 +21,7 @@ package org.sonarlint.intellij.fs
 
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.module.Module
+import com.intellij.openapi.util.Disposer
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent
 import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent
@@ -29,6 +30,8 @@ import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent
 import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent
 import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent
 import com.intellij.testFramework.replaceService
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
 import org.assertj.core.api.Assertions.assertThat
 import org.awaitility.Awaitility
@@ -39,6 +42,7 @@ import org.mockito.Mockito.spy
 import org.mockito.Mockito.verify
 import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.clearInvocations
+import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.timeout
 import org.mockito.kotlin.verifyNoInteractions
@@ -245,6 +249,42 @@ class VirtualFileSystemListenerTests : AbstractSonarLintLightTests() {
         assertThat(secondParamsCaptor.firstValue).isFalse()
     }
 
+    @Test
+    fun should_coalesce_events_on_the_same_file() {
+        val createEvent = VFileCreateEvent(null, file.parent, FILE_NAME, false, null, null, false, null)
+        val modifyEvent = VFileContentChangeEvent(null, file, 0L, 0L, false)
+
+        clearInvocations(backendService)
+        virtualFileSystemListener.after(listOf(createEvent, modifyEvent, modifyEvent))
+
+        val paramsCaptor = argumentCaptor<Map<Module, List<VirtualFileEvent>>>()
+        verify(backendService, timeout(3000)).updateFileSystem(paramsCaptor.capture(), eq(false))
+
+        assertThat(paramsCaptor.allValues).hasSize(1)
+        assertThat(paramsCaptor.firstValue.values.flatten()).containsExactly(VirtualFileEvent(ModuleFileEvent.Type.CREATED, file))
+    }
+
+    @Test
+    fun should_not_coalesce_a_deletion_with_a_creation_of_the_same_file() {
+        val executorService = Executors.newSingleThreadExecutor()
+        val handler = DefaultVirtualFileSystemEventsHandler(executorService)
+        Disposer.register(testRootDisposable, handler)
+        val moveEvent = VFileMoveEvent(null, file, file.parent)
+        val forwardingBlocked = CountDownLatch(1)
+        executorService.execute { forwardingBlocked.await() }
+
+        clearInvocations(backendService)
+        handler.forwardEventsAsync(listOf(moveEvent)) { ModuleFileEvent.Type.DELETED }
+        handler.forwardEventsAsync(listOf(moveEvent)) { ModuleFileEvent.Type.CREATED }
+        forwardingBlocked.countDown()
+
+        val paramsCaptor = argumentCaptor<Map<Module, List<VirtualFileEvent>>>()
+        verify(backendService, timeout(3000).times(2)).updateFileSystem(paramsCaptor.capture(), eq(false))
+
+        assertThat(paramsCaptor.allValues.map { it.values.flatten().single().type })
+            .containsExactly(ModuleFileEvent.Type.DELETED, ModuleFileEvent.Type.CREATED)
+    }
+
     private var projectBindingManager: ProjectBindingManager = mock()
     private lateinit var backendService: BackendService
     private lateinit var actualBackendService: BackendService
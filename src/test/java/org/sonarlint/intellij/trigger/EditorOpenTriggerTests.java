@@ -24,7 +24,6 @@ import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
 import com.intellij.openapi.vfs.VirtualFile;
 import java.util.List;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sonarlint.intellij.AbstractSonarLintLightTests;
@@ -57,11 +56,6 @@ class EditorOpenTriggerTests extends AbstractSonarLintLightTests {
     editorTrigger.onProjectOpened();
   }
 
-  @AfterEach
-  void cleanup() {
-    editorTrigger.dispose();
-  }
-
   @Test
   void should_not_trigger() {
     editorTrigger.fileOpened(editorManager, file);
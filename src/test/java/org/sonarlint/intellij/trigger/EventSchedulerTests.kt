@@ -27,18 +27,22 @@ import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.mockito.Mockito
 import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
-import org.mockito.kotlin.timeout
 import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.analysis.Analysis
 import org.sonarlint.intellij.analysis.AnalysisReadinessCache
 import org.sonarlint.intellij.analysis.AnalysisSubmitter
+import org.sonarlint.intellij.analysis.RunningAnalysesTracker
 import org.sonarlint.intellij.any
 import org.sonarlint.intellij.common.util.SonarLintUtils
+import org.sonarlint.intellij.util.ManualScheduledExecutorService
 
 class EventSchedulerTests : AbstractSonarLintLightTests() {
 
     private val submitter = mock(AnalysisSubmitter::class.java)
+    private val scheduler = ManualScheduledExecutorService()
 
     @BeforeEach
     fun prepare() {
@@ -52,52 +56,112 @@ class EventSchedulerTests : AbstractSonarLintLightTests() {
 
     @Test
     fun should_trigger_single_file_analysis() {
-        val eventScheduler = EventScheduler(project, "testScheduler", TriggerType.EDITOR_CHANGE, 200, false)
+        val eventScheduler = eventScheduler(200, false)
         val file = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         eventScheduler.notify(file)
+        scheduler.advanceTimeBy(200)
 
-        verify(submitter, timeout(2000)).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
+        verify(submitter).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
     }
 
     @Test
     fun should_trigger_multiple_file_analysis() {
-        val eventScheduler = EventScheduler(project, "testScheduler", TriggerType.EDITOR_CHANGE, 200, false)
+        val eventScheduler = eventScheduler(200, false)
         val file1 = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         val file2 = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         eventScheduler.notify(file1)
         eventScheduler.notify(file2)
+        scheduler.advanceTimeBy(200)
 
-        verify(submitter, timeout(2000)).autoAnalyzeFiles(ArrayList(setOf(file1, file2)), TriggerType.EDITOR_CHANGE)
+        verify(submitter).autoAnalyzeFiles(ArrayList(setOf(file1, file2)), TriggerType.EDITOR_CHANGE)
     }
 
     @Test
     fun should_trigger_different_analysis_at_interval() {
-        val eventScheduler = EventScheduler(project, "testScheduler", TriggerType.EDITOR_CHANGE, 200, true)
+        val eventScheduler = eventScheduler(200, true)
         val file1 = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         val file2 = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         eventScheduler.notify(file1)
-        Thread.sleep(250)
+        scheduler.advanceTimeBy(250)
         eventScheduler.notify(file2)
+        scheduler.advanceTimeBy(250)
 
-        Awaitility.await().atMost(2, TimeUnit.SECONDS).untilAsserted {
-            verify(submitter, times(2)).autoAnalyzeFiles(any(), any())
-        }
+        verify(submitter, times(2)).autoAnalyzeFiles(any(), any())
     }
 
     @Test
     fun should_trigger_single_analysis_without_interval() {
-        val eventScheduler = EventScheduler(project, "testScheduler", TriggerType.EDITOR_CHANGE, 200, false)
+        val eventScheduler = eventScheduler(200, false)
         val file1 = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         val file2 = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
         eventScheduler.notify(file1)
-        Thread.sleep(150)
+        scheduler.advanceTimeBy(150)
         eventScheduler.notify(file2)
-        Thread.sleep(150)
+        scheduler.advanceTimeBy(150)
         eventScheduler.notify(file2)
 
-        Awaitility.await().atMost(2, TimeUnit.SECONDS).untilAsserted {
-            verify(submitter, times(1)).autoAnalyzeFiles(ArrayList(setOf(file1, file2)), TriggerType.EDITOR_CHANGE)
-        }
+        verify(submitter, never()).autoAnalyzeFiles(any(), any())
+
+        scheduler.advanceTimeBy(200)
+
+        verify(submitter, times(1)).autoAnalyzeFiles(ArrayList(setOf(file1, file2)), TriggerType.EDITOR_CHANGE)
     }
 
+    @Test
+    fun should_defer_file_until_previous_analysis_finished() {
+        val analysis = mock(Analysis::class.java)
+        Mockito.`when`(submitter.autoAnalyzeFiles(any(), any())).thenReturn(analysis)
+        val eventScheduler = eventScheduler(500, false)
+        val file = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
+        eventScheduler.notify(file)
+        scheduler.advanceTimeBy(500)
+        verify(submitter).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
+
+        eventScheduler.notify(file)
+        scheduler.advanceTimeBy(700)
+        verify(submitter, times(1)).autoAnalyzeFiles(any(), any())
+
+        Mockito.`when`(analysis.isFinished).thenReturn(true)
+        scheduler.advanceTimeBy(500)
+        verify(submitter, times(2)).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
+    }
+
+    @Test
+    fun should_take_over_file_from_outdated_analysis_when_file_waited_too_long() {
+        val analysis = mock(Analysis::class.java)
+        Mockito.`when`(submitter.autoAnalyzeFiles(any(), any())).thenReturn(analysis)
+        val eventScheduler = eventScheduler(200, false)
+        val file = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
+        eventScheduler.notify(file)
+        scheduler.advanceTimeBy(200)
+        verify(submitter).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
+
+        eventScheduler.notify(file)
+        scheduler.advanceTimeBy(400)
+
+        verify(analysis, never()).cancel()
+        verify(submitter, times(2)).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
+    }
+
+    @Test
+    fun should_defer_file_analyzed_by_another_analysis_even_when_waiting_too_long() {
+        val runningAnalyses = mock(RunningAnalysesTracker::class.java)
+        replaceProjectService(RunningAnalysesTracker::class.java, runningAnalyses)
+        val eventScheduler = eventScheduler(200, false)
+        val file = createAndOpenTestVirtualFile("MyClass1.java", Language.findLanguageByID("JAVA"), "")
+        Mockito.`when`(runningAnalyses.isAnalyzing(file)).thenReturn(true)
+        eventScheduler.notify(file)
+        scheduler.advanceTimeBy(1000)
+
+        verify(submitter, never()).autoAnalyzeFiles(any(), any())
+
+        Mockito.`when`(runningAnalyses.isAnalyzing(file)).thenReturn(false)
+        scheduler.advanceTimeBy(200)
+
+        verify(submitter).autoAnalyzeFiles(ArrayList(setOf(file)), TriggerType.EDITOR_CHANGE)
+    }
+
+    private fun eventScheduler(timer: Long, atInterval: Boolean) =
+        EventScheduler(project, "testScheduler", TriggerType.EDITOR_CHANGE, timer, atInterval, scheduler) { scheduler.currentTimeMillis }
+
 }
@@ -21,23 +21,28 @@ package org.sonarlint.intellij.ui;
 
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.util.Disposer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.sonarlint.intellij.AbstractSonarLintLightTests;
-import org.sonarlint.intellij.common.ui.SonarLintConsole;
+import org.sonarlint.intellij.messages.ProjectConfigurationListener;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 class SonarLintConsoleImplementationTests extends AbstractSonarLintLightTests {
   private ConsoleView consoleView = mock(ConsoleView.class);
-  private SonarLintConsole console;
+  private SonarLintConsoleImpl console;
 
   @BeforeEach
   void prepare() {
     console = new SonarLintConsoleImpl(getProject(), consoleView);
+    Disposer.register(getTestRootDisposable(), console);
   }
 
   @Test
@@ -53,6 +58,8 @@ class SonarLintConsoleImplementationTests extends AbstractSonarLintLightTests {
 
     assertThat(console.debugEnabled()).isTrue();
     console.debug("debug msg");
+    console.flush();
+
     verify(consoleView).print("debug msg\n", ConsoleViewContentType.NORMAL_OUTPUT);
   }
 
@@ -62,19 +69,92 @@ class SonarLintConsoleImplementationTests extends AbstractSonarLintLightTests {
 
     assertThat(console.debugEnabled()).isFalse();
     console.debug("debug msg");
+    console.flush();
+
+    verifyNoInteractions(consoleView);
+  }
+
+  @Test
+  void debug_logging_should_follow_the_changes_of_the_project_settings() {
+    getProjectSettings().setVerboseEnabled(true);
+    assertThat(console.debugEnabled()).isTrue();
+
+    getProjectSettings().setVerboseEnabled(false);
+    getProject().getMessageBus().syncPublisher(ProjectConfigurationListener.TOPIC).changed(getProjectSettings());
+    console.debug("debug msg");
+    console.flush();
+
+    assertThat(console.debugEnabled()).isFalse();
     verifyNoInteractions(consoleView);
   }
 
+  @Test
+  void debug_logging_should_follow_the_verbose_toggle() {
+    getProjectSettings().setVerboseEnabled(true);
+    assertThat(console.debugEnabled()).isTrue();
+
+    console.setVerboseEnabled(false);
+
+    assertThat(console.debugEnabled()).isFalse();
+  }
+
   @Test
   void logging_should_print_to_console() {
     getProjectSettings().setVerboseEnabled(true);
     console.info("info msg");
-    verify(consoleView).print("info msg\n", ConsoleViewContentType.NORMAL_OUTPUT);
-
     console.error("error msg");
-    verify(consoleView).print("error msg\n", ConsoleViewContentType.ERROR_OUTPUT);
-
     console.error("error with exception", new IllegalStateException("ex"));
-    verify(consoleView).print("error with exception\n", ConsoleViewContentType.ERROR_OUTPUT);
+    console.flush();
+
+    assertThat(printed(ConsoleViewContentType.NORMAL_OUTPUT)).isEqualTo("info msg\n");
+    assertThat(printed(ConsoleViewContentType.ERROR_OUTPUT))
+      .startsWith("error msg\nerror with exception\njava.lang.IllegalStateException: ex");
+  }
+
+  @Test
+  void should_print_logs_received_before_the_console_view_is_set() {
+    var console = new SonarLintConsoleImpl(getProject());
+    Disposer.register(getTestRootDisposable(), console);
+
+    console.info("early msg");
+    console.setConsoleView(consoleView);
+
+    verify(consoleView).print("early msg\n", ConsoleViewContentType.NORMAL_OUTPUT);
+  }
+
+  @Test
+  void should_drop_and_count_the_oldest_logs_above_the_limit() {
+    var console = new SonarLintConsoleImpl(getProject());
+    Disposer.register(getTestRootDisposable(), console);
+
+    for (var i = 0; i < SonarLintConsoleImpl.MAX_PENDING_LOGS + 5; i++) {
+      console.info("msg" + i);
+    }
+    console.setConsoleView(consoleView);
+
+    assertThat(printed(ConsoleViewContentType.NORMAL_OUTPUT))
+      .startsWith("msg5\n")
+      .endsWith("msg" + (SonarLintConsoleImpl.MAX_PENDING_LOGS + 4) + "\n");
+    assertThat(printed(ConsoleViewContentType.SYSTEM_OUTPUT)).isEqualTo("5 log lines were dropped as the console could not keep up\n");
+  }
+
+  @Test
+  void should_discard_pending_logs_when_clearing() {
+    var console = new SonarLintConsoleImpl(getProject());
+    Disposer.register(getTestRootDisposable(), console);
+
+    for (var i = 0; i < SonarLintConsoleImpl.MAX_PENDING_LOGS + 5; i++) {
+      console.info("msg");
+    }
+    console.clear();
+    console.setConsoleView(consoleView);
+
+    verifyNoInteractions(consoleView);
+  }
+
+  private String printed(ConsoleViewContentType outputType) {
+    var text = ArgumentCaptor.forClass(String.class);
+    verify(consoleView, atLeast(0)).print(text.capture(), eq(outputType));
+    return String.join("", text.getAllValues());
   }
 }
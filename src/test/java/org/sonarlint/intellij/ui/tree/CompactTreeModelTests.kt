@@ -0,0 +1,89 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.ui.tree
+
+import javax.swing.event.TreeModelEvent
+import javax.swing.event.TreeModelListener
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.sonarlint.intellij.ui.nodes.SummaryNode
+
+class CompactTreeModelTests {
+
+    private val root = SummaryNode(mock(TreeSummary::class.java))
+    private val model = CompactTreeModel(root)
+    private val events = mutableListOf<String>()
+
+    @BeforeEach
+    fun prepare() {
+        model.addTreeModelListener(object : TreeModelListener {
+            override fun treeNodesChanged(e: TreeModelEvent) {
+                events.add("changed ${e.treePath.lastPathComponent} ${e.childIndices.toList()}")
+            }
+
+            override fun treeNodesInserted(e: TreeModelEvent) {
+                events.add("inserted ${e.treePath.lastPathComponent} ${e.childIndices.toList()}")
+            }
+
+            override fun treeNodesRemoved(e: TreeModelEvent) {
+                events.add("removed ${e.treePath.lastPathComponent} ${e.childIndices.toList()}")
+            }
+
+            override fun treeStructureChanged(e: TreeModelEvent) {
+                events.add("structure ${e.treePath.lastPathComponent}")
+            }
+        })
+    }
+
+    @Test
+    fun should_notify_insertions_and_removals_per_parent() {
+        val unchangedChildren = listOf<Any>("a1", "a2")
+        model.setCompactTree(CompactTree(mapOf(root to listOf("a", "b"), "a" to unchangedChildren, "b" to listOf("b1", "b2"))))
+        events.clear()
+
+        model.setCompactTree(CompactTree(mapOf(root to listOf("a", "b", "c"), "a" to unchangedChildren, "b" to listOf("b2", "b3"), "c" to listOf("c1"))))
+
+        assertThat(events).containsExactly("inserted $root [2]", "removed b [0]", "inserted b [1]")
+        assertThat(model.getIndexOfChild("b", "b3")).isEqualTo(1)
+    }
+
+    @Test
+    fun should_notify_structure_change_when_kept_nodes_are_reordered() {
+        model.setCompactTree(CompactTree(mapOf(root to listOf("a", "b"))))
+        events.clear()
+
+        model.setCompactTree(CompactTree(mapOf(root to listOf("b", "a"))))
+
+        assertThat(events).containsExactly("structure $root")
+    }
+
+    @Test
+    fun should_find_index_of_child_in_large_lists() {
+        val children = (0 until 100).map { "child$it" }
+
+        model.setCompactTree(CompactTree(mapOf(root to children)))
+
+        assertThat(model.getIndexOfChild(root, "child42")).isEqualTo(42)
+        assertThat(model.getIndexOfChild(root, "unknown")).isEqualTo(-1)
+    }
+
+}
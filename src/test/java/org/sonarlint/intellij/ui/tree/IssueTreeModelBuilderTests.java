@@ -21,6 +21,8 @@ package org.sonarlint.intellij.ui.tree;
 
 import com.intellij.openapi.editor.RangeMarker;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ui.tree.TreeModelAdapter;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,13 +31,18 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
+import javax.swing.event.TreeModelEvent;
 import javax.swing.tree.DefaultTreeModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sonarlint.intellij.AbstractSonarLintLightTests;
 import org.sonarlint.intellij.finding.issue.LiveIssue;
 import org.sonarlint.intellij.ui.nodes.AbstractNode;
+import org.sonarlint.intellij.ui.nodes.FileNode;
+import org.sonarlint.intellij.ui.nodes.IssueNode;
 import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.ImpactDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.client.issue.RaisedIssueDto;
 import org.sonarsource.sonarlint.core.rpc.protocol.common.CleanCodeAttribute;
@@ -96,6 +103,64 @@ class IssueTreeModelBuilderTests extends AbstractSonarLintLightTests {
     assertThat(treeBuilder.getPreviousIssue(first)).isNull();
   }
 
+  @Test
+  void should_only_create_issue_nodes_when_file_node_is_accessed() {
+    var data = new HashMap<VirtualFile, Collection<LiveIssue>>();
+    addFile(data, "file1", 3);
+
+    treeBuilder.updateModel(data);
+
+    var fileNode = (FileNode) ((AbstractNode) model.getRoot()).getChildAt(0);
+    assertThat(fileNode.isLeaf()).isFalse();
+    assertThat(fileNode.getFindingCount()).isEqualTo(3);
+    assertThat(treeBuilder.numberIssues()).isEqualTo(3);
+    assertThat(fileNode.getChildCount()).isEqualTo(3);
+    assertThat(fileNode.getChildAt(0)).isInstanceOf(IssueNode.class);
+  }
+
+  @Test
+  void should_add_file_nodes_in_batches_when_updating_in_background() {
+    var data = new HashMap<VirtualFile, Collection<LiveIssue>>();
+    for (var i = 0; i <= IssueTreeModelBuilder.FILE_BATCH_SIZE; i++) {
+      addFile(data, "file" + i, 1);
+    }
+    var insertions = new AtomicInteger();
+    model.addTreeModelListener(new TreeModelAdapter() {
+      @Override
+      public void treeNodesInserted(TreeModelEvent event) {
+        insertions.incrementAndGet();
+      }
+    });
+    var completed = new AtomicBoolean();
+
+    treeBuilder.updateModelInBackground(data, () -> completed.set(true));
+
+    PlatformTestUtil.waitWithEventsDispatching("The background update did not complete", completed::get, 10);
+    assertThat(((AbstractNode) model.getRoot()).getChildCount()).isEqualTo(IssueTreeModelBuilder.FILE_BATCH_SIZE + 1);
+    assertThat(treeBuilder.numberIssues()).isEqualTo(IssueTreeModelBuilder.FILE_BATCH_SIZE + 1);
+    assertThat(insertions).hasValue(2);
+  }
+
+  @Test
+  void should_only_apply_the_latest_background_update() {
+    var staleData = new HashMap<VirtualFile, Collection<LiveIssue>>();
+    addFile(staleData, "stale", 2);
+    var latestData = new HashMap<VirtualFile, Collection<LiveIssue>>();
+    addFile(latestData, "latest", 3);
+    var staleCompleted = new AtomicBoolean();
+    var latestCompleted = new AtomicBoolean();
+
+    treeBuilder.updateModelInBackground(staleData, () -> staleCompleted.set(true));
+    treeBuilder.updateModelInBackground(latestData, () -> latestCompleted.set(true));
+
+    PlatformTestUtil.waitWithEventsDispatching("The background update did not complete", latestCompleted::get, 10);
+    var root = (AbstractNode) model.getRoot();
+    assertThat(root.getChildCount()).isEqualTo(1);
+    assertThat(((FileNode) root.getChildAt(0)).file().getName()).isEqualTo("latest");
+    assertThat(treeBuilder.numberIssues()).isEqualTo(3);
+    assertThat(staleCompleted).isFalse();
+  }
+
   @Test
   void testIssueComparator() {
     var list = new ArrayList<LiveIssue>();
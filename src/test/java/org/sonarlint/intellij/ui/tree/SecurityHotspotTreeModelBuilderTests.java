@@ -217,6 +217,42 @@ class SecurityHotspotTreeModelBuilderTests extends AbstractSonarLintLightTests {
     assertThat(resultAfterFiltering).isPresent().contains(hotspot.get());
   }
 
+  @Test
+  void shouldAttachSortedHotspotsWithoutFileNodes() {
+    Map<VirtualFile, Collection<LiveSecurityHotspot>> data = new HashMap<>();
+    addFileWithStatusAndFindingKeyForHotspot(data, "file2", 2, HotspotReviewStatus.TO_REVIEW, "keyB");
+    addFileWithStatusAndFindingKeyForHotspot(data, "file1", 2, HotspotReviewStatus.TO_REVIEW, "keyA");
+
+    assertThat(treeBuilder.updateModelWithoutFileNode(data)).isEqualTo(4);
+
+    var root = (AbstractNode) model.getRoot();
+    var displayedKeys = new ArrayList<String>();
+    for (var i = 0; i < root.getChildCount(); i++) {
+      displayedKeys.add(((LiveSecurityHotspotNode) root.getChildAt(i)).getHotspot().getServerKey());
+    }
+    assertThat(displayedKeys).containsExactly("keyA1", "keyA2", "keyB1", "keyB2");
+    assertThat(treeBuilder.updateStatusAndApplyCurrentFiltering(getProject(), "keyA2", HotspotStatus.SAFE)).isEqualTo(3);
+    assertThat(treeBuilder.findFilteredHotspotByKey("keyA2")).isNull();
+    assertThat(treeBuilder.findHotspotByKey("keyA2")).isPresent();
+  }
+
+  @Test
+  void shouldIndexFilteredNodesByFile() {
+    Map<VirtualFile, Collection<LiveSecurityHotspot>> data = new HashMap<>();
+    var toReviewHotspot = data.get(addFileWithStatusAndFindingKeyForHotspot(data, "file1", 1, HotspotReviewStatus.TO_REVIEW, "keyA")).iterator().next();
+    var safeHotspot = data.get(addFileWithStatusAndFindingKeyForHotspot(data, "file2", 1, HotspotReviewStatus.SAFE, "keyB")).iterator().next();
+    treeBuilder.updateModelWithoutFileNode(data);
+
+    treeBuilder.applyCurrentFiltering(getProject());
+
+    assertThat(treeBuilder.getFilteredNodesForFile(toReviewHotspot.file())).extracting(LiveSecurityHotspotNode::getHotspot).containsExactly(toReviewHotspot);
+    assertThat(treeBuilder.getFilteredNodesForFile(safeHotspot.file())).isEmpty();
+
+    treeBuilder.filterSecurityHotspots(getProject(), true);
+
+    assertThat(treeBuilder.getFilteredNodesForFile(safeHotspot.file())).extracting(LiveSecurityHotspotNode::getHotspot).containsExactly(safeHotspot);
+  }
+
   private void addFile(Map<VirtualFile, Collection<LiveSecurityHotspot>> data, String fileName, int numSecurityHotspots) {
     addFileWithStatusAndFindingKeyForHotspot(data, fileName, numSecurityHotspots, HotspotReviewStatus.TO_REVIEW, null);
   }
@@ -0,0 +1,170 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.ui.vulnerabilities.tree
+
+import com.intellij.openapi.editor.RangeMarker
+import com.intellij.openapi.vfs.VirtualFile
+import java.time.Instant
+import java.util.UUID
+import java.util.concurrent.CompletableFuture
+import javax.swing.event.TreeModelEvent
+import javax.swing.event.TreeModelListener
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.`when`
+import org.sonarlint.intellij.finding.issue.vulnerabilities.LocalTaintVulnerability
+import org.sonarlint.intellij.finding.resolvedLocation
+import org.sonarlint.intellij.ui.tree.TreeSummary
+import org.sonarlint.intellij.ui.vulnerabilities.tree.filter.ResolutionFilter
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.rules.ImpactDto
+import org.sonarsource.sonarlint.core.rpc.protocol.backend.tracking.TaintVulnerabilityDto
+import org.sonarsource.sonarlint.core.rpc.protocol.common.CleanCodeAttribute
+import org.sonarsource.sonarlint.core.rpc.protocol.common.Either
+import org.sonarsource.sonarlint.core.rpc.protocol.common.ImpactSeverity
+import org.sonarsource.sonarlint.core.rpc.protocol.common.MQRModeDetails
+import org.sonarsource.sonarlint.core.rpc.protocol.common.SoftwareQuality
+
+class TaintVulnerabilityTreeUpdaterTests {
+
+    private val updater = TaintVulnerabilityTreeUpdater(mock(TreeSummary::class.java))
+    private val model = updater.model
+    private val events = mutableListOf<String>()
+    private val introductionDate = Instant.now()
+
+    @BeforeEach
+    fun prepare() {
+        model.addTreeModelListener(object : TreeModelListener {
+            override fun treeNodesChanged(e: TreeModelEvent) {
+                events.add("changed ${label(e.treePath.lastPathComponent)} ${e.childIndices.toList()}")
+            }
+
+            override fun treeNodesInserted(e: TreeModelEvent) {
+                events.add("inserted ${label(e.treePath.lastPathComponent)} ${e.childIndices.toList()}")
+            }
+
+            override fun treeNodesRemoved(e: TreeModelEvent) {
+                events.add("removed ${label(e.treePath.lastPathComponent)} ${e.childIndices.toList()}")
+            }
+
+            override fun treeStructureChanged(e: TreeModelEvent) {
+                events.add("structure ${label(e.treePath.lastPathComponent)}")
+            }
+        })
+    }
+
+    @Test
+    fun should_prepare_the_tree_off_the_ui_thread_and_only_display_it_when_applied() {
+        val vulnerability = aTaintVulnerability(aFile("A.java"), "rule", aRange(10))
+
+        val preparedTree = CompletableFuture.supplyAsync { updater.prepare(listOf(vulnerability)) }.get()
+
+        assertThat(model.getChildCount(model.root)).isZero()
+        assertThat(events).isEmpty()
+
+        updater.apply(preparedTree)
+
+        assertThat(events).containsExactly("structure root")
+        assertThat(model.getChildCount(model.root)).isEqualTo(1)
+        assertThat(updater.filteredTaintVulnerabilities).containsExactly(vulnerability)
+    }
+
+    @Test
+    fun should_notify_removed_files_before_inserted_ones() {
+        val inA = aTaintVulnerability(aFile("A.java"), "a", aRange(10))
+        val inB = aTaintVulnerability(aFile("B.java"), "b", aRange(10))
+        val inC = aTaintVulnerability(aFile("C.java"), "c", aRange(10))
+        updater.apply(updater.prepare(listOf(inA, inB)))
+        events.clear()
+
+        updater.apply(updater.prepareUpdate(listOf(inA, inC), setOf(inB.getId()), listOf(inC), emptyList()))
+
+        assertThat(events).startsWith("removed root [1]", "inserted root [1]").noneMatch { it.startsWith("structure") }
+        assertThat(label(model.getChild(model.root, 1))).isEqualTo("C.java")
+    }
+
+    @Test
+    fun should_notify_a_structure_change_when_the_vulnerabilities_of_a_file_are_reordered() {
+        val fileA = aFile("A.java")
+        val firstRange = aRange(10)
+        val first = aTaintVulnerability(fileA, "first", firstRange)
+        val second = aTaintVulnerability(fileA, "second", aRange(20))
+        val inB = aTaintVulnerability(aFile("B.java"), "b", aRange(10))
+        updater.apply(updater.prepare(listOf(first, second, inB)))
+        events.clear()
+
+        // the first vulnerability moved below the second one after an edit
+        `when`(firstRange.startOffset).thenReturn(30)
+        val added = aTaintVulnerability(fileA, "added", aRange(40))
+        updater.apply(updater.prepareUpdate(listOf(first, second, added, inB), emptySet(), listOf(added), emptyList()))
+
+        assertThat(events).contains("structure A.java").noneMatch { it.contains("B.java") }
+        val fileNode = model.getChild(model.root, 0)
+        assertThat((0 until model.getChildCount(fileNode)).map { label(model.getChild(fileNode, it)) }).containsExactly("second", "first", "added")
+    }
+
+    @Test
+    fun should_filter_the_latest_vulnerabilities_again() {
+        val resolved = aTaintVulnerability(aFile("A.java"), "rule", aRange(10))
+        resolved.resolve()
+        updater.apply(updater.prepare(listOf(resolved)))
+        assertThat(model.getChildCount(model.root)).isZero()
+
+        updater.resolutionFilter = ResolutionFilter.ALL
+        updater.apply(updater.prepareFiltering())
+
+        assertThat(model.getChildCount(model.root)).isEqualTo(1)
+        assertThat(updater.filteredTaintVulnerabilities).containsExactly(resolved)
+    }
+
+    private fun label(node: Any): String = when (node) {
+        is FileSummary -> node.file.name
+        is LocalTaintVulnerability -> node.getRuleKey()
+        else -> if (node === model.root) "root" else node.toString()
+    }
+
+    private fun aFile(name: String): VirtualFile {
+        val file = mock(VirtualFile::class.java)
+        `when`(file.name).thenReturn(name)
+        `when`(file.path).thenReturn("/src/$name")
+        `when`(file.isValid).thenReturn(true)
+        return file
+    }
+
+    private fun aRange(startOffset: Int): RangeMarker {
+        val range = mock(RangeMarker::class.java)
+        `when`(range.startOffset).thenReturn(startOffset)
+        `when`(range.isValid).thenReturn(true)
+        return range
+    }
+
+    private fun aTaintVulnerability(file: VirtualFile, ruleKey: String, range: RangeMarker): LocalTaintVulnerability {
+        val dto = mock(TaintVulnerabilityDto::class.java)
+        `when`(dto.id).thenReturn(UUID.randomUUID())
+        `when`(dto.ruleKey).thenReturn(ruleKey)
+        `when`(dto.introductionDate).thenReturn(introductionDate)
+        `when`(dto.severityMode).thenReturn(
+            Either.forRight(MQRModeDetails(CleanCodeAttribute.CONVENTIONAL, listOf(ImpactDto(SoftwareQuality.SECURITY, ImpactSeverity.HIGH))))
+        )
+        return LocalTaintVulnerability(null, resolvedLocation(file, range, null, null), emptyList(), dto, false)
+    }
+
+}
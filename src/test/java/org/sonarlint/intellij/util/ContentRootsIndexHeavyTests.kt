@@ -0,0 +1,84 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+import com.intellij.openapi.roots.ModuleRootModificationUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.application
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.sonarlint.intellij.AbstractSonarLintHeavyTests
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
+
+class ContentRootsIndexHeavyTests : AbstractSonarLintHeavyTests() {
+
+    @Test
+    fun should_resolve_files_of_each_content_root_of_a_module() {
+        val multiContentRootModule = createModule("multipleContentRoots")
+        val contentRoot1 = createTestProjectStructure()
+        val contentRoot2 = createTestProjectStructure()
+        ModuleRootModificationUtil.addContentRoot(multiContentRootModule, contentRoot1)
+        ModuleRootModificationUtil.addContentRoot(multiContentRootModule, contentRoot2)
+        val file1 = createFile(contentRoot1, "src", "Dummy.kt")
+        val file2 = createFile(contentRoot2, "test", "DummyTest.kt")
+
+        val index = getService(project, ContentRootsIndex::class.java)
+
+        assertThat(index.getRelativePath(multiContentRootModule, file1)).isEqualTo("src/Dummy.kt")
+        assertThat(index.getRelativePath(multiContentRootModule, file2)).isEqualTo("test/DummyTest.kt")
+    }
+
+    @Test
+    fun should_resolve_files_of_nested_content_roots_relative_to_the_root_of_their_module() {
+        val outerModule = createModule("outer")
+        val innerModule = createModule("inner")
+        val outerRoot = createTestProjectStructure()
+        val innerRoot = createDirectory(outerRoot, "inner")
+        ModuleRootModificationUtil.addContentRoot(outerModule, outerRoot)
+        ModuleRootModificationUtil.addContentRoot(innerModule, innerRoot)
+        val file = createFile(innerRoot, "src", "Dummy.kt")
+
+        val index = getService(project, ContentRootsIndex::class.java)
+
+        assertThat(index.getRelativePath(innerModule, file)).isEqualTo("src/Dummy.kt")
+        assertThat(index.getRelativePath(outerModule, file)).isEqualTo("inner/src/Dummy.kt")
+    }
+
+    @Test
+    fun should_resolve_files_of_a_content_root_added_after_a_lookup() {
+        val changingModule = createModule("changing")
+        val contentRoot = createTestProjectStructure()
+        val file = createFile(contentRoot, "src", "Dummy.kt")
+        val index = getService(project, ContentRootsIndex::class.java)
+        assertThat(index.getRelativePath(changingModule, file)).isNull()
+
+        ModuleRootModificationUtil.addContentRoot(changingModule, contentRoot)
+
+        assertThat(index.getRelativePath(changingModule, file)).isEqualTo("src/Dummy.kt")
+    }
+
+    private fun createDirectory(parent: VirtualFile, name: String): VirtualFile {
+        return application.runWriteAction<VirtualFile> { parent.createChildDirectory(project, name) }
+    }
+
+    private fun createFile(contentRoot: VirtualFile, directoryName: String, fileName: String): VirtualFile {
+        return application.runWriteAction<VirtualFile> { contentRoot.createChildDirectory(project, directoryName).createChildData(project, fileName) }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.vfs.VirtualFile
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.SonarLintIntelliJClient
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
+import org.sonarlint.intellij.core.BackendService
+
+class ContentRootsIndexTests : AbstractSonarLintLightTests() {
+
+    @Test
+    fun should_resolve_the_same_relative_path_as_without_index() {
+        val file = myFixture.copyFileToProject("file.properties", "dir/sub/file.properties")
+
+        assertThat(SonarLintAppUtils.getRelativePathForAnalysis(module, file))
+            .isEqualTo(SonarLintAppUtils.computeRelativePathForAnalysis(module, file))
+            .endsWith("dir/sub/file.properties")
+    }
+
+    @Test
+    fun should_resolve_the_content_root_itself() {
+        val contentRoot = myFixture.copyFileToProject("file.properties", "file.properties").parent
+
+        assertThat(getService(project, ContentRootsIndex::class.java).getRelativePath(module, contentRoot))
+            .isEqualTo(SonarLintAppUtils.computeRelativePathForAnalysis(module, contentRoot))
+    }
+
+    @Test
+    fun should_resolve_and_list_the_files_of_many_directories_as_without_index() {
+        val files = createFiles(dirCount = 20, filesPerDir = 20)
+        val withoutIndex = files.map { SonarLintAppUtils.computeRelativePathForAnalysis(module, it) }
+
+        getService(project, ContentRootsIndex::class.java).invalidate()
+        val withIndex = files.map { SonarLintAppUtils.getRelativePathForAnalysis(module, it) }
+        val listedFiles = SonarLintIntelliJClient.listFiles(BackendService.moduleId(module))
+
+        assertThat(withIndex).isEqualTo(withoutIndex).doesNotContainNull()
+        assertThat(listedFiles).hasSizeGreaterThanOrEqualTo(files.size)
+    }
+
+    private fun createFiles(dirCount: Int, filesPerDir: Int): List<VirtualFile> {
+        val root = myFixture.tempDirFixture.findOrCreateDir("many")
+        return WriteAction.computeAndWait<List<VirtualFile>, Exception> {
+            (0 until dirCount).flatMap { dirIndex ->
+                val dir = root.createChildDirectory(this, "package$dirIndex")
+                (0 until filesPerDir).map { fileIndex -> dir.createChildData(this, "File$fileIndex.java") }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+import java.util.concurrent.AbstractExecutorService
+import java.util.concurrent.Callable
+import java.util.concurrent.Delayed
+import java.util.concurrent.FutureTask
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs the delayed tasks on the calling thread, when the test moves its clock past their delay with [advanceTimeBy].
+ * Periodic tasks are queued again after each run, until they are cancelled or throw.
+ */
+class ManualScheduledExecutorService : AbstractExecutorService(), ScheduledExecutorService {
+
+    private val scheduledTasks = mutableListOf<ManualScheduledFuture<*>>()
+    var currentTimeMillis = 0L
+        private set
+
+    fun advanceTimeBy(millis: Long) {
+        val targetTime = currentTimeMillis + millis
+        while (true) {
+            scheduledTasks.removeIf { it.isDone }
+            val nextTask = scheduledTasks.minByOrNull { it.dueTime }?.takeIf { it.dueTime <= targetTime } ?: break
+            scheduledTasks.remove(nextTask)
+            currentTimeMillis = nextTask.dueTime
+            nextTask.run()
+        }
+        currentTimeMillis = targetTime
+    }
+
+    override fun schedule(command: Runnable, delay: Long, unit: TimeUnit): ScheduledFuture<*> {
+        return ManualScheduledFuture(Callable { command.run() }, currentTimeMillis + unit.toMillis(delay)).also { scheduledTasks.add(it) }
+    }
+
+    override fun <V : Any?> schedule(callable: Callable<V>, delay: Long, unit: TimeUnit): ScheduledFuture<V> {
+        return ManualScheduledFuture(callable, currentTimeMillis + unit.toMillis(delay)).also { scheduledTasks.add(it) }
+    }
+
+    override fun scheduleAtFixedRate(command: Runnable, initialDelay: Long, period: Long, unit: TimeUnit): ScheduledFuture<*> {
+        require(period > 0) { "The period must be positive" }
+        val periodMillis = unit.toMillis(period)
+        return ManualScheduledFuture(Callable { command.run() }, currentTimeMillis + unit.toMillis(initialDelay)) { it.dueTime + periodMillis }
+            .also { scheduledTasks.add(it) }
+    }
+
+    override fun scheduleWithFixedDelay(command: Runnable, initialDelay: Long, delay: Long, unit: TimeUnit): ScheduledFuture<*> {
+        require(delay > 0) { "The delay must be positive" }
+        val delayMillis = unit.toMillis(delay)
+        return ManualScheduledFuture(Callable { command.run() }, currentTimeMillis + unit.toMillis(initialDelay)) { currentTimeMillis + delayMillis }
+            .also { scheduledTasks.add(it) }
+    }
+
+    override fun execute(command: Runnable) {
+        command.run()
+    }
+
+    override fun shutdown() {
+        scheduledTasks.clear()
+    }
+
+    override fun shutdownNow(): List<Runnable> {
+        scheduledTasks.clear()
+        return emptyList()
+    }
+
+    override fun isShutdown() = false
+
+    override fun isTerminated() = false
+
+    override fun awaitTermination(timeout: Long, unit: TimeUnit) = true
+
+    private inner class ManualScheduledFuture<V>(
+        callable: Callable<V>, var dueTime: Long, private val nextDueTime: ((ManualScheduledFuture<V>) -> Long)? = null,
+    ) : FutureTask<V>(callable), ScheduledFuture<V> {
+        override fun run() {
+            if (nextDueTime == null) {
+                super.run()
+            } else if (runAndReset()) {
+                dueTime = nextDueTime.invoke(this)
+                scheduledTasks.add(this)
+            }
+        }
+
+        override fun getDelay(unit: TimeUnit) = unit.convert(dueTime - currentTimeMillis, TimeUnit.MILLISECONDS)
+
+        override fun compareTo(other: Delayed) = getDelay(TimeUnit.MILLISECONDS).compareTo(other.getDelay(TimeUnit.MILLISECONDS))
+    }
+
+}
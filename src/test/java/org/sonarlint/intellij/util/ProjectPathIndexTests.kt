@@ -0,0 +1,97 @@
+/*
+ * SonarLint for IntelliJ IDEA
+ * Copyright (C) 2015-2025 SonarSource
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonarlint.intellij.util
+
+import com.intellij.openapi.application.WriteAction
+import com.intellij.testFramework.PsiTestUtil
+import java.nio.file.Paths
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.sonarlint.intellij.AbstractSonarLintLightTests
+import org.sonarlint.intellij.common.util.SonarLintUtils.getService
+
+class ProjectPathIndexTests : AbstractSonarLintLightTests() {
+
+    @Test
+    fun should_find_file_relative_to_a_content_root() {
+        val file = myFixture.copyFileToProject("file.properties", "dir/file.properties")
+
+        assertThat(ProjectUtils.tryFindFile(project, Paths.get("dir", "file.properties"))).isEqualTo(file)
+    }
+
+    @Test
+    fun should_find_file_created_after_a_miss() {
+        val index = getService(project, ProjectPathIndex::class.java)
+        assertThat(index.findFile(Paths.get("created", "file.properties"))).isNull()
+
+        val file = myFixture.copyFileToProject("file.properties", "created/file.properties")
+
+        assertThat(index.findFile(Paths.get("created", "file.properties"))).isEqualTo(file)
+    }
+
+    @Test
+    fun should_only_match_file_content_roots_on_whole_path_segments() {
+        val fileRoot = myFixture.copyFileToProject("file.properties", "otherdir/file.properties")
+        PsiTestUtil.addContentRoot(module, fileRoot)
+        try {
+            val index = getService(project, ProjectPathIndex::class.java)
+
+            assertThat(index.findFile(Paths.get("dir", "file.properties"))).isNull()
+            assertThat(index.findFile(Paths.get("otherdir", "file.properties"))).isEqualTo(fileRoot)
+        } finally {
+            PsiTestUtil.removeContentEntry(module, fileRoot)
+        }
+    }
+
+    @Test
+    fun should_not_find_deleted_file() {
+        val index = getService(project, ProjectPathIndex::class.java)
+        val file = myFixture.copyFileToProject("file.properties", "deleted/file.properties")
+        assertThat(index.findFile(Paths.get("deleted", "file.properties"))).isNotNull
+
+        WriteAction.runAndWait<Exception> { file.delete(this) }
+
+        assertThat(index.findFile(Paths.get("deleted", "file.properties"))).isNull()
+    }
+
+    @Test
+    fun should_find_file_in_renamed_directory() {
+        val index = getService(project, ProjectPathIndex::class.java)
+        val file = myFixture.copyFileToProject("file.properties", "old/file.properties")
+        assertThat(index.findFile(Paths.get("old", "file.properties"))).isEqualTo(file)
+        assertThat(index.findFile(Paths.get("new", "file.properties"))).isNull()
+
+        WriteAction.runAndWait<Exception> { file.parent.rename(this, "new") }
+
+        assertThat(index.findFile(Paths.get("old", "file.properties"))).isNull()
+        assertThat(index.findFile(Paths.get("new", "file.properties"))).isEqualTo(file)
+    }
+
+    @Test
+    fun should_find_file_in_nested_directory_created_after_a_miss() {
+        val index = getService(project, ProjectPathIndex::class.java)
+        assertThat(index.findFile(Paths.get("parent", "child", "file.properties"))).isNull()
+
+        val file = myFixture.copyFileToProject("file.properties", "parent/child/file.properties")
+
+        assertThat(index.findFile(Paths.get("parent", "child", "file.properties"))).isEqualTo(file)
+    }
+
+}